@@ -13,6 +13,7 @@ import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class BookingClient extends BaseClient {
@@ -28,23 +29,25 @@ public class BookingClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
+    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size, String cursor) {
         String path = UriComponentsBuilder.fromUriString("")
                 .queryParam("state", state.name())
                 .queryParam("from", from)
                 .queryParam("size", size)
+                .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
                 .buildAndExpand()
                 .toUriString();
 
         return get(path, userId);
     }
 
-    public ResponseEntity<Object> getAllUserItemBookings(long userId, BookingState state, Integer from, Integer size) {
+    public ResponseEntity<Object> getAllUserItemBookings(long userId, BookingState state, Integer from, Integer size, String cursor) {
         String path = UriComponentsBuilder
                 .fromUriString("/owner")
                 .queryParam("state", state.name())
                 .queryParam("from", from)
                 .queryParam("size", size)
+                .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
                 .buildAndExpand()
                 .toUriString();
 
@@ -2,12 +2,16 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.stream.EventRelay;
+import ru.practicum.shareit.stream.UpstreamEventSource;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
@@ -22,6 +26,7 @@ import static ru.practicum.shareit.item.ItemController.OWNER_ID_HEADER;
 @Validated
 public class BookingController {
     private final BookingClient bookingClient;
+    private final EventRelay bookingEventRelay;
 
     @PostMapping
     public ResponseEntity<Object> create(@RequestHeader(OWNER_ID_HEADER) long userId,
@@ -38,6 +43,13 @@ public class BookingController {
         return bookingClient.setAcceptStatus(userId, bookingId, accepted);
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(OWNER_ID_HEADER) long userId,
+                             @RequestHeader(value = UpstreamEventSource.LAST_EVENT_ID_HEADER, required = false) Long lastEventId) {
+        log.info("Subscribe to booking events, userId={}, lastEventId={}", userId, lastEventId);
+        return bookingEventRelay.subscribe(userId, lastEventId);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBooking(@RequestHeader(OWNER_ID_HEADER) long userId,
                                              @PathVariable Long bookingId) {
@@ -49,21 +61,23 @@ public class BookingController {
     public ResponseEntity<Object> getUserBookings(@RequestHeader(OWNER_ID_HEADER) long userId,
                                               @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                              @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get bookings with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        log.info("Get bookings with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size, cursor);
+        return bookingClient.getBookings(userId, state, from, size, cursor);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<Object> getAllUserItemBookings(@RequestHeader(OWNER_ID_HEADER) long userId,
                                                   @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                                   @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                                  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                  @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get all user item bookings with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getAllUserItemBookings(userId, state, from, size);
+        log.info("Get all user item bookings with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size, cursor);
+        return bookingClient.getAllUserItemBookings(userId, state, from, size, cursor);
     }
 }
@@ -75,6 +75,20 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**Курсор страницы передается на сервер без изменений и только если клиент его прислал.**/
+    protected static String cursorParam(@Nullable String cursor, Map<String, Object> parameters) {
+        return optionalParam("cursor", cursor, parameters);
+    }
+
+    /**Необязательный параметр запроса: добавляется в шаблон пути, только если значение задано.**/
+    protected static String optionalParam(String name, @Nullable Object value, Map<String, Object> parameters) {
+        if (value == null) {
+            return "";
+        }
+        parameters.put(name, value);
+        return "&" + name + "={" + name + "}";
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
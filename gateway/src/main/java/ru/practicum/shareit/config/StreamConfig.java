@@ -0,0 +1,87 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.stream.EventRelay;
+import ru.practicum.shareit.stream.ReplayBuffer;
+import ru.practicum.shareit.stream.SseBroadcaster;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Потоки событий сервера, которые шлюз раздает своим клиентам. Бронирования идут только адресату события
+ * (recipientId), новые запросы — всем, кроме автора (requestorId).
+ **/
+@Configuration
+public class StreamConfig {
+    private final String serverUrl;
+    private final RestTemplateBuilder builder;
+    private final ObjectMapper objectMapper;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+    private final int senderThreads;
+    private final int replayWindow;
+    private final long writeTimeoutMillis;
+
+    public StreamConfig(@Value("${shareit-server.url}") String serverUrl,
+                        RestTemplateBuilder builder,
+                        ObjectMapper objectMapper,
+                        @Value("${shareit.stream.queue-capacity:256}") int queueCapacity,
+                        @Value("${shareit.stream.timeout:1800000}") long timeoutMillis,
+                        @Value("${shareit.stream.sender-threads:4}") int senderThreads,
+                        @Value("${shareit.stream.replay-window:1000}") int replayWindow,
+                        @Value("${shareit.stream.write-timeout:10000}") long writeTimeoutMillis) {
+        this.serverUrl = serverUrl;
+        this.builder = builder;
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeoutMillis;
+        this.senderThreads = senderThreads;
+        this.replayWindow = replayWindow;
+        this.writeTimeoutMillis = writeTimeoutMillis;
+    }
+
+    @Bean
+    public EventRelay bookingEventRelay() {
+        return relay("bookings", "/bookings/stream", data -> {
+            JsonNode recipientId = data.get("recipientId");
+            if (recipientId == null) {
+                return null;
+            }
+            long recipient = recipientId.asLong();
+            return userId -> userId == recipient;
+        });
+    }
+
+    @Bean
+    public EventRelay requestEventRelay() {
+        return relay("requests", "/requests/stream", data -> {
+            JsonNode requestorId = data.get("requestorId");
+            if (requestorId == null) {
+                return userId -> true;
+            }
+            long requestor = requestorId.asLong();
+            return userId -> userId != requestor;
+        });
+    }
+
+    private EventRelay relay(String name, String path, Function<JsonNode, Predicate<Long>> audience) {
+        return new EventRelay(name,
+                builder
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
+                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .build(),
+                path,
+                objectMapper,
+                audience,
+                new SseBroadcaster(name, queueCapacity, timeoutMillis, senderThreads, writeTimeoutMillis),
+                new ReplayBuffer(replayWindow));
+    }
+}
@@ -12,6 +12,8 @@ import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 import ru.practicum.shareit.item.dto.ItemUpdateRequestDto;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -44,20 +46,40 @@ public class ItemClient extends BaseClient {
         return patch("/" + itemId, userId, requestDto);
     }
 
-    public ResponseEntity<Object> getUserItems(long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> getUserItems(long userId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        return get("?from={from}&size={size}" + cursorParam(cursor, parameters), userId, parameters);
+    }
+
+    public ResponseEntity<Object> suggest(String prefix, Integer size) {
         Map<String, Object> parameters = Map.of(
-                "from", from,
+                "prefix", prefix,
                 "size", size
         );
-        return get("?from={from}&size={size}", userId, parameters);
+        return get("/suggest?prefix={prefix}&size={size}", null, parameters);
     }
 
-    public ResponseEntity<Object> search(String query, Integer from, Integer size) {
+    public ResponseEntity<Object> search(String query, LocalDateTime start, LocalDateTime end, Integer fuzzy,
+                                         Boolean facets, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("query", query);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        return get("/search?text={query}&from={from}&size={size}"
+                + optionalParam("start", start, parameters)
+                + optionalParam("end", end, parameters)
+                + optionalParam("fuzzy", fuzzy > 0 ? fuzzy : null, parameters)
+                + optionalParam("facets", facets ? true : null, parameters)
+                + cursorParam(cursor, parameters), null, parameters);
+    }
+
+    public ResponseEntity<Object> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
         Map<String, Object> parameters = Map.of(
-                "query", query,
                 "from", from,
-                "size", size
+                "to", to
         );
-        return get("/search?text={query}&from={from}&size={size}", null, parameters);
+        return get("/" + itemId + "/availability?from={from}&to={to}", null, parameters);
     }
 }
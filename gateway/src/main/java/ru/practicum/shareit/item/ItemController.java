@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -11,6 +12,10 @@ import ru.practicum.shareit.item.dto.ItemRequestDto;
 import ru.practicum.shareit.item.dto.ItemUpdateRequestDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -47,17 +52,41 @@ public class ItemController {
         return itemClient.getItem(userId, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@PathVariable long itemId,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Get availability of item={}, from={}, to={}", itemId, from, to);
+        return itemClient.getAvailability(itemId, from, to);
+    }
+
     @GetMapping
     public ResponseEntity<Object> getUserItems(@RequestHeader(OWNER_ID_HEADER) long userId,
                                                @RequestParam(defaultValue = "0") Integer from,
-                                               @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Get all items of user={}, page from={}, size={}", userId, from, size);
-        return itemClient.getUserItems(userId, from, size);
+                                               @RequestParam(defaultValue = "10") Integer size,
+                                               @RequestParam(required = false) String cursor) {
+        log.info("Get all items of user={}, page from={}, size={}, cursor={}", userId, from, size, cursor);
+        return itemClient.getUserItems(userId, from, size, cursor);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggest(@RequestParam(defaultValue = "") String prefix,
+                                          @Positive @Max(50) @RequestParam(defaultValue = "10") Integer size) {
+        log.info("Suggest, prefix={}, size={}", prefix, size);
+        return itemClient.suggest(prefix, size);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> search(@RequestParam(name = "text", defaultValue = "") String query, @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Search, query={}, page from={}, size={}", query, from, size);
-        return itemClient.search(query, from, size);
+    public ResponseEntity<Object> search(@RequestParam(name = "text", defaultValue = "") String query,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                         @PositiveOrZero @Max(2) @RequestParam(defaultValue = "0") Integer fuzzy,
+                                         @RequestParam(defaultValue = "false") Boolean facets,
+                                         @RequestParam(defaultValue = "0") Integer from,
+                                         @RequestParam(defaultValue = "10") Integer size,
+                                         @RequestParam(required = false) String cursor) {
+        log.info("Search, query={}, start={}, end={}, fuzzy={}, facets={}, page from={}, size={}, cursor={}",
+                query, start, end, fuzzy, facets, from, size, cursor);
+        return itemClient.search(query, start, end, fuzzy, facets, from, size, cursor);
     }
 }
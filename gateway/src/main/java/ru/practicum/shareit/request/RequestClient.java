@@ -10,6 +10,7 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.RequestRequestDto;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -35,12 +36,18 @@ public class RequestClient extends BaseClient {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getAllRequestsPageable(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size
-        );
-        return get("/all", userId, parameters);
+    public ResponseEntity<Object> getAllRequestsPageable(long userId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        return get("/all?from={from}&size={size}" + cursorParam(cursor, parameters), userId, parameters);
+    }
+
+    public ResponseEntity<Object> getMatchingRequests(long userId, Integer from, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        return get("/matching?from={from}&size={size}", userId, parameters);
     }
 
     public ResponseEntity<Object> getSingleRequestById(long userId, Long requestId) {
@@ -2,11 +2,15 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.request.dto.RequestRequestDto;
+import ru.practicum.shareit.stream.EventRelay;
+import ru.practicum.shareit.stream.UpstreamEventSource;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
@@ -21,6 +25,7 @@ import static ru.practicum.shareit.item.ItemController.OWNER_ID_HEADER;
 @Validated
 public class RequestController {
     private final RequestClient requestClient;
+    private final EventRelay requestEventRelay;
 
     @PostMapping
     public ResponseEntity<Object> create(@RequestHeader(OWNER_ID_HEADER) long userId,
@@ -38,9 +43,25 @@ public class RequestController {
     @GetMapping("/all")
     public ResponseEntity<Object> getBooking(@RequestHeader(OWNER_ID_HEADER) long userId,
                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                             @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        log.info("Get all requests except created by user, userId={}", userId);
-        return requestClient.getAllRequestsPageable(userId, from, size);
+                                             @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                             @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Get all requests except created by user, userId={}, cursor={}", userId, cursor);
+        return requestClient.getAllRequestsPageable(userId, from, size, cursor);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(OWNER_ID_HEADER) long userId,
+                             @RequestHeader(value = UpstreamEventSource.LAST_EVENT_ID_HEADER, required = false) Long lastEventId) {
+        log.info("Subscribe to new requests, userId={}, lastEventId={}", userId, lastEventId);
+        return requestEventRelay.subscribe(userId, lastEventId);
+    }
+
+    @GetMapping("/matching")
+    public ResponseEntity<Object> getMatchingRequests(@RequestHeader(OWNER_ID_HEADER) long userId,
+                                                      @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                      @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Get requests matching items of user, userId={}", userId);
+        return requestClient.getMatchingRequests(userId, from, size);
     }
 
     @GetMapping("/{requestId}")
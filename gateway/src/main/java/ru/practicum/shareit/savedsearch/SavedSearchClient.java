@@ -0,0 +1,48 @@
+package ru.practicum.shareit.savedsearch;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.savedsearch.dto.SavedSearchRequestDto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+public class SavedSearchClient extends BaseClient {
+    private static final String API_PREFIX = "/searches";
+
+    @Autowired
+    public SavedSearchClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+        super(
+                builder
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .build()
+        );
+    }
+
+    public ResponseEntity<Object> create(long userId, SavedSearchRequestDto searchDto) {
+        return post("", userId, searchDto);
+    }
+
+    public ResponseEntity<Object> getUserSearches(long userId) {
+        return get("", userId);
+    }
+
+    public ResponseEntity<Object> delete(long userId, long searchId) {
+        return delete("/" + searchId, userId);
+    }
+
+    public ResponseEntity<Object> getNotifications(long userId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        return get("/notifications?from={from}&size={size}" + cursorParam(cursor, parameters), userId, parameters);
+    }
+}
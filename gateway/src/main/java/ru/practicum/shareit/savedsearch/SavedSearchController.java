@@ -0,0 +1,52 @@
+package ru.practicum.shareit.savedsearch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.savedsearch.dto.SavedSearchRequestDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+import static ru.practicum.shareit.item.ItemController.OWNER_ID_HEADER;
+
+@Controller
+@RequestMapping(path = "/searches")
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class SavedSearchController {
+    private final SavedSearchClient savedSearchClient;
+
+    @PostMapping
+    public ResponseEntity<Object> create(@RequestHeader(OWNER_ID_HEADER) long userId,
+                                         @RequestBody @Valid SavedSearchRequestDto searchDto) {
+        log.info("Creating saved search {}, userId={}", searchDto, userId);
+        return savedSearchClient.create(userId, searchDto);
+    }
+
+    @GetMapping
+    public ResponseEntity<Object> getUserSearches(@RequestHeader(OWNER_ID_HEADER) long userId) {
+        log.info("Get saved searches of user, userId={}", userId);
+        return savedSearchClient.getUserSearches(userId);
+    }
+
+    @DeleteMapping("/{searchId}")
+    public ResponseEntity<Object> delete(@RequestHeader(OWNER_ID_HEADER) long userId, @PathVariable long searchId) {
+        log.info("Delete saved search searchId={}, userId={}", searchId, userId);
+        return savedSearchClient.delete(userId, searchId);
+    }
+
+    @GetMapping("/notifications")
+    public ResponseEntity<Object> getNotifications(@RequestHeader(OWNER_ID_HEADER) long userId,
+                                                   @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                   @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Get saved search notifications of user, userId={}, cursor={}", userId, cursor);
+        return savedSearchClient.getNotifications(userId, from, size, cursor);
+    }
+}
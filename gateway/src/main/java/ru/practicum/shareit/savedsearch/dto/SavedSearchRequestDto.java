@@ -0,0 +1,15 @@
+package ru.practicum.shareit.savedsearch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedSearchRequestDto {
+    @NotBlank
+    private String text;
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Поток событий сервера для клиентов шлюза. Шлюз держит одну подписку на path сервера, получает события
+ * всех пользователей и отправляет каждое тем подписчикам, кого пропускает audience. audience строится по данным
+ * события; если вернуть null, событие никому не отправляется.
+ * Последние события хранятся в окне ReplayBuffer, чтобы клиент, переподключившийся с Last-Event-ID,
+ * получил пропущенное. Если сервер сообщил reset, шлюз сам пропустил события: окно очищается,
+ * а reset уходит всем подписчикам.
+ **/
+@Slf4j
+public class EventRelay {
+    private static final String RESET_EVENT = "reset";
+
+    private final String name;
+    private final ObjectMapper objectMapper;
+    private final Function<JsonNode, Predicate<Long>> audience;
+    private final SseBroadcaster broadcaster;
+    private final ReplayBuffer replay;
+    private final UpstreamEventSource upstream;
+    /**id последнего события сервера, от него отсчитывается reset для клиентов вне окна.**/
+    private volatile long lastEventId;
+
+    public EventRelay(String name, RestTemplate rest, String path, ObjectMapper objectMapper,
+                      Function<JsonNode, Predicate<Long>> audience, SseBroadcaster broadcaster, ReplayBuffer replay) {
+        this.name = name;
+        this.objectMapper = objectMapper;
+        this.audience = audience;
+        this.broadcaster = broadcaster;
+        this.replay = replay;
+        this.upstream = new UpstreamEventSource(name, rest, path, this::relay);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        upstream.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        upstream.stop();
+        broadcaster.close();
+    }
+
+    /**Подписка пользователя userId. lastEventId — заголовок Last-Event-ID переподключившегося клиента.**/
+    public synchronized SseEmitter subscribe(long userId, Long lastEventId) {
+        if (lastEventId == null) {
+            return broadcaster.subscribe(userId);
+        }
+        List<SseBroadcaster.Event> backlog = replay.after(lastEventId, userId)
+                .orElseGet(() -> List.of(new SseBroadcaster.Event(String.valueOf(this.lastEventId), RESET_EVENT, "{}")));
+        return broadcaster.subscribe(userId, backlog);
+    }
+
+    /**Публикация и подписка с догрузкой пропущенного не должны чередоваться, иначе событие потеряется или повторится.**/
+    private synchronized void relay(UpstreamEventSource.Event event) {
+        Long id = parseId(event.getId());
+        if (id == null) {
+            log.warn("Event of stream {} from server without id: {}", name, event.getData());
+            return;
+        }
+        lastEventId = id;
+        SseBroadcaster.Event relayed = new SseBroadcaster.Event(event.getId(), event.getName(), event.getData());
+        if (RESET_EVENT.equals(event.getName())) {
+            log.info("Events of stream {} before {} are lost, subscribers are reset", name, id);
+            replay.reset(id);
+            broadcaster.publish(relayed, userId -> true);
+            return;
+        }
+        Predicate<Long> recipients = readAudience(event.getData());
+        if (recipients == null) {
+            return;
+        }
+        replay.add(id, relayed, recipients);
+        broadcaster.publish(relayed, recipients);
+    }
+
+    private static Long parseId(String id) {
+        try {
+            return id == null ? null : Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Predicate<Long> readAudience(String data) {
+        try {
+            return audience.apply(objectMapper.readTree(data));
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable event of stream {} from server: {}", name, data);
+            return null;
+        }
+    }
+}
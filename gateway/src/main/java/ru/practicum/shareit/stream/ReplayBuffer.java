@@ -0,0 +1,67 @@
+package ru.practicum.shareit.stream;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Окно последних capacity событий потока для клиентов, которые переподключаются с заголовком Last-Event-ID.
+ * id событий берутся с сервера и растут. Если часть событий после Last-Event-ID уже вытеснена из окна
+ * или пришлась на время до первого события в окне, after вернет пустой Optional.
+ **/
+public class ReplayBuffer {
+    private final int capacity;
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    /**Все события с id не больше этого значения вне окна. До первого события неизвестно, что было раньше.**/
+    private long lostUpTo = Long.MAX_VALUE;
+
+    public ReplayBuffer(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**Событие для всех получателей, которых пропускает audience.**/
+    public synchronized void add(long id, SseBroadcaster.Event event, Predicate<Long> audience) {
+        if (lostUpTo == Long.MAX_VALUE) {
+            lostUpTo = id - 1;
+        }
+        entries.addLast(new Entry(id, event, audience));
+        if (entries.size() > capacity) {
+            lostUpTo = entries.removeFirst().id;
+        }
+    }
+
+    /**Сервер не смог восстановить пропущенное шлюзом: все события до resetId включительно считаются потерянными.**/
+    public synchronized void reset(long resetId) {
+        entries.clear();
+        lostUpTo = resetId;
+    }
+
+    /**События после lastEventId для получателя recipientId в порядке id.**/
+    public synchronized Optional<List<SseBroadcaster.Event>> after(long lastEventId, Long recipientId) {
+        if (lastEventId < lostUpTo) {
+            return Optional.empty();
+        }
+        List<SseBroadcaster.Event> missed = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.id > lastEventId && entry.audience.test(recipientId)) {
+                missed.add(entry.event);
+            }
+        }
+        return Optional.of(missed);
+    }
+
+    private static class Entry {
+        private final long id;
+        private final SseBroadcaster.Event event;
+        private final Predicate<Long> audience;
+
+        Entry(long id, SseBroadcaster.Event event, Predicate<Long> audience) {
+            this.id = id;
+            this.event = event;
+            this.audience = audience;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package ru.practicum.shareit.stream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Подписка шлюза на поток SSE сервера в отдельном потоке. Каждое событие передается listener.
+ * Оборванное соединение восстанавливается: сразу, если поток успел что-то прислать, иначе с паузой,
+ * которая растет до MAX_BACKOFF_MILLIS. При повторном подключении серверу передается Last-Event-ID.
+ **/
+@Slf4j
+public class UpstreamEventSource {
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private static final long INITIAL_BACKOFF_MILLIS = 1_000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final String name;
+    private final RestTemplate rest;
+    private final String path;
+    private final Consumer<Event> listener;
+
+    private volatile boolean running;
+    private volatile String lastEventId;
+    private volatile InputStream body;
+    private Thread thread;
+
+    public UpstreamEventSource(String name, RestTemplate rest, String path, Consumer<Event> listener) {
+        this.name = name;
+        this.rest = rest;
+        this.path = path;
+        this.listener = listener;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "sse-upstream-" + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        InputStream current = body;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                log.debug("Failed to close upstream stream {}", name, e);
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        while (running) {
+            boolean received = false;
+            try {
+                received = Boolean.TRUE.equals(rest.execute(path, HttpMethod.GET,
+                        request -> {
+                            request.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+                            if (lastEventId != null) {
+                                request.getHeaders().set(LAST_EVENT_ID_HEADER, lastEventId);
+                            }
+                        },
+                        response -> read(response.getBody())));
+            } catch (RestClientException e) {
+                log.debug("Upstream stream {} is unavailable: {}", name, e.getMessage());
+            }
+            if (received) {
+                backoff = INITIAL_BACKOFF_MILLIS;
+                continue;
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    /**Разбор текста SSE: поля id, event и data до пустой строки составляют одно событие, комментарии пропускаются.**/
+    private boolean read(InputStream stream) throws IOException {
+        body = stream;
+        boolean received = false;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        String id = null;
+        String eventName = null;
+        StringBuilder data = new StringBuilder();
+        String line;
+        while (running && (line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (data.length() > 0) {
+                    if (id != null) {
+                        lastEventId = id;
+                    }
+                    listener.accept(new Event(id, eventName, data.toString()));
+                    received = true;
+                }
+                id = null;
+                eventName = null;
+                data.setLength(0);
+                continue;
+            }
+            if (line.startsWith(":")) {
+                continue;
+            }
+            int colon = line.indexOf(':');
+            String field = colon < 0 ? line : line.substring(0, colon);
+            String value = colon < 0 ? "" : line.substring(colon + 1);
+            if (value.startsWith(" ")) {
+                value = value.substring(1);
+            }
+            switch (field) {
+                case "id":
+                    id = value;
+                    break;
+                case "event":
+                    eventName = value;
+                    break;
+                case "data":
+                    if (data.length() > 0) {
+                        data.append('\n');
+                    }
+                    data.append(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return received;
+    }
+
+    public static class Event {
+        private final String id;
+        private final String name;
+        private final String data;
+
+        Event(String id, String name, String data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getData() {
+            return data;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+-- Сравнение способов поиска вещей на каталоге из миллиона записей.
+-- Запуск на отдельной базе PostgreSQL (нужны расширения pg_trgm):
+--   psql -d shareit_bench -f server/benchmark/item-search.sql
+-- Скрипт создает собственную таблицу bench_items и не трогает таблицы приложения.
+-- Для каждого запроса печатается план EXPLAIN (ANALYZE, BUFFERS): сравнивайте узлы
+-- (Seq Scan против Bitmap Index Scan), Execution Time и число прочитанных буферов.
+
+\timing on
+set client_min_messages = warning;
+
+create extension if not exists pg_trgm;
+
+drop table if exists bench_items;
+
+create table bench_items
+(
+    id          integer generated by default as identity primary key,
+    name        varchar not null,
+    description varchar not null,
+    available   boolean not null
+);
+
+-- Названия и описания собираются из словаря, чтобы распределение слов было похоже на реальный каталог.
+insert into bench_items (name, description, available)
+select w[1 + (g * 7) % array_length(w, 1)] || ' ' || w[1 + (g * 13) % array_length(w, 1)],
+       'почти новая ' || w[1 + (g * 17) % array_length(w, 1)] || ', ' || w[1 + (g * 31) % array_length(w, 1)]
+           || ' в комплекте, номер ' || g,
+       g % 10 <> 0
+from generate_series(1, 1000000) g,
+     (select array ['дрель', 'перфоратор', 'шуруповерт', 'лобзик', 'болгарка', 'стремянка', 'палатка',
+         'велосипед', 'самокат', 'мангал', 'проектор', 'гитара', 'пылесос', 'отвертка', 'рубанок',
+         'drill', 'ladder', 'tent', 'bike', 'projector', 'guitar', 'vacuum', 'saw', 'hammer', 'kayak'] w) words;
+
+analyze bench_items;
+
+-- 1. Текущий запрос ItemRepository.search (LIKE по upper): индекса нет, ожидается Seq Scan.
+explain (analyze, buffers)
+select *
+from bench_items i
+where (upper(i.name) like upper('%' || 'дрел' || '%') or upper(i.description) like upper('%' || 'дрел' || '%'))
+  and i.available = true
+order by i.id
+limit 10 offset 0;
+
+-- Индексы режима TRIGRAM.
+create index bench_items_name_trgm_idx on bench_items using gin (name gin_trgm_ops);
+create index bench_items_description_trgm_idx on bench_items using gin (description gin_trgm_ops);
+analyze bench_items;
+
+-- 2. Режим TRIGRAM: подстрока через ILIKE, ожидается BitmapOr по двум триграммным индексам.
+explain (analyze, buffers)
+select *
+from bench_items i
+where (i.name ilike '%' || 'дрел' || '%' or i.description ilike '%' || 'дрел' || '%')
+  and i.available = true
+order by i.id
+limit 10 offset 0;
+
+-- 3. Режим TRIGRAM целиком: подстрока или похожее слово (опечатка «перфаратор»), ранжирование по похожести.
+set pg_trgm.word_similarity_threshold = 0.5;
+explain (analyze, buffers)
+select *
+from bench_items i
+where (i.name ilike '%' || 'перфаратор' || '%' or i.description ilike '%' || 'перфаратор' || '%'
+    or 'перфаратор' <% i.name or 'перфаратор' <% i.description)
+  and i.available = true
+order by greatest(word_similarity('перфаратор', i.name), word_similarity('перфаратор', i.description)) desc, i.id
+limit 10 offset 0;
+
+-- 4. Режим FULL_TEXT для сравнения: целые слова со стеммингом, частичное «дрел» здесь не найдется.
+alter table bench_items
+    add column search_vector tsvector generated always as (
+        setweight(to_tsvector('russian', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('russian', coalesce(description, '')), 'B')
+    ) stored;
+create index bench_items_search_idx on bench_items using gin (search_vector);
+analyze bench_items;
+
+explain (analyze, buffers)
+select *
+from bench_items i
+where i.search_vector @@ plainto_tsquery('russian', 'дрели')
+  and i.available = true
+order by ts_rank(i.search_vector, plainto_tsquery('russian', 'дрели')) desc, i.id
+limit 10 offset 0;
+
+drop table bench_items;
@@ -3,11 +3,16 @@ package ru.practicum.shareit.booking.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.enums.State;
+import ru.practicum.shareit.booking.event.BookingEventStream;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
 
@@ -18,7 +23,9 @@ import java.util.List;
 public class BookingController {
 
     private static final String OWNER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
     private final BookingService service;
+    private final BookingEventStream eventStream;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -35,6 +42,17 @@ public class BookingController {
         return service.setAcceptStatus(userId, bookingId, accepted);
     }
 
+    /**
+     * Поток событий бронирований пользователя. Без X-Sharer-User-Id — события всех пользователей для шлюза.
+     * Last-Event-ID выставляет клиент при переподключении, чтобы получить пропущенные события.
+     **/
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = OWNER_ID_HEADER, required = false) Integer userId,
+                             @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId) {
+        log.info("Подписка на поток бронирований пользователя {} после события {}", userId, lastEventId);
+        return eventStream.subscribe(userId, lastEventId);
+    }
+
     @GetMapping("/{bookingId}")
     public Booking getBooking(@PathVariable int bookingId,
                               @RequestHeader(OWNER_ID_HEADER) Integer userId) {
@@ -43,20 +61,30 @@ public class BookingController {
     }
 
     @GetMapping()
-    public List<Booking> getUserBookings(@RequestHeader(OWNER_ID_HEADER) Integer userId,
-                                         @RequestParam(name = "state", defaultValue = "ALL") State state,
-                                         @RequestParam(defaultValue = "0") Integer from,
-                                         @RequestParam(defaultValue = "10") Integer size) {
+    public ResponseEntity<List<Booking>> getUserBookings(@RequestHeader(OWNER_ID_HEADER) Integer userId,
+                                                         @RequestParam(name = "state", defaultValue = "ALL") State state,
+                                                         @RequestParam(defaultValue = "0") Integer from,
+                                                         @RequestParam(defaultValue = "10") Integer size,
+                                                         @RequestParam(required = false) String cursor) {
         log.info("Вывести бронирование пользователя " + userId);
-        return service.getAllUserBookings(userId, state, from, size);
+        PageCursor pageCursor = PageCursor.decodeTimed(cursor);
+        List<Booking> bookings = service.getAllUserBookings(userId, state, from, size, pageCursor);
+        return ResponseEntity.ok()
+                .headers(PageCursor.nextPageHeaders(bookings, size, pageCursor, it -> PageCursor.of(it.getStart(), it.getId())))
+                .body(bookings);
     }
 
     @GetMapping("/owner")
-    public List<Booking> getAllUserItemBookings(@RequestHeader(OWNER_ID_HEADER) Integer userId,
-                                                @RequestParam(name = "state", defaultValue = "ALL") State state,
-                                                @RequestParam(defaultValue = "0") Integer from,
-                                                @RequestParam(defaultValue = "10") Integer size) {
+    public ResponseEntity<List<Booking>> getAllUserItemBookings(@RequestHeader(OWNER_ID_HEADER) Integer userId,
+                                                                @RequestParam(name = "state", defaultValue = "ALL") State state,
+                                                                @RequestParam(defaultValue = "0") Integer from,
+                                                                @RequestParam(defaultValue = "10") Integer size,
+                                                                @RequestParam(required = false) String cursor) {
         log.info("Запрос всех бронирований по всем вещам пользователя " + userId);
-        return service.getAllUserItemBookings(userId, state, from, size);
+        PageCursor pageCursor = PageCursor.decodeTimed(cursor);
+        List<Booking> bookings = service.getAllUserItemBookings(userId, state, from, size, pageCursor);
+        return ResponseEntity.ok()
+                .headers(PageCursor.nextPageHeaders(bookings, size, pageCursor, it -> PageCursor.of(it.getStart(), it.getId())))
+                .body(bookings);
     }
 }
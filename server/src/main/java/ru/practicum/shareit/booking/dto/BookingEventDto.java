@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.booking.enums.Status;
+
+import java.time.LocalDateTime;
+
+/**Событие потока бронирований. recipientId — пользователь, которому оно адресовано: владелец или арендатор.**/
+@Data
+@AllArgsConstructor
+public class BookingEventDto {
+    private Integer bookingId;
+    private Integer itemId;
+    private String itemName;
+    private Integer bookerId;
+    private Integer ownerId;
+    private Status status;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private Integer recipientId;
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.Getter;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие шины приложения о создании бронирования или смене его статуса.
+ * Поля копируются при публикации: слушатель получает событие после фиксации транзакции,
+ * когда сущность уже может измениться.
+ **/
+@Getter
+public class BookingChangedEvent {
+    private final Integer bookingId;
+    private final Integer itemId;
+    private final String itemName;
+    private final Integer bookerId;
+    private final Integer ownerId;
+    private final Status status;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public BookingChangedEvent(Booking booking) {
+        this.bookingId = booking.getId();
+        this.itemId = booking.getItem().getId();
+        this.itemName = booking.getItem().getName();
+        this.bookerId = booking.getBooker().getId();
+        this.ownerId = booking.getItem().getOwner().getId();
+        this.status = booking.getStatus();
+        this.start = booking.getStart();
+        this.end = booking.getEnd();
+    }
+}
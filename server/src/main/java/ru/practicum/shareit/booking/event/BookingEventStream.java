@@ -0,0 +1,80 @@
+package ru.practicum.shareit.booking.event;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.stream.ReplayBuffer;
+import ru.practicum.shareit.stream.SseBroadcaster;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Поток SSE бронирований по пользователям. Новое бронирование (WAITING) отправляется владельцу вещи
+ * событием booking-created, смена статуса — арендатору событием booking-status. События приходят из шины
+ * приложения только после фиксации транзакции BookingServiceImpl.
+ * Последние события хранятся в окне ReplayBuffer: клиент, переподключившийся с Last-Event-ID, получает
+ * пропущенное, а если окно его уже не покрывает — событие reset, после которого нужно перечитать бронирования.
+ * Отсчет id начинается с текущего времени, поэтому id после перезапуска больше прежних.
+ **/
+@Component
+public class BookingEventStream {
+    static final String CREATED_EVENT = "booking-created";
+    static final String STATUS_EVENT = "booking-status";
+    static final String RESET_EVENT = "reset";
+
+    private final SseBroadcaster broadcaster;
+    private final ReplayBuffer replay;
+    private final AtomicLong lastEventId = new AtomicLong(System.currentTimeMillis() * 1000);
+    /**Публикация и подписка с догрузкой пропущенного не должны чередоваться, иначе событие потеряется или повторится.**/
+    private final Object publishLock = new Object();
+
+    public BookingEventStream(@Value("${shareit.stream.queue-capacity:256}") int queueCapacity,
+                              @Value("${shareit.stream.timeout:1800000}") long timeoutMillis,
+                              @Value("${shareit.stream.sender-threads:2}") int senderThreads,
+                              @Value("${shareit.stream.replay-window:1000}") int replayWindow,
+                              @Value("${shareit.stream.write-timeout:10000}") long writeTimeoutMillis) {
+        this.broadcaster = new SseBroadcaster("bookings", queueCapacity, timeoutMillis, senderThreads, writeTimeoutMillis);
+        this.replay = new ReplayBuffer(replayWindow);
+    }
+
+    /**
+     * Подписка на события пользователя userId или, если userId не задан, на события всех пользователей (для шлюза).
+     * lastEventId — заголовок Last-Event-ID переподключившегося клиента.
+     **/
+    public SseEmitter subscribe(Integer userId, Long lastEventId) {
+        synchronized (publishLock) {
+            if (lastEventId == null) {
+                return broadcaster.subscribe(userId);
+            }
+            List<SseBroadcaster.Event> backlog = replay.after(lastEventId, userId)
+                    .orElseGet(() -> List.of(new SseBroadcaster.Event(this.lastEventId.get(), RESET_EVENT, Map.of())));
+            return broadcaster.subscribe(userId, backlog);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent change) {
+        boolean created = change.getStatus() == Status.WAITING;
+        Integer recipientId = created ? change.getOwnerId() : change.getBookerId();
+        BookingEventDto dto = new BookingEventDto(change.getBookingId(), change.getItemId(), change.getItemName(),
+                change.getBookerId(), change.getOwnerId(), change.getStatus(), change.getStart(), change.getEnd(), recipientId);
+        synchronized (publishLock) {
+            SseBroadcaster.Event event = new SseBroadcaster.Event(lastEventId.incrementAndGet(),
+                    created ? CREATED_EVENT : STATUS_EVENT, dto);
+            replay.add(event, recipientId);
+            broadcaster.publish(event, userId -> userId == null || userId.equals(recipientId));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        broadcaster.close();
+    }
+}
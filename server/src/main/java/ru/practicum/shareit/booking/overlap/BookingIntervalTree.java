@@ -0,0 +1,191 @@
+package ru.practicum.shareit.booking.overlap;
+
+import java.time.LocalDateTime;
+import java.util.function.BiConsumer;
+
+/**
+ * Интервальное дерево бронирований одной вещи.
+ * AVL-дерево по ключу (start, id), каждый узел дополнительно хранит максимальный end своего поддерева,
+ * поэтому вставка, удаление и поиск пересечения выполняются за O(log n).
+ * Интервалы полуоткрытые [start, end): бронирование, которое начинается в момент окончания другого, с ним не пересекается.
+ **/
+public class BookingIntervalTree {
+    private Node root;
+    private int size;
+
+    public void add(Integer bookingId, LocalDateTime start, LocalDateTime end) {
+        root = insert(root, new Node(bookingId, start, end));
+    }
+
+    public void remove(Integer bookingId, LocalDateTime start) {
+        root = delete(root, bookingId, start);
+    }
+
+    /**Возвращает id любого бронирования, пересекающегося с [start, end), или null, если пересечений нет.**/
+    public Integer findOverlapping(LocalDateTime start, LocalDateTime end) {
+        Node node = root;
+        while (node != null) {
+            if (node.start.isBefore(end) && start.isBefore(node.end)) {
+                return node.bookingId;
+            }
+            if (node.left != null && node.left.maxEnd.isAfter(start)) {
+                node = node.left;
+            } else if (node.start.isBefore(end)) {
+                node = node.right;
+            } else {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**Обходит интервалы, пересекающиеся с [start, end), в порядке возрастания start за O(log n + k).**/
+    public void forEachOverlapping(LocalDateTime start, LocalDateTime end, BiConsumer<LocalDateTime, LocalDateTime> action) {
+        forEachOverlapping(root, start, end, action);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void forEachOverlapping(Node node, LocalDateTime start, LocalDateTime end,
+                                    BiConsumer<LocalDateTime, LocalDateTime> action) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return;
+        }
+        forEachOverlapping(node.left, start, end, action);
+        if (!node.start.isBefore(end)) {
+            return;
+        }
+        if (node.end.isAfter(start)) {
+            action.accept(node.start, node.end);
+        }
+        forEachOverlapping(node.right, start, end, action);
+    }
+
+    private Node insert(Node node, Node inserted) {
+        if (node == null) {
+            size++;
+            return inserted;
+        }
+        int cmp = compare(inserted.start, inserted.bookingId, node);
+        if (cmp < 0) {
+            node.left = insert(node.left, inserted);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, inserted);
+        } else {
+            node.end = inserted.end;
+        }
+        return balance(node);
+    }
+
+    private Node delete(Node node, Integer bookingId, LocalDateTime start) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, bookingId, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, bookingId, start);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, bookingId, start);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.right = deleteMin(node.right);
+            successor.right = node.right;
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private int compare(LocalDateTime start, Integer bookingId, Node node) {
+        int cmp = start.compareTo(node.start);
+        return cmp != 0 ? cmp : bookingId.compareTo(node.bookingId);
+    }
+
+    private Node balance(Node node) {
+        node.update();
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static class Node {
+        private final Integer bookingId;
+        private final LocalDateTime start;
+        private LocalDateTime end;
+        private LocalDateTime maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        Node(Integer bookingId, LocalDateTime start, LocalDateTime end) {
+            this.bookingId = bookingId;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+
+        void update() {
+            height = 1 + Math.max(height(left), height(right));
+            maxEnd = end;
+            if (left != null && left.maxEnd.isAfter(maxEnd)) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd.isAfter(maxEnd)) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package ru.practicum.shareit.booking.overlap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Индекс занятых интервалов вещей для быстрой проверки пересечения бронирований и календаря доступности.
+ * Дерево вещи загружается из bookings при первом обращении (только WAITING и APPROVED, которые еще не закончились)
+ * и дальше поддерживается событиями BookingChangedEvent о создании, подтверждении и отклонении бронирований
+ * после коммита транзакции.
+ * Хранятся деревья не более чем shareit.booking.overlap-index.max-items вещей, давно не запрошенные вытесняются (LRU).
+ * Закончившиеся интервалы в дерево не попадают, а уже лежащие в нем удаляются перезагрузкой дерева
+ * через shareit.booking.overlap-index.ttl-minutes после предыдущей загрузки.
+ * Индекс только ускоряет отказ: окончательная проверка выполняется запросом к базе внутри транзакции вставки,
+ * поэтому отставание индекса от базы (другой экземпляр сервера, гонка с загрузкой) не приводит к двойному бронированию.
+ **/
+@Component
+public class BookingOverlapIndex {
+    private static final List<Status> ACTIVE_STATUSES = List.of(Status.APPROVED, Status.WAITING);
+
+    private final BookingRepository repository;
+    private final int maxItems;
+    private final Duration ttl;
+    private final Map<Integer, Entry> trees;
+
+    public BookingOverlapIndex(BookingRepository repository,
+                               @Value("${shareit.booking.overlap-index.max-items:10000}") int maxItems,
+                               @Value("${shareit.booking.overlap-index.ttl-minutes:60}") long ttlMinutes) {
+        this.repository = repository;
+        this.maxItems = maxItems;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.trees = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                return size() > BookingOverlapIndex.this.maxItems;
+            }
+        };
+    }
+
+    /**Есть ли у вещи активное бронирование, пересекающееся с [start, end).**/
+    public boolean hasOverlapping(Integer itemId, LocalDateTime start, LocalDateTime end) {
+        BookingIntervalTree tree = tree(itemId);
+        synchronized (tree) {
+            return tree.findOverlapping(start, end) != null;
+        }
+    }
+
+    /**Занятые интервалы вещи внутри [from, to): слиты, обрезаны по границам диапазона и упорядочены по началу.**/
+    public List<BusyInterval> busyIntervals(Integer itemId, LocalDateTime from, LocalDateTime to) {
+        BookingIntervalTree tree = tree(itemId);
+        List<BusyInterval> busy = new ArrayList<>();
+        synchronized (tree) {
+            tree.forEachOverlapping(from, to, (start, end) -> {
+                BusyInterval last = busy.isEmpty() ? null : busy.get(busy.size() - 1);
+                if (last != null && !start.isAfter(last.getEnd())) {
+                    if (end.isAfter(last.getEnd())) {
+                        last.setEnd(end);
+                    }
+                } else {
+                    busy.add(new BusyInterval(start, end));
+                }
+            });
+        }
+        if (!busy.isEmpty()) {
+            BusyInterval first = busy.get(0);
+            BusyInterval last = busy.get(busy.size() - 1);
+            if (first.getStart().isBefore(from)) {
+                first.setStart(from);
+            }
+            if (last.getEnd().isAfter(to)) {
+                last.setEnd(to);
+            }
+        }
+        return busy;
+    }
+
+    /**
+     * Отклоненное бронирование убирается из дерева вещи, новое или подтвержденное добавляется или обновляется.
+     * Закончившееся бронирование не добавляется. Деревья, которых нет в индексе, не загружаются.
+     **/
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent change) {
+        BookingIntervalTree tree = loadedTree(change.getItemId());
+        if (tree == null) {
+            return;
+        }
+        synchronized (tree) {
+            if (change.getStatus() == Status.REJECTED) {
+                tree.remove(change.getBookingId(), change.getStart());
+            } else if (change.getEnd().isAfter(LocalDateTime.now())) {
+                tree.add(change.getBookingId(), change.getStart(), change.getEnd());
+            }
+        }
+    }
+
+    /**
+     * Дерево вещи: из индекса, если оно загружено не раньше ttl назад, иначе из базы.
+     * Запрос к базе выполняется вне блокировки индекса; если дерево успел загрузить другой поток, берется его дерево.
+     **/
+    private BookingIntervalTree tree(Integer itemId) {
+        BookingIntervalTree cached = loadedTree(itemId);
+        if (cached != null) {
+            return cached;
+        }
+        Entry loaded = new Entry(load(itemId), LocalDateTime.now());
+        synchronized (trees) {
+            Entry current = trees.get(itemId);
+            if (current != null && !current.isExpired(ttl)) {
+                return current.tree;
+            }
+            trees.put(itemId, loaded);
+        }
+        return loaded.tree;
+    }
+
+    private BookingIntervalTree loadedTree(Integer itemId) {
+        synchronized (trees) {
+            Entry entry = trees.get(itemId);
+            return entry == null || entry.isExpired(ttl) ? null : entry.tree;
+        }
+    }
+
+    private BookingIntervalTree load(Integer itemId) {
+        BookingIntervalTree tree = new BookingIntervalTree();
+        for (Object[] row : repository.findActiveIntervalsOfItem(itemId, ACTIVE_STATUSES, LocalDateTime.now())) {
+            tree.add((Integer) row[0], (LocalDateTime) row[1], (LocalDateTime) row[2]);
+        }
+        return tree;
+    }
+
+    private static class Entry {
+        private final BookingIntervalTree tree;
+        private final LocalDateTime loadedAt;
+
+        Entry(BookingIntervalTree tree, LocalDateTime loadedAt) {
+            this.tree = tree;
+            this.loadedAt = loadedAt;
+        }
+
+        boolean isExpired(Duration ttl) {
+            return loadedAt.plus(ttl).isBefore(LocalDateTime.now());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.overlap;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**Занятый интервал вещи [start, end): объединение пересекающихся или смежных активных бронирований.**/
+@Data
+@AllArgsConstructor
+public class BusyInterval {
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
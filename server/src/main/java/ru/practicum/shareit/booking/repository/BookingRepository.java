@@ -9,24 +9,111 @@ import ru.practicum.shareit.user.model.User;
 
 import org.springframework.data.domain.Pageable;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface BookingRepository extends JpaRepository<Booking, Integer> {
 
-    List<Booking> findAllByBookerOrderByCreatedDesc(User booker, Pageable pageable);
+    @Query("select b from Booking b where b.booker = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id > ?3)) order by b.start desc, b.id")
+    List<Booking> findBookerBookings(User booker, LocalDateTime cursorStart, Integer cursorId, Pageable pageable);
 
-    List<Booking> getBookingsByBookerAndStartIsAfter(User booker, LocalDateTime dateAfter);
+    @Query("select b from Booking b where b.booker = ?1 and b.end < ?2 and b.status in ?3 " +
+            "and (b.start < ?4 or (b.start = ?4 and b.id > ?5)) order by b.start desc, b.id")
+    List<Booking> findBookerPastBookings(User booker, LocalDateTime now, Collection<Status> statuses, LocalDateTime cursorStart, Integer cursorId, Pageable pageable);
 
-    List<Booking> getBookingsByBookerAndEndIsBefore(User booker, LocalDateTime dateBefore);
+    @Query("select b from Booking b where b.booker = ?1 and b.start < ?2 and b.end > ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id > ?4)) order by b.start desc, b.id")
+    List<Booking> findBookerCurrentBookings(User booker, LocalDateTime now, LocalDateTime cursorStart, Integer cursorId, Pageable pageable);
 
-    List<Booking> getBookingsByBookerAndStartIsBeforeAndEndIsAfter(User booker, LocalDateTime dateAfter, LocalDateTime dateBefore);
+    @Query("select b from Booking b where b.booker = ?1 and b.start > ?2 and b.status in ?3 " +
+            "and (b.start < ?4 or (b.start = ?4 and b.id > ?5)) order by b.start desc, b.id")
+    List<Booking> findBookerFutureBookings(User booker, LocalDateTime now, Collection<Status> statuses, LocalDateTime cursorStart, Integer cursorId, Pageable pageable);
 
-    List<Booking> getBookingsByBookerAndStatusEquals(User booker, Status status);
+    @Query("select b from Booking b where b.booker = ?1 and b.status = ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id > ?4)) order by b.start desc, b.id")
+    List<Booking> findBookerBookingsByStatus(User booker, Status status, LocalDateTime cursorStart, Integer cursorId, Pageable pageable);
 
     List<Booking> getBookingsByBookerAndItemAndStatusEqualsAndStartBefore(User booker, Item item, Status status, LocalDateTime timeBefore);
 
-    List<Booking> findAllByItem(Item item);
+    /**Незакончившиеся бронирования вещи в заданных статусах в виде (id, start, end) для индекса пересечений.
+     * Условие на end ищется по bookings_item_status_end_idx, прошедшие бронирования не читаются.**/
+    @Query("select b.id, b.start, b.end from Booking b where b.item.id = ?1 and b.status in ?2 and b.end > ?3")
+    List<Object[]> findActiveIntervalsOfItem(Integer itemId, Collection<Status> statuses, LocalDateTime now);
 
-    @Query("select b from Item i join Booking b on b.item = i where i.available = true and i.owner = ?1 order by b.created desc")
-    List<Booking> getAllUserItems(User user, Pageable pageable);
+    /**Вещи из списка, у которых есть подтвержденное бронирование, пересекающееся с интервалом [start, end).
+     * Поиск по bookings_item_status_end_idx с b.end > start: бронирования, закончившиеся раньше интервала, не читаются.**/
+    @Query("select distinct b.item.id from Booking b where b.item.id in ?1 " +
+            "and b.status = ru.practicum.shareit.booking.enums.Status.APPROVED and b.start < ?3 and b.end > ?2")
+    List<Integer> findItemIdsWithApprovedOverlap(Collection<Integer> itemIds, LocalDateTime start, LocalDateTime end);
+
+    /**Есть ли у вещи бронирование в заданных статусах, пересекающееся с интервалом [start, end).
+     * Поиск по bookings_item_status_end_idx с b.end > start: бронирования, закончившиеся раньше интервала, не читаются.**/
+    @Query("select case when count(b) > 0 then true else false end from Booking b " +
+            "where b.item.id = ?1 and b.status in ?2 and b.start < ?4 and b.end > ?3")
+    boolean existsOverlappingBooking(Integer itemId, Collection<Status> statuses, LocalDateTime start, LocalDateTime end);
+
+    /**Последнее и следующее бронирование одной вещи. Каждая ветка — поиск первой записи по индексу
+     * (item_id, status, start_date) для одного статуса, поэтому время не зависит от истории бронирований вещи.
+     * Формат строк совпадает с findLastAndNextBookingsOfItems.**/
+    @Query(value = "select item_id, id, booker_id, last_booking from (" +
+            "(select item_id, id, booker_id, true as last_booking from (" +
+            "(select item_id, id, booker_id, start_date from bookings " +
+            "where item_id = ?1 and status = 'APPROVED' and start_date < ?2 order by start_date desc, id limit 1) " +
+            "union all " +
+            "(select item_id, id, booker_id, start_date from bookings " +
+            "where item_id = ?1 and status = 'WAITING' and start_date < ?2 order by start_date desc, id limit 1)" +
+            ") l order by start_date desc, id limit 1) " +
+            "union all " +
+            "(select item_id, id, booker_id, false as last_booking from (" +
+            "(select item_id, id, booker_id, start_date from bookings " +
+            "where item_id = ?1 and status = 'APPROVED' and start_date > ?2 order by start_date, id desc limit 1) " +
+            "union all " +
+            "(select item_id, id, booker_id, start_date from bookings " +
+            "where item_id = ?1 and status = 'WAITING' and start_date > ?2 order by start_date, id desc limit 1)" +
+            ") n order by start_date, id desc limit 1)" +
+            ") b", nativeQuery = true)
+    List<Object[]> findLastAndNextBookingsOfItem(Integer itemId, LocalDateTime now);
+
+    /**Последнее и ближайшее следующее бронирование (WAITING/APPROVED) для каждой вещи из списка одним запросом.
+     * Строка результата: item_id, id бронирования, booker_id, last_booking (true — последнее, false — следующее).**/
+    @Query(value = "select item_id, id, booker_id, last_booking from (" +
+            "select item_id, id, booker_id, true as last_booking, " +
+            "row_number() over (partition by item_id order by start_date desc, id) as rn " +
+            "from bookings where item_id in ?1 and status in ('WAITING', 'APPROVED') and start_date < ?2 " +
+            "union all " +
+            "select item_id, id, booker_id, false as last_booking, " +
+            "row_number() over (partition by item_id order by start_date, id desc) as rn " +
+            "from bookings where item_id in ?1 and status in ('WAITING', 'APPROVED') and start_date > ?2" +
+            ") w where w.rn = 1", nativeQuery = true)
+    List<Object[]> findLastAndNextBookingsOfItems(Collection<Integer> itemIds, LocalDateTime now);
+
+    /**Пары (id вещи, число бронирований в статусе status).**/
+    @Query("select b.item.id, count(b.id) from Booking b where b.status = ?1 group by b.item.id")
+    List<Object[]> countBookingsByItem(Status status);
+
+    /**То же для вещей с id в (afterId, lastId]: порция построения подсказок.**/
+    @Query("select b.item.id, count(b.id) from Booking b where b.status = ?1 and b.item.id > ?2 and b.item.id <= ?3 " +
+            "group by b.item.id")
+    List<Object[]> countBookingsOfItemsBetween(Status status, Integer afterId, Integer lastId);
+
+    @Query("select b from Booking b join b.item i where i.owner = ?1 and i.available = true " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id > ?3)) order by b.start desc, b.id")
+    List<Booking> findOwnerBookings(User owner, LocalDateTime cursorStart, Integer cursorId, Pageable pageable);
+
+    @Query("select b from Booking b join b.item i where i.owner = ?1 and i.available = true and b.end < ?2 and b.status in ?3 " +
+            "and (b.start < ?4 or (b.start = ?4 and b.id > ?5)) order by b.start desc, b.id")
+    List<Booking> findOwnerPastBookings(User owner, LocalDateTime now, Collection<Status> statuses, LocalDateTime cursorStart, Integer cursorId, Pageable pageable);
+
+    @Query("select b from Booking b join b.item i where i.owner = ?1 and i.available = true and b.start < ?2 and b.end > ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id > ?4)) order by b.start desc, b.id")
+    List<Booking> findOwnerCurrentBookings(User owner, LocalDateTime now, LocalDateTime cursorStart, Integer cursorId, Pageable pageable);
+
+    @Query("select b from Booking b join b.item i where i.owner = ?1 and i.available = true and b.start > ?2 and b.status in ?3 " +
+            "and (b.start < ?4 or (b.start = ?4 and b.id > ?5)) order by b.start desc, b.id")
+    List<Booking> findOwnerFutureBookings(User owner, LocalDateTime now, Collection<Status> statuses, LocalDateTime cursorStart, Integer cursorId, Pageable pageable);
+
+    @Query("select b from Booking b join b.item i where i.owner = ?1 and i.available = true and b.status = ?2 " +
+            "and (b.start < ?3 or (b.start = ?3 and b.id > ?4)) order by b.start desc, b.id")
+    List<Booking> findOwnerBookingsByStatus(User owner, Status status, LocalDateTime cursorStart, Integer cursorId, Pageable pageable);
 }
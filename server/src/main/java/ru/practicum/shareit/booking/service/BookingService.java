@@ -3,6 +3,7 @@ package ru.practicum.shareit.booking.service;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.enums.State;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
 
@@ -20,10 +21,11 @@ public interface BookingService {
 
     /**Получение списка всех бронирований текущего пользователя.
      * Параметр state необязательный и по умолчанию равен ALL (англ. «все»).
-     * Бронирования должны возвращаться отсортированными по дате от более новых к более старым.**/
-    List<Booking> getAllUserBookings(Integer userId, State state, Integer from, Integer size);
+     * Бронирования должны возвращаться отсортированными по дате от более новых к более старым.
+     * Если передан cursor, страница начинается сразу после указанного им бронирования, from игнорируется.**/
+    List<Booking> getAllUserBookings(Integer userId, State state, Integer from, Integer size, PageCursor cursor);
 
     /**Получение списка бронирований для всех вещей текущего пользователя.
      * Этот запрос имеет смысл для владельца хотя бы одной вещи. Работа параметра state аналогична его работе в предыдущем сценарии.**/
-    List<Booking> getAllUserItemBookings(Integer userId, State state, Integer from, Integer size);
+    List<Booking> getAllUserItemBookings(Integer userId, State state, Integer from, Integer size, PageCursor cursor);
 }
@@ -2,27 +2,35 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.comparator.BookingComparator;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.enums.State;
 import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.overlap.BookingOverlapIndex;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.mapper.RequestMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
 import javax.validation.ValidationException;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,15 +39,34 @@ public class BookingServiceImpl implements BookingService {
     private final UserServiceImpl userService;
     private final ItemServiceImpl itemService;
     private final BookingRepository repository;
+    private final BookingOverlapIndex overlapIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
+    /**Статусы бронирований, которые учитываются в выборках PAST и FUTURE.**/
+    private static final List<Status> ACTIVE_STATUSES = List.of(Status.APPROVED, Status.WAITING);
+
+    /**Ограничение исключения, которое запрещает пересечение подтвержденных бронирований (PostgreSQL).**/
+    private static final String NO_OVERLAP_CONSTRAINT = "bookings_approved_no_overlap";
+    /**SQLState нарушения ограничения исключения в PostgreSQL.**/
+    private static final String EXCLUSION_VIOLATION_STATE = "23P01";
+
+    /**Пересечение подтвержденных бронирований запрещено ограничением исключения в базе (PostgreSQL).
+     * Если false (H2), та же проверка при подтверждении выполняется сервисом под блокировкой строки вещи.
+     * Создание бронирования от флага не зависит: ограничение не распространяется на WAITING.**/
+    @Value("${shareit.booking.exclusion-constraint:false}")
+    private boolean exclusionConstraint;
 
     @Override
+    @Transactional
     public Booking create(Integer userId, BookingDto bookingDto) throws ValidationException {
         User booker = userService.getUser(userId);
-        Item item = itemService.getItem(bookingDto.getItemId());
+        Item item = itemService.getItemForUpdate(bookingDto.getItemId());
         Booking newBooking = BookingMapper.toBooking(bookingDto, booker, item, Status.WAITING);
         validateBooking(newBooking);
-        return repository.save(newBooking);
+        checkIfItemIsFree(newBooking);
+        Booking booking = repository.save(newBooking);
+        eventPublisher.publishEvent(new BookingChangedEvent(booking));
+        return booking;
     }
 
     @Override
@@ -50,106 +77,102 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional
     public Booking setAcceptStatus(Integer userId, Integer bookingId, Boolean accepted) {
         Booking booking = getBooking(bookingId);
         checkIfUserCanChangeBookingStatus(userId, booking);
         checkIfStatusCanBeChanged(booking);
         if (accepted) {
+            Booking approved = approve(booking);
+            eventPublisher.publishEvent(new BookingChangedEvent(approved));
+            return approved;
+        }
+        booking.setStatus(Status.REJECTED);
+        Booking rejected = repository.save(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(rejected));
+        return rejected;
+    }
+
+    /**Проверка выполняется до смены статуса: иначе автоматический flush перед запросом учтет само бронирование.**/
+    private Booking approve(Booking booking) {
+        if (!exclusionConstraint) {
+            checkIfNoApprovedOverlap(booking);
             booking.setStatus(Status.APPROVED);
-        } else {
-            booking.setStatus(Status.REJECTED);
+            return repository.save(booking);
+        }
+        booking.setStatus(Status.APPROVED);
+        try {
+            return repository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (isOverlapViolation(e)) {
+                throw new ConflictException("Вещь уже забронирована на даты бронирования " + booking.getId());
+            }
+            throw e;
+        }
+    }
+
+    /**Нарушено ли ограничение пересечений, а не, например, внешний ключ или NOT NULL.**/
+    private static boolean isOverlapViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException
+                    && NO_OVERLAP_CONSTRAINT.equals(((ConstraintViolationException) cause).getConstraintName())) {
+                return true;
+            }
+            if (cause instanceof SQLException && EXCLUSION_VIOLATION_STATE.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
         }
-        return repository.save(booking);
+        return false;
     }
 
     @Override
-    public List<Booking> getAllUserBookings(Integer userId, State state, Integer from, Integer size) {
-        List<Booking> bookings;
+    public List<Booking> getAllUserBookings(Integer userId, State state, Integer from, Integer size, PageCursor cursor) {
         User user = userService.getUser(userId);
-        PageRequest request = RequestMapper.toPageRequest(from, size);
+        PageRequest request = RequestMapper.toPageRequest(from, size, cursor);
+        PageCursor after = PageCursor.orFirst(cursor);
+        LocalDateTime now = LocalDateTime.now();
 
         switch (state) {
             case ALL:
-                bookings = repository.findAllByBookerOrderByCreatedDesc(user, request);
-                break;
+                return repository.findBookerBookings(user, after.getTime(), after.getId(), request);
             case PAST:
-                bookings = repository.getBookingsByBookerAndEndIsBefore(user, LocalDateTime.now())
-                        .stream()
-                        .filter(it -> (it.getStatus().equals(Status.APPROVED) || it.getStatus().equals(Status.WAITING)))
-                        .collect(Collectors.toList());
-                break;
+                return repository.findBookerPastBookings(user, now, ACTIVE_STATUSES, after.getTime(), after.getId(), request);
             case CURRENT:
-                bookings = repository.getBookingsByBookerAndStartIsBeforeAndEndIsAfter(user, LocalDateTime.now(), LocalDateTime.now());
-                break;
+                return repository.findBookerCurrentBookings(user, now, after.getTime(), after.getId(), request);
             case FUTURE:
-                bookings = repository.getBookingsByBookerAndStartIsAfter(user, LocalDateTime.now())
-                        .stream().filter(it -> (it.getStatus().equals(Status.APPROVED) || it.getStatus().equals(Status.WAITING)))
-                        .collect(Collectors.toList());
-                break;
+                return repository.findBookerFutureBookings(user, now, ACTIVE_STATUSES, after.getTime(), after.getId(), request);
             case WAITING:
-                bookings = repository.getBookingsByBookerAndStatusEquals(user, Status.WAITING);
-                break;
+                return repository.findBookerBookingsByStatus(user, Status.WAITING, after.getTime(), after.getId(), request);
             case REJECTED:
-                bookings = repository.getBookingsByBookerAndStatusEquals(user, Status.REJECTED);
-                break;
+                return repository.findBookerBookingsByStatus(user, Status.REJECTED, after.getTime(), after.getId(), request);
             default:
                 throw new ValidationException("Такого статуса не существует");
         }
-        bookings.sort(new BookingComparator());
-        return bookings;
     }
 
     @Override
-    public List<Booking> getAllUserItemBookings(Integer userId, State state, Integer from, Integer size) {
+    public List<Booking> getAllUserItemBookings(Integer userId, State state, Integer from, Integer size, PageCursor cursor) {
         User user = userService.getUser(userId);
-        List<Booking> bookings;
-
-        PageRequest request = RequestMapper.toPageRequest(from, size);
-
-        List<Booking> allUserBookings = repository.getAllUserItems(user, request);
+        PageRequest request = RequestMapper.toPageRequest(from, size, cursor);
+        PageCursor after = PageCursor.orFirst(cursor);
+        LocalDateTime now = LocalDateTime.now();
 
         switch (state) {
             case ALL:
-                bookings = allUserBookings;
-                break;
+                return repository.findOwnerBookings(user, after.getTime(), after.getId(), request);
             case PAST:
-                bookings = allUserBookings
-                        .stream()
-                        .filter(it -> it.getStatus().equals(Status.APPROVED) || it.getStatus().equals(Status.WAITING))
-                        .filter(it -> it.getEnd().isBefore(LocalDateTime.now()))
-                        .collect(Collectors.toList());
-                break;
+                return repository.findOwnerPastBookings(user, now, ACTIVE_STATUSES, after.getTime(), after.getId(), request);
             case CURRENT:
-                bookings = allUserBookings
-                        .stream()
-                        .filter(it -> it.getStart().isBefore(LocalDateTime.now()))
-                        .filter(it -> it.getEnd().isAfter(LocalDateTime.now()))
-                        .collect(Collectors.toList());
-                break;
+                return repository.findOwnerCurrentBookings(user, now, after.getTime(), after.getId(), request);
             case FUTURE:
-                bookings = allUserBookings
-                        .stream()
-                        .filter(it -> it.getStatus().equals(Status.APPROVED) || it.getStatus().equals(Status.WAITING))
-                        .filter(it -> it.getStart().isAfter(LocalDateTime.now()))
-                        .collect(Collectors.toList());
-                break;
+                return repository.findOwnerFutureBookings(user, now, ACTIVE_STATUSES, after.getTime(), after.getId(), request);
             case WAITING:
-                bookings = allUserBookings
-                        .stream()
-                        .filter(it -> it.getStatus().equals(Status.WAITING))
-                        .collect(Collectors.toList());
-                break;
+                return repository.findOwnerBookingsByStatus(user, Status.WAITING, after.getTime(), after.getId(), request);
             case REJECTED:
-                bookings = allUserBookings
-                        .stream()
-                        .filter(it -> it.getStatus().equals(Status.REJECTED))
-                        .collect(Collectors.toList());
-                break;
+                return repository.findOwnerBookingsByStatus(user, Status.REJECTED, after.getTime(), after.getId(), request);
             default:
                 throw new ValidationException("Такого статуса не существует");
         }
-        bookings.sort(new BookingComparator());
-        return bookings;
     }
 
     private Boolean checkIfUserIsAuthor(Integer userId, Booking booking) {
@@ -204,4 +227,23 @@ public class BookingServiceImpl implements BookingService {
             throw new NoSuchElementException("Пользователь не может взять в аренду свою вещь");
         }
     }
+
+    /**Быстрый отказ по индексу интервалов, затем проверка по базе. Строка вещи к этому моменту заблокирована,
+     * поэтому параллельное бронирование той же вещи не пройдет проверку до коммита текущего.**/
+    private void checkIfItemIsFree(Booking booking) {
+        Integer itemId = booking.getItem().getId();
+        if (overlapIndex.hasOverlapping(itemId, booking.getStart(), booking.getEnd())
+                || repository.existsOverlappingBooking(itemId, ACTIVE_STATUSES, booking.getStart(), booking.getEnd())) {
+            throw new ValidationException("Вещь уже забронирована на эти даты");
+        }
+    }
+
+    /**Замена ограничения исключения для баз без него: проверка под блокировкой строки вещи.**/
+    private void checkIfNoApprovedOverlap(Booking booking) {
+        Integer itemId = booking.getItem().getId();
+        itemService.getItemForUpdate(itemId);
+        if (repository.existsOverlappingBooking(itemId, List.of(Status.APPROVED), booking.getStart(), booking.getEnd())) {
+            throw new ConflictException("Вещь уже забронирована на даты бронирования " + booking.getId());
+        }
+    }
 }
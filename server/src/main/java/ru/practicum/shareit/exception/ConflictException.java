@@ -0,0 +1,8 @@
+package ru.practicum.shareit.exception;
+
+/**Операция противоречит текущему состоянию данных, например пересекающиеся подтвержденные бронирования.**/
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -25,6 +25,12 @@ public class ErrorHandler {
         return Map.of("Искомый элемент не найден", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleConflictException(final ConflictException e) {
+        return Map.of("Конфликт с текущим состоянием", e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleUnsupportedOperation(final MethodArgumentTypeMismatchException e) {
@@ -2,12 +2,16 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -46,15 +50,63 @@ public class ItemController {
         return itemService.getById(itemId, userId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable Integer itemId,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Вывести календарь вещи ID = {} c {} по {}", itemId, from, to);
+        return itemService.getAvailability(itemId, from, to);
+    }
+
     @GetMapping()
-    public List<ItemResponseDto> getUserItems(@RequestHeader(OWNER_ID_HEADER) Integer userId, @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size) {
+    public ResponseEntity<List<ItemResponseDto>> getUserItems(@RequestHeader(OWNER_ID_HEADER) Integer userId,
+                                                              @RequestParam(defaultValue = "0") Integer from,
+                                                              @RequestParam(defaultValue = "10") Integer size,
+                                                              @RequestParam(required = false) String cursor) {
         log.info("Вывести вещи пользователя ID = {}", userId);
-        return itemService.getAllUserItems(userId, from, size);
+        PageCursor pageCursor = PageCursor.decodeId(cursor);
+        List<ItemResponseDto> items = itemService.getAllUserItems(userId, from, size, pageCursor);
+        return ResponseEntity.ok()
+                .headers(PageCursor.nextPageHeaders(items, size, pageCursor, it -> PageCursor.of(it.getId())))
+                .body(items);
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestParam(defaultValue = "") String prefix,
+                                @RequestParam(defaultValue = "10") Integer size) {
+        log.info("Подсказки названий вещей по префиксу {}", prefix);
+        return itemService.suggest(prefix, size);
+    }
+
+    @GetMapping(value = "/search", params = "facets=true")
+    public ResponseEntity<ItemSearchResultDto> searchWithFacets(@RequestParam(name = "text", defaultValue = "") String query,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                                                @RequestParam(defaultValue = "0") Integer fuzzy,
+                                                                @RequestParam(defaultValue = "0") Integer from,
+                                                                @RequestParam(defaultValue = "10") Integer size,
+                                                                @RequestParam(required = false) String cursor) {
+        log.info("Вывести вещи и счетчики фильтров по запросу {}", query);
+        PageCursor pageCursor = PageCursor.decodeId(cursor);
+        ItemSearchResultDto result = itemService.searchWithFacets(query, start, end, fuzzy, from, size, pageCursor);
+        return ResponseEntity.ok()
+                .headers(PageCursor.nextPageHeaders(result.getItems(), size, pageCursor, it -> PageCursor.of(it.getId())))
+                .body(result);
     }
 
     @GetMapping("/search")
-    public List<Item> search(@RequestParam(name = "text", defaultValue = "") String query, @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size) {
+    public ResponseEntity<List<Item>> search(@RequestParam(name = "text", defaultValue = "") String query,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                             @RequestParam(defaultValue = "0") Integer fuzzy,
+                                             @RequestParam(defaultValue = "0") Integer from,
+                                             @RequestParam(defaultValue = "10") Integer size,
+                                             @RequestParam(required = false) String cursor) {
         log.info("Вывести вещи по запросу {}", query);
-        return itemService.search(query, from, size);
+        PageCursor pageCursor = PageCursor.decodeId(cursor);
+        List<Item> items = itemService.search(query, start, end, fuzzy, from, size, pageCursor);
+        return ResponseEntity.ok()
+                .headers(PageCursor.nextPageHeaders(items, size, pageCursor, it -> PageCursor.of(it.getId())))
+                .body(items);
     }
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**Интервал календаря вещи [start, end): free = true — свободен, false — занят ожидающим или подтвержденным бронированием.**/
+@Data
+@AllArgsConstructor
+@RequiredArgsConstructor
+public class AvailabilitySlotDto {
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private Boolean free;
+}
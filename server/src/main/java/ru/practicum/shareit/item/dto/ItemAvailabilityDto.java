@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**Календарь занятости вещи на диапазоне [from, to). available — признак доступности вещи для бронирования вообще.**/
+@Data
+@AllArgsConstructor
+@RequiredArgsConstructor
+public class ItemAvailabilityDto {
+    private Integer itemId;
+    private Boolean available;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<AvailabilitySlotDto> slots;
+}
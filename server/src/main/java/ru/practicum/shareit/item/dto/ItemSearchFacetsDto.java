@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Счетчики фильтров поиска по всем вещам, подходящим под текст запроса, без учета страницы и диапазона дат:
+ * доступные и недоступные вещи, созданные по запросу и без него, владельцы с наибольшим числом совпадений.
+ **/
+@Data
+@AllArgsConstructor
+@RequiredArgsConstructor
+public class ItemSearchFacetsDto {
+    private Long available;
+    private Long unavailable;
+    private Long withRequest;
+    private Long withoutRequest;
+    private List<OwnerFacetDto> owners;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**Страница результатов поиска вместе со счетчиками фильтров.**/
+@Data
+@AllArgsConstructor
+@RequiredArgsConstructor
+public class ItemSearchResultDto {
+    private List<Item> items;
+    private ItemSearchFacetsDto facets;
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+/**Владелец и число его вещей среди найденных.**/
+@Data
+@AllArgsConstructor
+@RequiredArgsConstructor
+public class OwnerFacetDto {
+    private Integer ownerId;
+    private Long count;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.enums;
+
+/**
+ * Способ поиска вещей по тексту (shareit.search.mode):
+ * LIKE — подстрока в названии или описании без индекса, работает на любой базе (профиль test на H2);
+ * FULL_TEXT — полнотекстовый поиск PostgreSQL по tsvector со стеммингом и ранжированием ts_rank;
+ * TRIGRAM — подстрока и нечеткое совпадение слов через триграммные GIN-индексы pg_trgm (PostgreSQL);
+ * INDEX — инвертированный индекс в памяти сервера (ItemSearchIndex), база нужна только для загрузки найденных вещей;
+ * включается профилем index.
+ * Параметр поиска fuzzy (допустимое число опечаток, 0..2) поддерживает только INDEX: в остальных режимах
+ * запрос с fuzzy > 0 отклоняется с 400 (TRIGRAM и так находит слова с опечатками по порогу сходства).
+ * Пока индекс INDEX строится после старта, поиск идет как в LIKE и fuzzy не учитывается.
+ **/
+public enum SearchMode {
+    LIKE,
+    FULL_TEXT,
+    TRIGRAM,
+    INDEX
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item.event;
+
+import lombok.Getter;
+import ru.practicum.shareit.item.model.Item;
+
+/**
+ * Событие шины приложения о создании или изменении вещи. Индексы поиска, подсказки, кэш результатов поиска,
+ * сохраненные поиски и лента запросов получают его после фиксации транзакции ItemServiceImpl.
+ * Вещи копируются при публикации: слушатель получает событие, когда сущность уже может измениться.
+ **/
+@Getter
+public class ItemChangedEvent {
+    /**Вещь до изменения или null для новой вещи.**/
+    private final Item before;
+    private final Item item;
+
+    public ItemChangedEvent(Item before, Item item) {
+        this.before = copyOf(before);
+        this.item = copyOf(item);
+    }
+
+    public boolean isCreated() {
+        return before == null;
+    }
+
+    private static Item copyOf(Item item) {
+        if (item == null) {
+            return null;
+        }
+        return new Item(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                item.getOwner(), item.getRequest());
+    }
+}
@@ -2,7 +2,6 @@ package ru.practicum.shareit.item.mapper;
 
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.Request;
@@ -35,22 +34,7 @@ public class ItemMapper {
                 requestId);
     }
 
-    public static ItemResponseDto toItemResponseDto(Item item, Booking nextBooking, Booking lastBooking, List<CommentResponseDTO> comments) {
-        BookingInfoDto lastBook;
-        BookingInfoDto nextBook;
-
-        if (lastBooking == null) {
-            lastBook = null;
-        } else {
-            lastBook = new BookingInfoDto(lastBooking.getId(), lastBooking.getBooker().getId());
-        }
-
-        if (nextBooking == null) {
-            nextBook = null;
-        } else {
-            nextBook = new BookingInfoDto(nextBooking.getId(), nextBooking.getBooker().getId());
-        }
-
+    public static ItemResponseDto toItemResponseDto(Item item, BookingInfoDto nextBooking, BookingInfoDto lastBooking, List<CommentResponseDTO> comments) {
         return new ItemResponseDto(
                 item.getId(),
                 item.getName(),
@@ -58,8 +42,8 @@ public class ItemMapper {
                 item.getAvailable(),
                 item.getOwner(),
                 null,
-                lastBook,
-                nextBook,
+                lastBooking,
+                nextBooking,
                 comments);
     }
 }
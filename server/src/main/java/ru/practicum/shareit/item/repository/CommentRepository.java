@@ -1,11 +1,13 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
-import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
-    List<Comment> findCommentByItemEquals(Item item);
+    @Query("select c from Comment c join fetch c.author join fetch c.item where c.item.id in ?1")
+    List<Comment> findAllByItemIdIn(Collection<Integer> itemIds);
 }
@@ -2,15 +2,127 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.Request;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Integer> {
-    @Query("select i from Item i where (upper(i.name) like upper(concat('%', ?1, '%'))) or (upper(i.description) like upper(concat('%', ?1, '%'))) and i.available = true")
-    List<Item> search(String text, Pageable pageable);
+    @Query("select i from Item i where (upper(i.name) like upper(concat('%', ?1, '%')) or upper(i.description) like upper(concat('%', ?1, '%'))) and i.available = true " +
+            "and i.id > ?2 order by i.id")
+    List<Item> search(String text, Integer cursorId, Pageable pageable);
+
+    /**Счетчики фильтров поиска одним проходом: строки (owner_id, available, число вещей, из них созданных по запросу)
+     * по всем вещам, подходящим под текст, независимо от доступности.**/
+    @Query("select i.owner.id, i.available, count(i.id), count(r.id) from Item i left join i.request r " +
+            "where upper(i.name) like upper(concat('%', ?1, '%')) or upper(i.description) like upper(concat('%', ?1, '%')) " +
+            "group by i.owner.id, i.available")
+    List<Object[]> countFacets(String text);
+
+    /**Поиск среди вещей, у которых нет подтвержденных бронирований, пересекающихся с [start, end).
+     * Анти-соединение по индексу bookings (item_id, status, start_date, end_date).**/
+    @Query("select i from Item i where (upper(i.name) like upper(concat('%', ?1, '%')) or upper(i.description) like upper(concat('%', ?1, '%'))) and i.available = true " +
+            "and not exists (select b.id from Booking b where b.item = i and b.status = ru.practicum.shareit.booking.enums.Status.APPROVED " +
+            "and b.start < ?3 and b.end > ?2) " +
+            "and i.id > ?4 order by i.id")
+    List<Item> searchFreeBetween(String text, LocalDateTime start, LocalDateTime end, Integer cursorId, Pageable pageable);
+
+    /**Полнотекстовый поиск PostgreSQL по сгенерированному столбцу search_vector (GIN-индекс).
+     * ranked = true — порядок по ts_rank (постраничный вывод from/size), false — по id (курсоры).**/
+    @Query(value = "select i.* from items i " +
+            "where i.search_vector @@ plainto_tsquery('russian', ?1) and i.is_available = true and i.id > ?2 " +
+            "order by case when ?3 then ts_rank(i.search_vector, plainto_tsquery('russian', ?1)) else 0 end desc, i.id",
+            nativeQuery = true)
+    List<Item> searchFullText(String text, Integer cursorId, Boolean ranked, Pageable pageable);
+
+    /**Полнотекстовый поиск среди вещей без подтвержденных бронирований, пересекающихся с [start, end).
+     * Анти-соединение по столбцу bookings.period и GiST-индексу ограничения исключения.**/
+    @Query(value = "select i.* from items i " +
+            "where i.search_vector @@ plainto_tsquery('russian', ?1) and i.is_available = true " +
+            "and not exists (select 1 from bookings b where b.item_id = i.id and b.status = 'APPROVED' " +
+            "and b.period && tsrange(?2, ?3)) " +
+            "and i.id > ?4 " +
+            "order by case when ?5 then ts_rank(i.search_vector, plainto_tsquery('russian', ?1)) else 0 end desc, i.id",
+            nativeQuery = true)
+    List<Item> searchFullTextFreeBetween(String text, LocalDateTime start, LocalDateTime end, Integer cursorId,
+                                         Boolean ranked, Pageable pageable);
+
+    @Query(value = "select i.owner_id, i.is_available, count(*) as matched, count(i.request_id) as with_request from items i " +
+            "where i.search_vector @@ plainto_tsquery('russian', ?1) " +
+            "group by i.owner_id, i.is_available",
+            nativeQuery = true)
+    List<Object[]> countFullTextFacets(String text);
+
+    /**Поиск по триграммным GIN-индексам pg_trgm: подстрока (ILIKE) или слово, похожее на запрос (оператор <%).
+     * Порог похожести задается настройкой pg_trgm.word_similarity_threshold соединения.
+     * ranked = true — порядок по похожести (постраничный вывод from/size), false — по id (курсоры).**/
+    @Query(value = "select i.* from items i " +
+            "where (i.name ilike concat('%', ?1, '%') or i.description ilike concat('%', ?1, '%') " +
+            "or ?1 <% i.name or ?1 <% i.description) " +
+            "and i.is_available = true and i.id > ?2 " +
+            "order by case when ?3 then greatest(word_similarity(?1, i.name), word_similarity(?1, i.description)) else 0 end desc, i.id",
+            nativeQuery = true)
+    List<Item> searchTrigram(String text, Integer cursorId, Boolean ranked, Pageable pageable);
+
+    @Query(value = "select i.* from items i " +
+            "where (i.name ilike concat('%', ?1, '%') or i.description ilike concat('%', ?1, '%') " +
+            "or ?1 <% i.name or ?1 <% i.description) " +
+            "and i.is_available = true " +
+            "and not exists (select 1 from bookings b where b.item_id = i.id and b.status = 'APPROVED' " +
+            "and b.period && tsrange(?2, ?3)) " +
+            "and i.id > ?4 " +
+            "order by case when ?5 then greatest(word_similarity(?1, i.name), word_similarity(?1, i.description)) else 0 end desc, i.id",
+            nativeQuery = true)
+    List<Item> searchTrigramFreeBetween(String text, LocalDateTime start, LocalDateTime end, Integer cursorId,
+                                        Boolean ranked, Pageable pageable);
+
+    @Query(value = "select i.owner_id, i.is_available, count(*) as matched, count(i.request_id) as with_request from items i " +
+            "where i.name ilike concat('%', ?1, '%') or i.description ilike concat('%', ?1, '%') " +
+            "or ?1 <% i.name or ?1 <% i.description " +
+            "group by i.owner_id, i.is_available",
+            nativeQuery = true)
+    List<Object[]> countTrigramFacets(String text);
+
+    /**Названия доступных вещей, начинающиеся с prefix: подсказки, пока дерево подсказок не построено.**/
+    @Query("select distinct i.name from Item i where upper(i.name) like upper(concat(?1, '%')) and i.available = true " +
+            "order by i.name")
+    List<String> findAvailableNamesStartingWith(String prefix, Pageable pageable);
+
+    /**Доступные вещи в виде (id, name, description) порциями по возрастанию id: для построения подсказок.**/
+    @Query("select i.id, i.name, i.description from Item i where i.available = true and i.id > ?1 order by i.id")
+    List<Object[]> findSearchableItemsAfter(Integer lastId, Pageable pageable);
+
+    /**Все вещи в виде (id, name, description, available, owner_id, request_id) порциями по возрастанию id.**/
+    @Query("select i.id, i.name, i.description, i.available, i.owner.id, r.id from Item i left join i.request r " +
+            "where i.id > ?1 order by i.id")
+    List<Object[]> findIndexableItemsAfter(Integer lastId, Pageable pageable);
+
+    @Query("select i from Item i left join fetch i.owner left join fetch i.request where i.id in ?1")
+    List<Item> findAllWithOwnerByIdIn(Collection<Integer> ids);
+
+    @Query("select i from Item i where i.owner.id = ?1 and i.id > ?2 order by i.id")
+    List<Item> findOwnerItems(Integer ownerId, Integer cursorId, Pageable pageable);
+
+    /**Вещь с блокировкой строки до конца транзакции: сериализует создание бронирований одной вещи.**/
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(Integer id);
 
     List<Item> findAllByRequest(Request request);
+
+    /**Названия и описания доступных вещей владельца в виде (name, description).**/
+    @Query("select i.name, i.description from Item i where i.owner.id = ?1 and i.available = true")
+    List<Object[]> findAvailableItemTextsOfOwner(Integer ownerId);
+
+    @Query("select distinct i.request.id from Item i where i.owner.id = ?1 and i.request is not null")
+    List<Integer> findRequestIdsAnsweredByOwner(Integer ownerId);
+
+    @Query("select i from Item i where i.request.id in ?1 order by i.id")
+    List<Item> findAllByRequestIdIn(Collection<Integer> requestIds);
 }
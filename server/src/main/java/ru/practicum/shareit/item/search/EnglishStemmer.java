@@ -0,0 +1,351 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Стеммер английского языка по классическому алгоритму Портера (1980).
+ * Слово должно быть в нижнем регистре и состоять из латинских букв; слова короче трех букв не изменяются.
+ **/
+final class EnglishStemmer {
+    private final char[] b;
+    private int k;
+    private int j;
+
+    private EnglishStemmer(String word) {
+        this.b = word.toCharArray();
+        this.k = b.length - 1;
+    }
+
+    static String stem(String word) {
+        if (word.length() <= 2) {
+            return word;
+        }
+        EnglishStemmer stemmer = new EnglishStemmer(word);
+        stemmer.step1ab();
+        if (stemmer.k > 0) {
+            stemmer.step1c();
+            stemmer.step2();
+            stemmer.step3();
+            stemmer.step4();
+            stemmer.step5();
+        }
+        return new String(stemmer.b, 0, stemmer.k + 1);
+    }
+
+    private boolean cons(int i) {
+        switch (b[i]) {
+            case 'a':
+            case 'e':
+            case 'i':
+            case 'o':
+            case 'u':
+                return false;
+            case 'y':
+                return i == 0 || !cons(i - 1);
+            default:
+                return true;
+        }
+    }
+
+    /**Число последовательностей «гласные-согласные» в b[0..j].**/
+    private int m() {
+        int n = 0;
+        int i = 0;
+        while (true) {
+            if (i > j) {
+                return n;
+            }
+            if (!cons(i)) {
+                break;
+            }
+            i++;
+        }
+        i++;
+        while (true) {
+            while (true) {
+                if (i > j) {
+                    return n;
+                }
+                if (cons(i)) {
+                    break;
+                }
+                i++;
+            }
+            i++;
+            n++;
+            while (true) {
+                if (i > j) {
+                    return n;
+                }
+                if (!cons(i)) {
+                    break;
+                }
+                i++;
+            }
+            i++;
+        }
+    }
+
+    private boolean vowelInStem() {
+        for (int i = 0; i <= j; i++) {
+            if (!cons(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean doubleC(int i) {
+        return i >= 1 && b[i] == b[i - 1] && cons(i);
+    }
+
+    /**Согласная-гласная-согласная в конце, причем последняя согласная не w, x и не y.**/
+    private boolean cvc(int i) {
+        if (i < 2 || !cons(i) || cons(i - 1) || !cons(i - 2)) {
+            return false;
+        }
+        return b[i] != 'w' && b[i] != 'x' && b[i] != 'y';
+    }
+
+    private boolean ends(String s) {
+        int length = s.length();
+        int offset = k - length + 1;
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (b[offset + i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        j = k - length;
+        return true;
+    }
+
+    /**Заменяет b[j+1..k] на s. Замена никогда не длиннее исходного окончания, поэтому массив не растет.**/
+    private void setTo(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            b[j + 1 + i] = s.charAt(i);
+        }
+        k = j + s.length();
+    }
+
+    private void replaceIfMeasured(String s) {
+        if (m() > 0) {
+            setTo(s);
+        }
+    }
+
+    private void step1ab() {
+        if (b[k] == 's') {
+            if (ends("sses")) {
+                k -= 2;
+            } else if (ends("ies")) {
+                setTo("i");
+            } else if (b[k - 1] != 's') {
+                k--;
+            }
+        }
+        if (ends("eed")) {
+            if (m() > 0) {
+                k--;
+            }
+        } else if ((ends("ed") || ends("ing")) && vowelInStem()) {
+            k = j;
+            if (ends("at")) {
+                setTo("ate");
+            } else if (ends("bl")) {
+                setTo("ble");
+            } else if (ends("iz")) {
+                setTo("ize");
+            } else if (doubleC(k)) {
+                k--;
+                if (b[k] == 'l' || b[k] == 's' || b[k] == 'z') {
+                    k++;
+                }
+            } else {
+                j = k;
+                if (m() == 1 && cvc(k)) {
+                    setTo("e");
+                }
+            }
+        }
+    }
+
+    private void step1c() {
+        if (ends("y") && vowelInStem()) {
+            b[k] = 'i';
+        }
+    }
+
+    private void step2() {
+        if (k == 0) {
+            return;
+        }
+        switch (b[k - 1]) {
+            case 'a':
+                if (ends("ational")) {
+                    replaceIfMeasured("ate");
+                } else if (ends("tional")) {
+                    replaceIfMeasured("tion");
+                }
+                break;
+            case 'c':
+                if (ends("enci")) {
+                    replaceIfMeasured("ence");
+                } else if (ends("anci")) {
+                    replaceIfMeasured("ance");
+                }
+                break;
+            case 'e':
+                if (ends("izer")) {
+                    replaceIfMeasured("ize");
+                }
+                break;
+            case 'l':
+                if (ends("bli")) {
+                    replaceIfMeasured("ble");
+                } else if (ends("alli")) {
+                    replaceIfMeasured("al");
+                } else if (ends("entli")) {
+                    replaceIfMeasured("ent");
+                } else if (ends("eli")) {
+                    replaceIfMeasured("e");
+                } else if (ends("ousli")) {
+                    replaceIfMeasured("ous");
+                }
+                break;
+            case 'o':
+                if (ends("ization")) {
+                    replaceIfMeasured("ize");
+                } else if (ends("ation")) {
+                    replaceIfMeasured("ate");
+                } else if (ends("ator")) {
+                    replaceIfMeasured("ate");
+                }
+                break;
+            case 's':
+                if (ends("alism")) {
+                    replaceIfMeasured("al");
+                } else if (ends("iveness")) {
+                    replaceIfMeasured("ive");
+                } else if (ends("fulness")) {
+                    replaceIfMeasured("ful");
+                } else if (ends("ousness")) {
+                    replaceIfMeasured("ous");
+                }
+                break;
+            case 't':
+                if (ends("aliti")) {
+                    replaceIfMeasured("al");
+                } else if (ends("iviti")) {
+                    replaceIfMeasured("ive");
+                } else if (ends("biliti")) {
+                    replaceIfMeasured("ble");
+                }
+                break;
+            case 'g':
+                if (ends("logi")) {
+                    replaceIfMeasured("log");
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void step3() {
+        switch (b[k]) {
+            case 'e':
+                if (ends("icate")) {
+                    replaceIfMeasured("ic");
+                } else if (ends("ative")) {
+                    replaceIfMeasured("");
+                } else if (ends("alize")) {
+                    replaceIfMeasured("al");
+                }
+                break;
+            case 'i':
+                if (ends("iciti")) {
+                    replaceIfMeasured("ic");
+                }
+                break;
+            case 'l':
+                if (ends("ical")) {
+                    replaceIfMeasured("ic");
+                } else if (ends("ful")) {
+                    replaceIfMeasured("");
+                }
+                break;
+            case 's':
+                if (ends("ness")) {
+                    replaceIfMeasured("");
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void step4() {
+        if (k == 0) {
+            return;
+        }
+        boolean found;
+        switch (b[k - 1]) {
+            case 'a':
+                found = ends("al");
+                break;
+            case 'c':
+                found = ends("ance") || ends("ence");
+                break;
+            case 'e':
+                found = ends("er");
+                break;
+            case 'i':
+                found = ends("ic");
+                break;
+            case 'l':
+                found = ends("able") || ends("ible");
+                break;
+            case 'n':
+                found = ends("ant") || ends("ement") || ends("ment") || ends("ent");
+                break;
+            case 'o':
+                found = (ends("ion") && j >= 0 && (b[j] == 's' || b[j] == 't')) || ends("ou");
+                break;
+            case 's':
+                found = ends("ism");
+                break;
+            case 't':
+                found = ends("ate") || ends("iti");
+                break;
+            case 'u':
+                found = ends("ous");
+                break;
+            case 'v':
+                found = ends("ive");
+                break;
+            case 'z':
+                found = ends("ize");
+                break;
+            default:
+                found = false;
+                break;
+        }
+        if (found && m() > 1) {
+            k = j;
+        }
+    }
+
+    private void step5() {
+        j = k;
+        if (b[k] == 'e') {
+            int measure = m();
+            if (measure > 1 || (measure == 1 && !cvc(k - 1))) {
+                k--;
+            }
+        }
+        if (b[k] == 'l' && doubleC(k) && m() > 1) {
+            k--;
+        }
+    }
+}
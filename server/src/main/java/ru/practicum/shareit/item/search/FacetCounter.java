@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.dto.ItemSearchFacetsDto;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Накопитель счетчиков фильтров поиска. Заполняется за один проход: строками группировки из базы
+ * (владелец, доступность, число вещей, из них по запросу) или вещами из индекса по одной.
+ **/
+public class FacetCounter {
+    private long available;
+    private long unavailable;
+    private long withRequest;
+    private long total;
+    private final Map<Integer, Long> owners = new HashMap<>();
+
+    public void add(Integer ownerId, boolean isAvailable, long count, long countWithRequest) {
+        if (isAvailable) {
+            available += count;
+        } else {
+            unavailable += count;
+        }
+        total += count;
+        withRequest += countWithRequest;
+        if (ownerId != null) {
+            owners.merge(ownerId, count, Long::sum);
+        }
+    }
+
+    /**Строки вида (owner_id, available, count, count_with_request).**/
+    public static FacetCounter fromRows(List<Object[]> rows) {
+        FacetCounter counter = new FacetCounter();
+        for (Object[] row : rows) {
+            counter.add(((Number) row[0]).intValue(), (Boolean) row[1],
+                    ((Number) row[2]).longValue(), ((Number) row[3]).longValue());
+        }
+        return counter;
+    }
+
+    /**ownerLimit владельцев с наибольшим числом вещей, при равенстве — с меньшим id.**/
+    public ItemSearchFacetsDto toDto(int ownerLimit) {
+        TopK topOwners = new TopK(ownerLimit);
+        owners.forEach(topOwners::offer);
+        List<OwnerFacetDto> ownerFacets = topOwners.sorted().stream()
+                .map(id -> new OwnerFacetDto(id, owners.get(id)))
+                .collect(Collectors.toList());
+        return new ItemSearchFacetsDto(available, unavailable, withRequest, total - withRequest, ownerFacets);
+    }
+}
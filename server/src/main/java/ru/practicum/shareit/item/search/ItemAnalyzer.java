@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Разбор текста вещи и поискового запроса на термы для индекса ItemSearchIndex.
+ * Текст приводится к нижнему регистру, ё заменяется на е, разделителем считается любой символ,
+ * кроме букв и цифр. Слова из кириллицы приводятся к основе русским стеммером, из латиницы — английским,
+ * поэтому «дрели» и «дрель», «drills» и «drilling» дают один терм. Смешанные слова и числа не изменяются.
+ **/
+public final class ItemAnalyzer {
+
+    private ItemAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = tokenize(text);
+        terms.replaceAll(ItemAnalyzer::stem);
+        return terms;
+    }
+
+    /**Слова текста в нижнем регистре без приведения к основе.**/
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean tokenChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    static String stem(String token) {
+        if (isWritten(token, 'а', 'я')) {
+            return RussianStemmer.stem(token);
+        }
+        if (isWritten(token, 'a', 'z')) {
+            return EnglishStemmer.stem(token);
+        }
+        return token;
+    }
+
+    private static boolean isWritten(String token, char first, char last) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c < first || c > last) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,288 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.enums.SearchMode;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс вещей в памяти сервера для режима поиска INDEX.
+ * Для каждого терма названия и описания хранится отсортированный список id вещей. В индекс попадают и
+ * недоступные вещи: поиск отдает только доступные, а счетчики фильтров считаются по всем совпадениям.
+ * Индекс строится при старте из items порциями по id и дальше обновляется
+ * событиями о создании и изменении вещей после фиксации транзакции. Пока индекс не построен, isReady() возвращает false.
+ * Запрос совпадает с вещью, если каждый его терм является префиксом какого-либо терма вещи.
+ * Для ранжирования индекс также хранит число подтвержденных бронирований каждой вещи.
+ **/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final int BUILD_BATCH_SIZE = 10_000;
+    /**Сколько ближайших термов словаря подставляется вместо одного терма запроса с опечаткой.**/
+    private static final int MAX_FUZZY_EXPANSIONS = 50;
+
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+
+    private final NavigableMap<String, PostingList> nameTerms = new TreeMap<>();
+    private final NavigableMap<String, PostingList> descriptionTerms = new TreeMap<>();
+    /**Термы проиндексированных вещей: нужны, чтобы убрать старую версию вещи из списков при изменении.**/
+    private final Map<Integer, IndexedItem> items = new HashMap<>();
+    private final BitSet available = new BitSet();
+    /**Вещи, измененные во время построения: построение не должно перезаписать их устаревшей версией.**/
+    private final Set<Integer> touchedDuringBuild = new HashSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Integer> approvedBookings = new ConcurrentHashMap<>();
+
+    @Value("${shareit.search.mode:LIKE}")
+    private SearchMode searchMode = SearchMode.LIKE;
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (searchMode != SearchMode.INDEX) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        for (Object[] row : bookingRepository.countBookingsByItem(Status.APPROVED)) {
+            approvedBookings.merge((Integer) row[0], ((Number) row[1]).intValue(), Integer::sum);
+        }
+        int lastId = 0;
+        List<Object[]> batch;
+        do {
+            batch = itemRepository.findIndexableItemsAfter(lastId, PageRequest.of(0, BUILD_BATCH_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : batch) {
+                    Integer id = (Integer) row[0];
+                    if (!touchedDuringBuild.contains(id)) {
+                        put(id, (String) row[1], (String) row[2], (Boolean) row[3], (Integer) row[4], row[5] != null);
+                    }
+                    lastId = id;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } while (batch.size() == BUILD_BATCH_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            touchedDuringBuild.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс вещей построен: {} вещей, {} термов, {} мс",
+                items.size(), nameTerms.size() + descriptionTerms.size(), System.currentTimeMillis() - started);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**Индекс обновляется раньше, чем SearchResultCache сбрасывает записи: иначе в кэш попадет старый результат.**/
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        index(event.getItem());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent change) {
+        if (change.getStatus() == Status.APPROVED) {
+            bookingApproved(change.getItemId());
+        }
+    }
+
+    /**Добавляет или обновляет вещь в индексе.**/
+    public void index(Item item) {
+        if (searchMode != SearchMode.INDEX || item.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                touchedDuringBuild.add(item.getId());
+            }
+            remove(item.getId());
+            put(item.getId(), item.getName(), item.getDescription(), Boolean.TRUE.equals(item.getAvailable()),
+                    item.getOwner() == null ? null : item.getOwner().getId(), item.getRequest() != null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**Учитывает подтверждение бронирования вещи в ее популярности.**/
+    public void bookingApproved(Integer itemId) {
+        if (searchMode != SearchMode.INDEX) {
+            return;
+        }
+        approvedBookings.merge(itemId, 1, Integer::sum);
+    }
+
+    /**Доступные вещи, подходящие под запрос. Пустой результат, если в запросе нет термов.**/
+    public SearchHits search(String query) {
+        return search(query, 0, false);
+    }
+
+    /**
+     * То же с допуском опечаток: кроме префиксного совпадения терм запроса совпадает с термами словаря,
+     * до которых не больше fuzziness правок (вставка, удаление, замена). Для коротких термов допуск меньше:
+     * до 2 букв — без правок, до 4 букв — одна правка. На каждый терм запроса берется не больше
+     * MAX_FUZZY_EXPANSIONS ближайших термов словаря, так что время запроса ограничено.
+     * withFacets — заодно посчитать счетчики фильтров одним проходом по всем совпадениям.
+     **/
+    public SearchHits search(String query, int fuzziness, boolean withFacets) {
+        List<String> queryTerms = ItemAnalyzer.analyze(query);
+        List<BitSet> nameMatches = new ArrayList<>(queryTerms.size());
+        List<BitSet> descriptionMatches = new ArrayList<>(queryTerms.size());
+        BitSet result = null;
+        lock.readLock().lock();
+        try {
+            for (String term : queryTerms) {
+                BitSet inName = new BitSet();
+                BitSet inDescription = new BitSet();
+                collectPrefix(nameTerms, term, inName);
+                collectPrefix(descriptionTerms, term, inDescription);
+                int maxEdits = Math.min(fuzziness, term.length() <= 2 ? 0 : term.length() <= 4 ? 1 : 2);
+                if (maxEdits > 0) {
+                    collectFuzzy(term, maxEdits, inName, inDescription);
+                }
+                nameMatches.add(inName);
+                descriptionMatches.add(inDescription);
+                BitSet matches = (BitSet) inName.clone();
+                matches.or(inDescription);
+                if (result == null) {
+                    result = matches;
+                } else {
+                    result.and(matches);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            if (result == null) {
+                result = new BitSet();
+            }
+            FacetCounter facets = withFacets ? countFacets(result) : null;
+            result.and(available);
+            return new SearchHits(result, nameMatches, descriptionMatches, approvedBookings, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private FacetCounter countFacets(BitSet matches) {
+        FacetCounter facets = new FacetCounter();
+        for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+            IndexedItem indexed = items.get(id);
+            facets.add(indexed.ownerId, available.get(id), 1, indexed.withRequest ? 1 : 0);
+        }
+        return facets;
+    }
+
+    private void collectPrefix(NavigableMap<String, PostingList> terms, String prefix, BitSet target) {
+        for (PostingList postings : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            postings.addTo(target);
+        }
+    }
+
+    private void collectFuzzy(String term, int maxEdits, BitSet inName, BitSet inDescription) {
+        Map<String, Integer> distances = new HashMap<>();
+        LevenshteinWalk.collect(nameTerms.navigableKeySet(), term, maxEdits, distances);
+        LevenshteinWalk.collect(descriptionTerms.navigableKeySet(), term, maxEdits, distances);
+        distances.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue()
+                        .thenComparing(it -> -documentFrequency(it.getKey())))
+                .limit(MAX_FUZZY_EXPANSIONS)
+                .forEach(it -> {
+                    addPostings(nameTerms.get(it.getKey()), inName);
+                    addPostings(descriptionTerms.get(it.getKey()), inDescription);
+                });
+    }
+
+    private int documentFrequency(String term) {
+        PostingList inName = nameTerms.get(term);
+        PostingList inDescription = descriptionTerms.get(term);
+        return (inName == null ? 0 : inName.size()) + (inDescription == null ? 0 : inDescription.size());
+    }
+
+    private static void addPostings(PostingList postings, BitSet target) {
+        if (postings != null) {
+            postings.addTo(target);
+        }
+    }
+
+    private void put(Integer id, String name, String description, boolean isAvailable, Integer ownerId, boolean withRequest) {
+        IndexedItem indexed = new IndexedItem(distinct(name), distinct(description), ownerId, withRequest);
+        available.set(id, isAvailable);
+        for (String term : indexed.nameTerms) {
+            nameTerms.computeIfAbsent(term, it -> new PostingList()).add(id);
+        }
+        for (String term : indexed.descriptionTerms) {
+            descriptionTerms.computeIfAbsent(term, it -> new PostingList()).add(id);
+        }
+        items.put(id, indexed);
+    }
+
+    private void remove(Integer id) {
+        IndexedItem indexed = items.remove(id);
+        if (indexed == null) {
+            return;
+        }
+        removePostings(nameTerms, indexed.nameTerms, id);
+        removePostings(descriptionTerms, indexed.descriptionTerms, id);
+        available.clear(id);
+    }
+
+    private void removePostings(Map<String, PostingList> terms, String[] itemTerms, int id) {
+        for (String term : itemTerms) {
+            PostingList postings = terms.get(term);
+            if (postings != null) {
+                postings.remove(id);
+                if (postings.isEmpty()) {
+                    terms.remove(term);
+                }
+            }
+        }
+    }
+
+    private static String[] distinct(String text) {
+        return new LinkedHashSet<>(ItemAnalyzer.analyze(text)).toArray(new String[0]);
+    }
+
+    private static class IndexedItem {
+        private final String[] nameTerms;
+        private final String[] descriptionTerms;
+        private final Integer ownerId;
+        private final boolean withRequest;
+
+        IndexedItem(String[] nameTerms, String[] descriptionTerms, Integer ownerId, boolean withRequest) {
+            this.nameTerms = nameTerms;
+            this.descriptionTerms = descriptionTerms;
+            this.ownerId = ownerId;
+            this.withRequest = withRequest;
+        }
+    }
+}
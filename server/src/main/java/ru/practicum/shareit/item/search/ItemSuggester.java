@@ -0,0 +1,215 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Подсказки названий доступных вещей по префиксу для строки поиска.
+ * Название попадает в дерево подсказок с каждого своего слова, поэтому «шуруп» подсказывает «Дрель-шуруповерт».
+ * Популярность названия — сумма по доступным вещам с этим названием единицы и числа подтвержденных бронирований.
+ * Дерево строится при старте из items и дальше обновляется событиями о создании и изменении вещей и подтверждении
+ * бронирований после фиксации транзакции.
+ * Построение читает всю таблицу items, поэтому включается свойством shareit.search.suggester.enabled (профиль index);
+ * выключенный подсказчик ничего не хранит, и подсказки идут запросом к базе по началу названия.
+ **/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSuggester {
+    private static final int BUILD_BATCH_SIZE = 10_000;
+    private static final char KEY_SEPARATOR = '\0';
+
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+
+    private final SuggestTrie trie = new SuggestTrie();
+    /**Название и вес каждой вещи в дереве: нужны, чтобы убрать ее вклад при изменении.**/
+    private final Map<Integer, SuggestedItem> items = new HashMap<>();
+    private final Map<Integer, Integer> approvedBookings = new HashMap<>();
+    private final Set<Integer> touchedDuringBuild = new HashSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Value("${shareit.search.suggester.enabled:false}")
+    private boolean enabled;
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        int lastId = 0;
+        List<Object[]> batch;
+        do {
+            batch = itemRepository.findSearchableItemsAfter(lastId, PageRequest.of(0, BUILD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            lock.writeLock().lock();
+            try {
+                loadBatch(batch, lastId);
+                lastId = (Integer) batch.get(batch.size() - 1)[0];
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } while (batch.size() == BUILD_BATCH_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            touchedDuringBuild.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Подсказки названий вещей построены: {} вещей, {} мс", items.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Число подтвержденных бронирований порции читается под блокировкой записи: подтверждения, пришедшие
+     * до чтения, в нем уже учтены и заменяются им, а пришедшие после ждут блокировку и добавляются сверху.
+     * Подсказки до готовности не используются, поэтому блокировка на время запроса никого не задерживает.
+     **/
+    private void loadBatch(List<Object[]> batch, int afterId) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        Integer lastId = (Integer) batch.get(batch.size() - 1)[0];
+        for (Object[] row : bookingRepository.countBookingsOfItemsBetween(Status.APPROVED, afterId, lastId)) {
+            counts.put((Integer) row[0], ((Number) row[1]).intValue());
+        }
+        for (Object[] row : batch) {
+            Integer id = (Integer) row[0];
+            approvedBookings.put(id, counts.getOrDefault(id, 0));
+            if (!touchedDuringBuild.contains(id)) {
+                put(id, (String) row[1]);
+            } else if (items.containsKey(id)) {
+                String name = items.get(id).name;
+                remove(id);
+                put(id, name);
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        index(event.getItem());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent change) {
+        if (change.getStatus() == Status.APPROVED) {
+            bookingApproved(change.getItemId());
+        }
+    }
+
+    /**Добавляет, обновляет или убирает (если вещь недоступна) название вещи в подсказках.**/
+    public void index(Item item) {
+        if (!enabled || item.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                touchedDuringBuild.add(item.getId());
+            }
+            remove(item.getId());
+            if (Boolean.TRUE.equals(item.getAvailable())) {
+                put(item.getId(), item.getName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**Учитывает подтверждение бронирования вещи в популярности ее названия.**/
+    public void bookingApproved(Integer itemId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            approvedBookings.merge(itemId, 1, Integer::sum);
+            SuggestedItem suggested = items.get(itemId);
+            if (suggested != null) {
+                change(suggested.name, 1);
+                items.put(itemId, new SuggestedItem(suggested.name, suggested.weight + 1));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**До limit названий, одно из слов которых начинается с prefix, по убыванию популярности.**/
+    public List<String> suggest(String prefix, int limit) {
+        String key = String.join(" ", ItemAnalyzer.tokenize(prefix));
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        if (Character.isWhitespace(prefix.charAt(prefix.length() - 1))) {
+            key = key + " ";
+        }
+        lock.readLock().lock();
+        try {
+            return trie.top(key, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(Integer id, String name) {
+        int weight = 1 + approvedBookings.getOrDefault(id, 0);
+        items.put(id, new SuggestedItem(name, weight));
+        change(name, weight);
+    }
+
+    private void remove(Integer id) {
+        SuggestedItem suggested = items.remove(id);
+        if (suggested != null) {
+            change(suggested.name, -suggested.weight);
+        }
+    }
+
+    /**Ключ — текст с очередного слова, разделитель и название целиком: разные названия с общим окончанием не сливаются.**/
+    private void change(String name, int delta) {
+        List<String> words = ItemAnalyzer.tokenize(name);
+        String normalized = String.join(" ", words);
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < words.size(); i++) {
+            keys.add(String.join(" ", words.subList(i, words.size())) + KEY_SEPARATOR + normalized);
+        }
+        for (String key : keys) {
+            trie.add(key, name, delta);
+        }
+    }
+
+    private static class SuggestedItem {
+        private final String name;
+        private final int weight;
+
+        SuggestedItem(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+    }
+}
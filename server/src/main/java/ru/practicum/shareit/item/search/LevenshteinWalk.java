@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Map;
+import java.util.NavigableSet;
+
+/**
+ * Поиск термов словаря на расстоянии Левенштейна не больше заданного.
+ * Отсортированный словарь обходится как префиксное дерево: строки таблицы расстояний для общего префикса
+ * соседних термов не пересчитываются, а если минимум строки уже больше допуска, все термы с этим префиксом
+ * пропускаются одним переходом. Расстояние не считается для каждого терма словаря целиком.
+ **/
+final class LevenshteinWalk {
+
+    private LevenshteinWalk() {
+    }
+
+    static void collect(NavigableSet<String> dictionary, String query, int maxEdits, Map<String, Integer> found) {
+        int n = query.length();
+        int[][] rows = new int[16][n + 1];
+        for (int c = 0; c <= n; c++) {
+            rows[0][c] = c;
+        }
+        String previous = "";
+        String key = dictionary.isEmpty() ? null : dictionary.first();
+        while (key != null) {
+            int depth = commonPrefixLength(previous, key);
+            if (rows.length <= key.length()) {
+                rows = grow(rows, key.length() + 1, n + 1);
+            }
+            boolean pruned = false;
+            for (int i = depth + 1; i <= key.length(); i++) {
+                int[] row = rows[i];
+                int[] above = rows[i - 1];
+                char letter = key.charAt(i - 1);
+                row[0] = i;
+                int rowMin = row[0];
+                for (int c = 1; c <= n; c++) {
+                    int cost = query.charAt(c - 1) == letter ? 0 : 1;
+                    row[c] = Math.min(Math.min(above[c] + 1, row[c - 1] + 1), above[c - 1] + cost);
+                    rowMin = Math.min(rowMin, row[c]);
+                }
+                if (rowMin > maxEdits) {
+                    String prefix = key.substring(0, i);
+                    previous = prefix;
+                    key = dictionary.higher(prefix + Character.MAX_VALUE);
+                    pruned = true;
+                    break;
+                }
+            }
+            if (pruned) {
+                continue;
+            }
+            int distance = rows[key.length()][n];
+            if (distance <= maxEdits) {
+                found.merge(key, distance, Math::min);
+            }
+            previous = key;
+            key = dictionary.higher(key);
+        }
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int[][] grow(int[][] rows, int length, int width) {
+        int[][] grown = new int[Math.max(length, rows.length * 2)][];
+        System.arraycopy(rows, 0, grown, 0, rows.length);
+        for (int i = rows.length; i < grown.length; i++) {
+            grown[i] = new int[width];
+        }
+        return grown;
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Стеммер русского языка по алгоритму Snowball (Russian stemming algorithm М. Портера).
+ * Слово должно быть в нижнем регистре, ё заменена на е. Все окончания ищутся внутри области RV —
+ * части слова после первой гласной, поэтому короткие основы не обрезаются.
+ **/
+final class RussianStemmer {
+    private static final String VOWELS = "аеиоуыэюя";
+
+    private static final String[] PERFECTIVE_GERUND_1 = {"в", "вши", "вшись"};
+    private static final String[] PERFECTIVE_GERUND_2 = {"ив", "ивши", "ившись", "ыв", "ывши", "ывшись"};
+    private static final String[] ADJECTIVE = {"ее", "ие", "ые", "ое", "ими", "ыми", "ей", "ий", "ый", "ой", "ем", "им",
+            "ым", "ом", "его", "ого", "ему", "ому", "их", "ых", "ую", "юю", "ая", "яя", "ою", "ею"};
+    private static final String[] PARTICIPLE_1 = {"ем", "нн", "вш", "ющ", "щ"};
+    private static final String[] PARTICIPLE_2 = {"ивш", "ывш", "ующ"};
+    private static final String[] REFLEXIVE = {"ся", "сь"};
+    private static final String[] VERB_1 = {"ла", "на", "ете", "йте", "ли", "й", "л", "ем", "н", "ло", "но", "ет", "ют",
+            "ны", "ть", "ешь", "нно"};
+    private static final String[] VERB_2 = {"ила", "ыла", "ена", "ейте", "уйте", "ите", "или", "ыли", "ей", "уй", "ил",
+            "ыл", "им", "ым", "ен", "ило", "ыло", "ено", "ят", "ует", "уют", "ит", "ыт", "ены", "ить", "ыть", "ишь",
+            "ую", "ю"};
+    private static final String[] NOUN = {"а", "ев", "ов", "ие", "ье", "е", "иями", "ями", "ами", "еи", "ии", "и", "ией",
+            "ей", "ой", "ий", "й", "иям", "ям", "ием", "ем", "ам", "ом", "о", "у", "ах", "иях", "ях", "ы", "ь", "ию",
+            "ью", "ю", "ия", "ья", "я"};
+    private static final String[] SUPERLATIVE = {"ейш", "ейше"};
+    private static final String[] DERIVATIONAL = {"ост", "ость"};
+
+    private RussianStemmer() {
+    }
+
+    static String stem(String word) {
+        int rv = regionAfterVowel(word, 0);
+        if (rv >= word.length()) {
+            return word;
+        }
+        int r2 = regionAfterConsonant(word, regionAfterConsonant(word, 0));
+        StringBuilder b = new StringBuilder(word);
+
+        int length = endingAfterAOrYa(b, rv, PERFECTIVE_GERUND_1, PERFECTIVE_GERUND_2);
+        if (length > 0) {
+            cut(b, length);
+        } else {
+            cut(b, ending(b, rv, REFLEXIVE));
+            length = ending(b, rv, ADJECTIVE);
+            if (length > 0) {
+                cut(b, length);
+                cut(b, endingAfterAOrYa(b, rv, PARTICIPLE_1, PARTICIPLE_2));
+            } else {
+                length = endingAfterAOrYa(b, rv, VERB_1, VERB_2);
+                cut(b, length > 0 ? length : ending(b, rv, NOUN));
+            }
+        }
+
+        cut(b, ending(b, rv, new String[]{"и"}));
+        cut(b, ending(b, Math.max(rv, r2), DERIVATIONAL));
+
+        length = ending(b, rv, SUPERLATIVE);
+        if (length > 0) {
+            cut(b, length);
+        }
+        if (ending(b, rv, new String[]{"нн"}) > 0) {
+            cut(b, 1);
+        } else if (length == 0) {
+            cut(b, ending(b, rv, new String[]{"ь"}));
+        }
+        return b.toString();
+    }
+
+    /**Длина самого длинного окончания из списка, целиком лежащего в области, начинающейся с позиции region.**/
+    private static int ending(CharSequence b, int region, String[] endings) {
+        int longest = 0;
+        for (String ending : endings) {
+            if (ending.length() > longest && endsWith(b, ending) && b.length() - ending.length() >= region) {
+                longest = ending.length();
+            }
+        }
+        return longest;
+    }
+
+    /**Окончания первой группы засчитываются, только если перед ними стоит а или я (они остаются в основе).**/
+    private static int endingAfterAOrYa(CharSequence b, int region, String[] afterAOrYa, String[] other) {
+        int first = ending(b, region + 1, afterAOrYa);
+        if (first > 0) {
+            char previous = b.charAt(b.length() - first - 1);
+            if (previous != 'а' && previous != 'я') {
+                first = 0;
+            }
+        }
+        return Math.max(first, ending(b, region, other));
+    }
+
+    private static boolean endsWith(CharSequence b, String ending) {
+        int offset = b.length() - ending.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < ending.length(); i++) {
+            if (b.charAt(offset + i) != ending.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void cut(StringBuilder b, int length) {
+        b.setLength(b.length() - length);
+    }
+
+    private static int regionAfterVowel(String word, int from) {
+        for (int i = from; i < word.length(); i++) {
+            if (isVowel(word.charAt(i))) {
+                return i + 1;
+            }
+        }
+        return word.length();
+    }
+
+    /**Позиция после первой согласной, которая следует за гласной, начиная с from. От начала слова это R1, от R1 — R2.**/
+    private static int regionAfterConsonant(String word, int from) {
+        for (int i = from + 1; i < word.length(); i++) {
+            if (!isVowel(word.charAt(i)) && isVowel(word.charAt(i - 1))) {
+                return i + 1;
+            }
+        }
+        return word.length();
+    }
+
+    private static boolean isVowel(char c) {
+        return VOWELS.indexOf(c) >= 0;
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результат поиска по индексу: id подходящих вещей и данные для их ранжирования.
+ * Релевантность вещи — сумма весов совпавших термов запроса (совпадение в названии весит NAME_WEIGHT,
+ * только в описании — DESCRIPTION_WEIGHT) плюс популярность: логарифм числа подтвержденных бронирований.
+ **/
+public class SearchHits {
+    static final double NAME_WEIGHT = 3.0;
+    static final double DESCRIPTION_WEIGHT = 1.0;
+    static final double POPULARITY_WEIGHT = 1.0;
+
+    private final BitSet ids;
+    /**Для каждого терма запроса — вещи, у которых он совпал в названии и в описании.**/
+    private final List<BitSet> nameMatches;
+    private final List<BitSet> descriptionMatches;
+    private final Map<Integer, Integer> approvedBookings;
+    /**Счетчики фильтров, если их запрашивали, иначе null.**/
+    private final FacetCounter facets;
+
+    public SearchHits(BitSet ids, List<BitSet> nameMatches, List<BitSet> descriptionMatches,
+                      Map<Integer, Integer> approvedBookings, FacetCounter facets) {
+        this.ids = ids;
+        this.nameMatches = nameMatches;
+        this.descriptionMatches = descriptionMatches;
+        this.approvedBookings = approvedBookings;
+        this.facets = facets;
+    }
+
+    public BitSet getIds() {
+        return ids;
+    }
+
+    public FacetCounter getFacets() {
+        return facets;
+    }
+
+    public double score(int id) {
+        double score = 0;
+        for (int i = 0; i < nameMatches.size(); i++) {
+            if (nameMatches.get(i).get(id)) {
+                score += NAME_WEIGHT;
+            } else if (descriptionMatches.get(i).get(id)) {
+                score += DESCRIPTION_WEIGHT;
+            }
+        }
+        return score + POPULARITY_WEIGHT * Math.log1p(approvedBookings.getOrDefault(id, 0));
+    }
+}
@@ -0,0 +1,227 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш результатов поиска вещей без диапазона дат: LRU на shareit.search.cache.size записей (0 — кэш выключен).
+ * Поиск с датами не кэшируется: его результат меняется при подтверждении бронирований.
+ * Одновременные промахи по одному ключу выполняют один запрос, остальные ждут его результат.
+ * При создании или изменении вещи удаляются записи, которые содержат вещь или текст которых может с ней совпасть;
+ * записи нечеткого поиска (fuzzy, режим TRIGRAM) удаляются при любом изменении вещей.
+ * Загрузка, начатая до изменения, свой результат в кэш не кладет.
+ * Метрики: shareit.search.cache.requests{result=hit|miss}, shareit.search.cache.hit.ratio,
+ * shareit.search.cache.size и время загрузки shareit.search.cache.load в /actuator/metrics.
+ **/
+@Component
+public class SearchResultCache {
+    private final int maximumSize;
+    private final Map<Key, Entry> entries;
+    private final Map<Key, CompletableFuture<ItemSearchResultDto>> loading = new ConcurrentHashMap<>();
+    /**Номер последнего изменения вещей: загрузка кладет результат, только если он не изменился с ее начала.**/
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Timer loadTimer;
+
+    public SearchResultCache(MeterRegistry registry, @Value("${shareit.search.cache.size:1000}") int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > SearchResultCache.this.maximumSize;
+            }
+        };
+        FunctionCounter.builder("shareit.search.cache.requests", hits, AtomicLong::doubleValue)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("shareit.search.cache.requests", misses, AtomicLong::doubleValue)
+                .tag("result", "miss").register(registry);
+        Gauge.builder("shareit.search.cache.hit.ratio", this, SearchResultCache::hitRatio).register(registry);
+        Gauge.builder("shareit.search.cache.size", this, SearchResultCache::entryCount).register(registry);
+        this.loadTimer = Timer.builder("shareit.search.cache.load").register(registry);
+    }
+
+    public ItemSearchResultDto getOrLoad(Key key, Supplier<ItemSearchResultDto> loader) {
+        if (maximumSize <= 0) {
+            return loader.get();
+        }
+        synchronized (entries) {
+            Entry cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached.result;
+            }
+        }
+        misses.incrementAndGet();
+
+        CompletableFuture<ItemSearchResultDto> mine = new CompletableFuture<>();
+        CompletableFuture<ItemSearchResultDto> running = loading.putIfAbsent(key, mine);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            long startedAt = version.get();
+            ItemSearchResultDto result = loadTimer.record(loader);
+            ItemSearchResultDto shared = new ItemSearchResultDto(List.copyOf(result.getItems()), result.getFacets());
+            synchronized (entries) {
+                if (version.get() == startedAt) {
+                    entries.put(key, new Entry(shared));
+                }
+            }
+            mine.complete(shared);
+            return shared;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        invalidate(event.getBefore(), event.getItem());
+    }
+
+    /**
+     * Удаляет записи, на которые могло повлиять изменение вещи: before — прежняя версия или null для новой вещи.
+     * Текст вещи разбирается один раз до блокировки, термы запросов уже лежат в ключах, под блокировкой — только обход.
+     **/
+    public void invalidate(Item before, Item after) {
+        if (maximumSize <= 0) {
+            return;
+        }
+        ChangedText beforeText = ChangedText.of(before);
+        ChangedText afterText = ChangedText.of(after);
+        synchronized (entries) {
+            version.incrementAndGet();
+            entries.entrySet().removeIf(it -> it.getKey().isApproximate()
+                    || it.getValue().itemIds.contains(after.getId())
+                    || beforeText.couldMatch(it.getKey())
+                    || afterText.couldMatch(it.getKey()));
+        }
+    }
+
+    private static ItemSearchResultDto await(CompletableFuture<ItemSearchResultDto> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private double hitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    private int entryCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**Ключ кэша: нормализованный запрос и все параметры, от которых зависит ответ.**/
+    @Data
+    public static class Key {
+        private final String query;
+        private final Integer fuzzy;
+        private final Integer from;
+        private final Integer size;
+        private final Integer cursorId;
+        private final boolean ranked;
+        private final boolean withFacets;
+        /**Результат нечеткого поиска нельзя надежно сопоставить с измененной вещью.**/
+        private final boolean approximate;
+        /**Термы запроса разбираются один раз при создании ключа, а не при каждой инвалидации.**/
+        @EqualsAndHashCode.Exclude
+        @ToString.Exclude
+        private final List<String> queryTerms;
+
+        public Key(String query, Integer fuzzy, Integer from, Integer size, Integer cursorId,
+                   boolean ranked, boolean withFacets, boolean approximate) {
+            this.query = query;
+            this.fuzzy = fuzzy;
+            this.from = from;
+            this.size = size;
+            this.cursorId = cursorId;
+            this.ranked = ranked;
+            this.withFacets = withFacets;
+            this.approximate = approximate;
+            this.queryTerms = ItemAnalyzer.analyze(query);
+        }
+    }
+
+    /**Название и описание измененной вещи в нижнем регистре и ее термы в порядке сортировки для поиска по префиксу.**/
+    private static class ChangedText {
+        private static final ChangedText NONE = new ChangedText(null, null, new TreeSet<>());
+
+        private final String name;
+        private final String description;
+        private final NavigableSet<String> terms;
+
+        ChangedText(String name, String description, NavigableSet<String> terms) {
+            this.name = name;
+            this.description = description;
+            this.terms = terms;
+        }
+
+        static ChangedText of(Item item) {
+            if (item == null) {
+                return NONE;
+            }
+            String name = item.getName() == null ? "" : item.getName().toLowerCase(Locale.ROOT);
+            String description = item.getDescription() == null ? "" : item.getDescription().toLowerCase(Locale.ROOT);
+            return new ChangedText(name, description, new TreeSet<>(ItemAnalyzer.analyze(name + " " + description)));
+        }
+
+        /**Подстрока названия или описания (LIKE) либо все термы запроса — префиксы термов вещи (индекс, полнотекстовый поиск).**/
+        boolean couldMatch(Key key) {
+            if (name == null) {
+                return false;
+            }
+            if (name.contains(key.getQuery()) || description.contains(key.getQuery())) {
+                return true;
+            }
+            return !key.getQueryTerms().isEmpty() && key.getQueryTerms().stream().allMatch(this::hasTermStartingWith);
+        }
+
+        private boolean hasTermStartingWith(String prefix) {
+            String term = terms.ceiling(prefix);
+            return term != null && term.startsWith(prefix);
+        }
+    }
+
+    private static class Entry {
+        private final ItemSearchResultDto result;
+        private final Set<Integer> itemIds;
+
+        Entry(ItemSearchResultDto result) {
+            this.result = result;
+            this.itemIds = result.getItems().stream().map(Item::getId).collect(Collectors.toSet());
+        }
+    }
+}
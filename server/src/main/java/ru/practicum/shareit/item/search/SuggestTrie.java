@@ -0,0 +1,161 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Сжатое префиксное дерево (radix tree) подсказок. Ключ — нормализованный текст, значение — отображаемая
+ * строка и ее популярность. Цепочки узлов с одним потомком хранятся одним ребром с меткой-строкой.
+ * Каждый узел помнит максимальную популярность в своем поддереве, поэтому лучшие подсказки по префиксу
+ * находятся обходом «лучший первым» без перебора всего поддерева.
+ **/
+final class SuggestTrie {
+    private static final Comparator<Candidate> BEST_FIRST = Comparator.comparingInt((Candidate it) -> it.score).reversed();
+
+    private final Node root = new Node("");
+
+    /**Меняет популярность ключа на delta; ключ с нулевой популярностью удаляется.**/
+    void add(String key, String display, int delta) {
+        if (key.isEmpty() || delta == 0) {
+            return;
+        }
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                if (delta < 0) {
+                    return;
+                }
+                child = new Node(key.substring(i));
+                node.children.put(key.charAt(i), child);
+                path.add(child);
+                node = child;
+                break;
+            }
+            int common = commonPrefixLength(child.label, key, i);
+            if (common < child.label.length()) {
+                if (delta < 0) {
+                    return;
+                }
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children.put(child.label.charAt(0), child);
+                node.children.put(middle.label.charAt(0), middle);
+                child = middle;
+            }
+            path.add(child);
+            node = child;
+            i += common;
+        }
+
+        node.score = Math.max(0, node.score + delta);
+        if (delta > 0) {
+            node.display = display;
+        } else if (node.score == 0) {
+            node.display = null;
+        }
+        for (int p = path.size() - 1; p >= 0; p--) {
+            Node current = path.get(p);
+            current.best = current.score;
+            for (Node child : current.children.values()) {
+                current.best = Math.max(current.best, child.best);
+            }
+            if (p > 0 && current.score == 0) {
+                compress(path.get(p - 1), current);
+            }
+        }
+    }
+
+    /**До limit отображаемых строк с наибольшей популярностью среди ключей, начинающихся с prefix.**/
+    List<String> top(String prefix, int limit) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(i));
+            if (child == null) {
+                return List.of();
+            }
+            int common = commonPrefixLength(child.label, prefix, i);
+            if (i + common < prefix.length() && common < child.label.length()) {
+                return List.of();
+            }
+            node = child;
+            i += common;
+        }
+
+        Set<String> result = new LinkedHashSet<>();
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(BEST_FIRST);
+        queue.add(new Candidate(node, node.best, false));
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (candidate.terminal) {
+                result.add(candidate.node.display);
+                continue;
+            }
+            if (candidate.node.score > 0) {
+                queue.add(new Candidate(candidate.node, candidate.node.score, true));
+            }
+            for (Node child : candidate.node.children.values()) {
+                queue.add(new Candidate(child, child.best, false));
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    boolean isEmpty() {
+        return root.children.isEmpty();
+    }
+
+    /**Убирает пустой лист или сливает узел без значения с его единственным потомком.**/
+    private static void compress(Node parent, Node node) {
+        if (node.children.isEmpty()) {
+            parent.children.remove(node.label.charAt(0));
+        } else if (node.children.size() == 1) {
+            Node only = node.children.values().iterator().next();
+            only.label = node.label + only.label;
+            parent.children.put(only.label.charAt(0), only);
+        }
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int length = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static class Node {
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private String display;
+        private int score;
+        private int best;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private static class Candidate {
+        private final Node node;
+        private final int score;
+        private final boolean terminal;
+
+        Candidate(Node node, int score, boolean terminal) {
+            this.node = node;
+            this.score = score;
+            this.terminal = terminal;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Отбор k лучших id по убыванию оценки без сортировки всех кандидатов: куча из k элементов,
+ * в вершине которой худший из отобранных. При равной оценке выше меньший id, поэтому порядок
+ * полностью определен и страницы from/size не пересекаются.
+ **/
+public class TopK {
+    private static final Comparator<Scored> WORST_FIRST = Comparator.comparingDouble((Scored it) -> it.score)
+            .thenComparing(it -> it.id, Comparator.reverseOrder());
+
+    private final int k;
+    private final PriorityQueue<Scored> heap;
+
+    public TopK(int k) {
+        this.k = k;
+        this.heap = new PriorityQueue<>(Math.max(k, 1), WORST_FIRST);
+    }
+
+    public void offer(int id, double score) {
+        if (k <= 0) {
+            return;
+        }
+        Scored candidate = new Scored(id, score);
+        if (heap.size() < k) {
+            heap.add(candidate);
+        } else if (WORST_FIRST.compare(candidate, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(candidate);
+        }
+    }
+
+    /**Отобранные id от лучшего к худшему.**/
+    public List<Integer> sorted() {
+        List<Scored> drained = new ArrayList<>(heap);
+        drained.sort(WORST_FIRST.reversed());
+        List<Integer> ids = new ArrayList<>(drained.size());
+        for (Scored scored : drained) {
+            ids.add(scored.id);
+        }
+        return ids;
+    }
+
+    private static class Scored {
+        private final int id;
+        private final double score;
+
+        Scored(int id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
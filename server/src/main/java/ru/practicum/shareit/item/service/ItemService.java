@@ -2,7 +2,9 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -15,7 +17,22 @@ public interface ItemService {
 
     Item update(Integer userId, ItemDto item);
 
-    List<Item> search(String query, Integer from, Integer size);
+    /**Если заданы start и end, возвращаются только вещи, свободные от подтвержденных бронирований на [start, end).
+     * В режимах FULL_TEXT, TRIGRAM и INDEX страницы from/size упорядочены по релевантности, страницы по курсору — по id.
+     * fuzzy — допустимое число опечаток в слове (0–2), учитывается в режиме INDEX; TRIGRAM опечатки допускает всегда.**/
+    List<Item> search(String query, LocalDateTime start, LocalDateTime end, Integer fuzzy,
+                      Integer from, Integer size, PageCursor cursor);
 
-    List<ItemResponseDto> getAllUserItems(Integer userId, Integer from, Integer size);
+    /**То же, что search, и счетчики фильтров по всем вещам, подходящим под текст запроса.**/
+    ItemSearchResultDto searchWithFacets(String query, LocalDateTime start, LocalDateTime end, Integer fuzzy,
+                                         Integer from, Integer size, PageCursor cursor);
+
+    /**Названия доступных вещей для подсказок в строке поиска, самые популярные первыми.**/
+    List<String> suggest(String prefix, Integer size);
+
+    List<ItemResponseDto> getAllUserItems(Integer userId, Integer from, Integer size, PageCursor cursor);
+
+    /**Свободные и занятые интервалы вещи на [from, to). Прошедшее время не бронируется,
+     * поэтому начало диапазона сдвигается на текущий момент.**/
+    ItemAvailabilityDto getAvailability(Integer itemId, LocalDateTime from, LocalDateTime to);
 }
@@ -2,20 +2,32 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.comparator.BookingComparator;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
 import ru.practicum.shareit.booking.enums.Status;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.overlap.BookingOverlapIndex;
+import ru.practicum.shareit.booking.overlap.BusyInterval;
 import ru.practicum.shareit.booking.repository.BookingRepository;
-import ru.practicum.shareit.item.comparator.ItemComparator;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.enums.SearchMode;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.FacetCounter;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSuggester;
+import ru.practicum.shareit.item.search.SearchHits;
+import ru.practicum.shareit.item.search.SearchResultCache;
+import ru.practicum.shareit.item.search.TopK;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.mapper.RequestMapper;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.service.RequestServiceImpl;
@@ -36,11 +48,34 @@ public class ItemServiceImpl implements ItemService {
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
     private final RequestServiceImpl requestService;
+    private final BookingOverlapIndex overlapIndex;
+    private final ItemSearchIndex searchIndex;
+    private final ItemSuggester suggester;
+    private final SearchResultCache searchCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**Размер порции кандидатов из индекса, проверяемой на занятость одним запросом.**/
+    private static final int INDEX_FILTER_CHUNK = 500;
+    private static final int MAX_FUZZY_EDITS = 2;
+    /**Сколько владельцев с наибольшим числом совпадений показывать в счетчиках фильтров.**/
+    private static final int OWNER_FACET_LIMIT = 10;
+
+    @Value("${shareit.search.mode:LIKE}")
+    private SearchMode searchMode = SearchMode.LIKE;
 
     @Override
     public ItemResponseDto getById(int id, int userId) {
         Item item = getItem(id);
-        return enrichItemWithExtraData(item, userId);
+        Map<Integer, BookingInfoDto> lastBookings = new HashMap<>();
+        Map<Integer, BookingInfoDto> nextBookings = new HashMap<>();
+        if (item.getOwner().getId().equals(userId)) {
+            List<Object[]> rows = bookingRepository.findLastAndNextBookingsOfItem(item.getId(), LocalDateTime.now());
+            parseRepositoryLastAndNextBookingsObjects(rows, lastBookings, nextBookings);
+        }
+        List<CommentResponseDTO> comments = commentRepository.findAllByItemIdIn(List.of(item.getId())).stream()
+                .map(it -> CommentMapper.toCommentResponseDTO(it, it.getAuthor()))
+                .collect(Collectors.toList());
+        return ItemMapper.toItemResponseDto(item, nextBookings.get(item.getId()), lastBookings.get(item.getId()), comments);
     }
 
     @Override
@@ -54,6 +89,7 @@ public class ItemServiceImpl implements ItemService {
         }
         Item created = ItemMapper.toItem(item, owner, request);
         itemRepository.save(created);
+        eventPublisher.publishEvent(new ItemChangedEvent(null, created));
         return ItemMapper.ioCreatedItemResponseDto(created);
     }
 
@@ -98,29 +134,202 @@ public class ItemServiceImpl implements ItemService {
             available = oldItem.getAvailable();
         }
 
-        return itemRepository.save(new Item(item.getId(), name, description, available, owner, null));
+        // Копия до сохранения: merge перепишет поля oldItem, если он остался в контексте персистентности запроса.
+        Item before = new Item(oldItem.getId(), oldItem.getName(), oldItem.getDescription(), oldItem.getAvailable(), null, null);
+        Item updated = itemRepository.save(new Item(item.getId(), name, description, available, owner, null));
+        eventPublisher.publishEvent(new ItemChangedEvent(before, updated));
+        return updated;
+    }
+
+    @Override
+    public List<Item> search(String query, LocalDateTime start, LocalDateTime end, Integer fuzzy,
+                             Integer from, Integer size, PageCursor cursor) {
+        return search(query, start, end, fuzzy, from, size, cursor, false).getItems();
     }
 
     @Override
-    public List<Item> search(String query, Integer from, Integer size) {
-        PageRequest request = RequestMapper.toPageRequest(from, size);
+    public ItemSearchResultDto searchWithFacets(String query, LocalDateTime start, LocalDateTime end, Integer fuzzy,
+                                                Integer from, Integer size, PageCursor cursor) {
+        return search(query, start, end, fuzzy, from, size, cursor, true);
+    }
+
+    /**
+     * Поиск без диапазона дат идет через кэш: ключ — запрос в нижнем регистре (поиск во всех режимах
+     * нечувствителен к регистру) и параметры страницы. Число опечаток учитывает только режим INDEX,
+     * в остальных режимах запрос с fuzzy > 0 отклоняется, а не выполняется молча как точный.
+     **/
+    private ItemSearchResultDto search(String query, LocalDateTime start, LocalDateTime end, Integer fuzzy,
+                                       Integer from, Integer size, PageCursor cursor, boolean withFacets) {
+        PageRequest request = RequestMapper.toPageRequest(from, size, cursor);
+        if ((start == null) != (end == null) || (start != null && !end.isAfter(start))) {
+            throw new ValidationException("Некорректный диапазон дат поиска");
+        }
+        if (fuzzy < 0 || fuzzy > MAX_FUZZY_EDITS) {
+            throw new ValidationException("Допустимое число опечаток — от 0 до " + MAX_FUZZY_EDITS);
+        }
+        if (fuzzy > 0 && searchMode != SearchMode.INDEX) {
+            throw new ValidationException("Поиск с опечатками доступен только в режиме " + SearchMode.INDEX);
+        }
 
         if (query.isBlank()) {
+            return new ItemSearchResultDto(Collections.emptyList(), withFacets ? facets(new FacetCounter()) : null);
+        }
+        Integer cursorId = PageCursor.orFirst(cursor).getId();
+        boolean ranked = cursor == null;
+        if (start != null) {
+            return find(query, start, end, fuzzy, request, cursorId, ranked, withFacets);
+        }
+        SearchResultCache.Key key = new SearchResultCache.Key(query.toLowerCase(Locale.ROOT), fuzzy, from, size,
+                cursorId, ranked, withFacets, fuzzy > 0 || searchMode == SearchMode.TRIGRAM);
+        return searchCache.getOrLoad(key, () -> find(query, null, null, fuzzy, request, cursorId, ranked, withFacets));
+    }
+
+    /**Счетчики фильтров считаются одним агрегирующим запросом в базе или одним проходом по совпадениям индекса.**/
+    private ItemSearchResultDto find(String query, LocalDateTime start, LocalDateTime end, Integer fuzzy,
+                                     PageRequest request, Integer cursorId, boolean ranked, boolean withFacets) {
+        int size = request.getPageSize();
+        List<Item> items;
+        FacetCounter facets = null;
+        switch (searchMode) {
+            case FULL_TEXT:
+                items = start == null
+                        ? itemRepository.searchFullText(query, cursorId, ranked, request)
+                        : itemRepository.searchFullTextFreeBetween(query, start, end, cursorId, ranked, request);
+                if (withFacets) {
+                    facets = FacetCounter.fromRows(itemRepository.countFullTextFacets(query));
+                }
+                break;
+            case TRIGRAM:
+                items = start == null
+                        ? itemRepository.searchTrigram(query, cursorId, ranked, request)
+                        : itemRepository.searchTrigramFreeBetween(query, start, end, cursorId, ranked, request);
+                if (withFacets) {
+                    facets = FacetCounter.fromRows(itemRepository.countTrigramFacets(query));
+                }
+                break;
+            case INDEX:
+                if (searchIndex.isReady()) {
+                    SearchHits hits = searchIndex.search(query, fuzzy, withFacets);
+                    items = searchIndexed(hits, start, end, (int) request.getOffset(), size, cursorId, ranked);
+                    facets = hits.getFacets();
+                    break;
+                }
+                items = searchLike(query, start, end, cursorId, request);
+                if (withFacets) {
+                    facets = FacetCounter.fromRows(itemRepository.countFacets(query));
+                }
+                break;
+            default:
+                items = searchLike(query, start, end, cursorId, request);
+                if (withFacets) {
+                    facets = FacetCounter.fromRows(itemRepository.countFacets(query));
+                }
+        }
+        return new ItemSearchResultDto(items, facets == null ? null : facets(facets));
+    }
+
+    private ItemSearchFacetsDto facets(FacetCounter counter) {
+        return counter.toDto(OWNER_FACET_LIMIT);
+    }
+
+    private List<Item> searchLike(String query, LocalDateTime start, LocalDateTime end, Integer cursorId, PageRequest request) {
+        return start == null
+                ? itemRepository.search(query, cursorId, request)
+                : itemRepository.searchFreeBetween(query, start, end, cursorId, request);
+    }
+
+    /**
+     * Поиск по индексу в памяти: id кандидатов берутся из индекса по возрастанию, при фильтре по датам
+     * занятые вещи отсеиваются одним запросом на порцию кандидатов. Вещи страницы загружаются одним запросом.
+     * Страницы from/size упорядочены по релевантности: из всех кандидатов кучей отбираются skip + size лучших,
+     * страницы по курсору идут по id и останавливаются, как только страница заполнена.
+     **/
+    private List<Item> searchIndexed(SearchHits hits, LocalDateTime start, LocalDateTime end,
+                                     int skip, int size, int cursorId, boolean ranked) {
+        BitSet candidates = hits.getIds();
+        TopK best = new TopK(ranked ? skip + size : 0);
+        List<Integer> page = new ArrayList<>(size);
+        int next = candidates.nextSetBit(cursorId + 1);
+        while ((ranked || page.size() < size) && next >= 0) {
+            List<Integer> chunk = new ArrayList<>();
+            while (chunk.size() < INDEX_FILTER_CHUNK && next >= 0) {
+                chunk.add(next);
+                next = candidates.nextSetBit(next + 1);
+            }
+            Set<Integer> busy = start == null
+                    ? Collections.emptySet()
+                    : new HashSet<>(bookingRepository.findItemIdsWithApprovedOverlap(chunk, start, end));
+            for (Integer id : chunk) {
+                if (busy.contains(id)) {
+                    continue;
+                }
+                if (ranked) {
+                    best.offer(id, hits.score(id));
+                } else if (skip > 0) {
+                    skip--;
+                } else if (page.size() < size) {
+                    page.add(id);
+                }
+            }
+        }
+        if (ranked) {
+            List<Integer> sorted = best.sorted();
+            page = sorted.subList(Math.min(skip, sorted.size()), sorted.size());
+        }
+        if (page.isEmpty()) {
             return Collections.emptyList();
-        } else {
-            return itemRepository.search(query, request);
         }
+        Map<Integer, Item> loaded = itemRepository.findAllWithOwnerByIdIn(page).stream()
+                .collect(Collectors.toMap(Item::getId, it -> it));
+        return page.stream()
+                .map(loaded::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     @Override
-    public List<ItemResponseDto> getAllUserItems(Integer userId, Integer from, Integer size) {
-        PageRequest request = RequestMapper.toPageRequest(from, size);
+    public List<String> suggest(String prefix, Integer size) {
+        PageRequest request = RequestMapper.toPageRequest(0, size);
+        if (prefix.isBlank()) {
+            return Collections.emptyList();
+        }
+        return suggester.isReady()
+                ? suggester.suggest(prefix, size)
+                : itemRepository.findAvailableNamesStartingWith(prefix, request);
+    }
 
-        return itemRepository.findAll(request).stream()
-                .filter(it -> it.getOwner().getId().equals(userId))
-                .sorted(new ItemComparator())
-                .map(it -> enrichItemWithExtraData(it, userId))
-                .collect(Collectors.toList());
+    @Override
+    public List<ItemResponseDto> getAllUserItems(Integer userId, Integer from, Integer size, PageCursor cursor) {
+        PageRequest request = RequestMapper.toPageRequest(from, size, cursor);
+
+        List<Item> items = itemRepository.findOwnerItems(userId, PageCursor.orFirst(cursor).getId(), request);
+        return enrichItemsWithExtraData(items, userId);
+    }
+
+    @Override
+    public ItemAvailabilityDto getAvailability(Integer itemId, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !to.isAfter(from)) {
+            throw new ValidationException("Некорректный диапазон дат календаря");
+        }
+        Item item = getItem(itemId);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from.isBefore(now) ? now : from;
+
+        List<AvailabilitySlotDto> slots = new ArrayList<>();
+        if (start.isBefore(to)) {
+            LocalDateTime freeFrom = start;
+            for (BusyInterval busy : overlapIndex.busyIntervals(itemId, start, to)) {
+                if (freeFrom.isBefore(busy.getStart())) {
+                    slots.add(new AvailabilitySlotDto(freeFrom, busy.getStart(), true));
+                }
+                slots.add(new AvailabilitySlotDto(busy.getStart(), busy.getEnd(), false));
+                freeFrom = busy.getEnd();
+            }
+            if (freeFrom.isBefore(to)) {
+                slots.add(new AvailabilitySlotDto(freeFrom, to, true));
+            }
+        }
+        return new ItemAvailabilityDto(item.getId(), item.getAvailable(), start, to, slots);
     }
 
     private void checkIfUserIsOwner(Integer userId, Item item) {
@@ -137,24 +346,48 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
-    private ItemResponseDto enrichItemWithExtraData(Item item, Integer userId) {
-        List<Booking> bookings = bookingRepository.findAllByItem(item);
-        Booking lastBooking = bookings.stream()
-                .filter(it -> it.getStatus().equals(Status.WAITING) || it.getStatus().equals(Status.APPROVED))
-                .filter(it -> it.getStart().isBefore(LocalDateTime.now()))
-                .min(new BookingComparator())
-                .orElse(null);
-        Booking nextBooking = bookings.stream()
-                .filter(it -> it.getStatus().equals(Status.WAITING) || it.getStatus().equals(Status.APPROVED))
-                .filter(it -> it.getStart().isAfter(LocalDateTime.now()))
-                .max(new BookingComparator())
-                .orElse(null);
+    /**
+     * Пакетное обогащение страницы вещей: последнее/следующее бронирование для всех вещей владельца
+     * и отзывы ко всем вещам загружаются двумя запросами, а затем раскладываются по вещам через словари.
+     **/
+    private List<ItemResponseDto> enrichItemsWithExtraData(List<Item> items, Integer userId) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Integer> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        List<Integer> ownerItemIds = items.stream()
+                .filter(it -> it.getOwner().getId().equals(userId))
+                .map(Item::getId)
+                .collect(Collectors.toList());
 
-        List<CommentResponseDTO> comments = commentRepository.findCommentByItemEquals(item).stream().map(it -> CommentMapper.toCommentResponseDTO(it, it.getAuthor())).collect(Collectors.toList());
-        if (item.getOwner().getId().equals(userId)) {
-            return ItemMapper.toItemResponseDto(item, nextBooking, lastBooking, comments);
-        } else {
-            return ItemMapper.toItemResponseDto(item, null, null, comments);
+        Map<Integer, BookingInfoDto> lastBookings = new HashMap<>();
+        Map<Integer, BookingInfoDto> nextBookings = new HashMap<>();
+        if (!ownerItemIds.isEmpty()) {
+            List<Object[]> rows = bookingRepository.findLastAndNextBookingsOfItems(ownerItemIds, LocalDateTime.now());
+            parseRepositoryLastAndNextBookingsObjects(rows, lastBookings, nextBookings);
+        }
+
+        Map<Integer, List<CommentResponseDTO>> comments = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(it -> it.getItem().getId(),
+                        Collectors.mapping(it -> CommentMapper.toCommentResponseDTO(it, it.getAuthor()), Collectors.toList())));
+
+        return items.stream()
+                .map(it -> ItemMapper.toItemResponseDto(it,
+                        nextBookings.get(it.getId()),
+                        lastBookings.get(it.getId()),
+                        comments.getOrDefault(it.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
+
+    private void parseRepositoryLastAndNextBookingsObjects(List<Object[]> rows, Map<Integer, BookingInfoDto> lastBookings, Map<Integer, BookingInfoDto> nextBookings) {
+        for (Object[] row : rows) {
+            Integer itemId = ((Number) row[0]).intValue();
+            BookingInfoDto booking = new BookingInfoDto(((Number) row[1]).intValue(), ((Number) row[2]).intValue());
+            if (Boolean.TRUE.equals(row[3])) {
+                lastBookings.put(itemId, booking);
+            } else {
+                nextBookings.put(itemId, booking);
+            }
         }
     }
 
@@ -162,4 +395,9 @@ public class ItemServiceImpl implements ItemService {
         return itemRepository.findById(itemId).orElseThrow(()
                 -> new NoSuchElementException("Вещь с ID = " + itemId + " не найдена."));
     }
+
+    public Item getItemForUpdate(Integer itemId) {
+        return itemRepository.findByIdForUpdate(itemId).orElseThrow(()
+                -> new NoSuchElementException("Вещь с ID = " + itemId + " не найдена."));
+    }
 }
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.Data;
+import org.springframework.http.HttpHeaders;
+
+import javax.validation.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Курсор постраничного вывода (keyset pagination).
+ * time — значение ключа сортировки по дате (start у бронирований, created у запросов), для вещей не используется;
+ * id — идентификатор последней записи на странице.
+ * Клиенту курсор отдается в виде непрозрачной строки в заголовке X-Next-Cursor,
+ * следующая страница начинается сразу после записи, на которую он указывает.
+ **/
+@Data
+public class PageCursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**Курсор первой страницы: все записи находятся «после» него.**/
+    public static final PageCursor FIRST = new PageCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), 0);
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime time;
+    private final Integer id;
+
+    public static PageCursor of(LocalDateTime time, Integer id) {
+        return new PageCursor(time, id);
+    }
+
+    public static PageCursor of(Integer id) {
+        return new PageCursor(null, id);
+    }
+
+    /**Курсор ленты, отсортированной по дате и id (бронирования, запросы, уведомления): без даты он некорректен.**/
+    public static PageCursor decodeTimed(String cursor) {
+        PageCursor decoded = decode(cursor);
+        if (decoded != null && decoded.getTime() == null) {
+            throw new ValidationException("Курсор этого списка должен содержать дату: " + cursor);
+        }
+        return decoded;
+    }
+
+    /**Курсор ленты, отсортированной только по id (вещи): дата в нем означала бы курсор другого списка.**/
+    public static PageCursor decodeId(String cursor) {
+        PageCursor decoded = decode(cursor);
+        if (decoded != null && decoded != FIRST && decoded.getTime() != null) {
+            throw new ValidationException("Курсор этого списка не должен содержать дату: " + cursor);
+        }
+        return decoded;
+    }
+
+    /**Разбирает курсор из параметра запроса. null — клиент не использует курсоры, пустая строка — первая страница.**/
+    private static PageCursor decode(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        if (cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return of(Integer.valueOf(decoded));
+            }
+            return of(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Integer.valueOf(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Некорректный курсор страницы: " + cursor);
+        }
+    }
+
+    public static PageCursor orFirst(PageCursor cursor) {
+        return cursor == null ? FIRST : cursor;
+    }
+
+    /**Заголовок со ссылкой на следующую страницу. Выставляется только в режиме курсоров и только для полной страницы.**/
+    public static <T> HttpHeaders nextPageHeaders(List<T> page, Integer size, PageCursor cursor, Function<T, PageCursor> keyOf) {
+        HttpHeaders headers = new HttpHeaders();
+        if (cursor != null && !page.isEmpty() && page.size() >= size) {
+            headers.set(NEXT_CURSOR_HEADER, keyOf.apply(page.get(page.size() - 1)).encode());
+        }
+        return headers;
+    }
+
+    public String encode() {
+        String raw = time == null ? String.valueOf(id) : time + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -3,9 +3,14 @@ package ru.practicum.shareit.request.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.RequestRequestDTO;
 import ru.practicum.shareit.request.dto.RequestResponseDTO;
+import ru.practicum.shareit.request.feed.RequestEventStream;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.service.RequestService;
 
@@ -18,7 +23,9 @@ import java.util.List;
 public class RequestController {
 
     private static final String OWNER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
     private final RequestService requestService;
+    private final RequestEventStream eventStream;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -34,9 +41,34 @@ public class RequestController {
     }
 
     @GetMapping("/all")
-    public List<RequestResponseDTO> getAllRequestsPageable(@RequestHeader(OWNER_ID_HEADER) Integer userId, @RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size) {
+    public ResponseEntity<List<RequestResponseDTO>> getAllRequestsPageable(@RequestHeader(OWNER_ID_HEADER) Integer userId,
+                                                                           @RequestParam(defaultValue = "0") Integer from,
+                                                                           @RequestParam(defaultValue = "10") Integer size,
+                                                                           @RequestParam(required = false) String cursor) {
         log.info("Вывести все запросы кроме созданных пользователем ID = {}", userId);
-        return requestService.getAllRequestsPageable(userId, from, size);
+        PageCursor pageCursor = PageCursor.decodeTimed(cursor);
+        List<RequestResponseDTO> requests = requestService.getAllRequestsPageable(userId, from, size, pageCursor);
+        return ResponseEntity.ok()
+                .headers(PageCursor.nextPageHeaders(requests, size, pageCursor, it -> PageCursor.of(it.getCreated(), it.getId())))
+                .body(requests);
+    }
+
+    /**
+     * Поток новых запросов для шлюза, пользователь не нужен: фильтрует по автору сам шлюз.
+     * Last-Event-ID шлюз выставляет при переподключении, чтобы получить пропущенные запросы.
+     **/
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId) {
+        log.info("Подписка на поток новых запросов после события {}", lastEventId);
+        return eventStream.subscribe(lastEventId);
+    }
+
+    @GetMapping("/matching")
+    public List<RequestResponseDTO> getMatchingRequests(@RequestHeader(OWNER_ID_HEADER) Integer userId,
+                                                        @RequestParam(defaultValue = "0") Integer from,
+                                                        @RequestParam(defaultValue = "10") Integer size) {
+        log.info("Вывести запросы, подходящие под вещи пользователя ID = {}", userId);
+        return requestService.getMatchingRequests(userId, from, size);
     }
 
     @GetMapping("/{requestId}")
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**Событие потока новых запросов. requestorId нужен шлюзу, чтобы не слать автору его собственный запрос.**/
+@Data
+@AllArgsConstructor
+public class RequestEventDto {
+    private Integer id;
+    private String description;
+    private LocalDateTime created;
+    private Integer requestorId;
+}
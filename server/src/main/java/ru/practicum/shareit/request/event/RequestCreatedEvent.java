@@ -0,0 +1,17 @@
+package ru.practicum.shareit.request.event;
+
+import lombok.Getter;
+import ru.practicum.shareit.request.model.Request;
+
+/**
+ * Событие шины приложения о создании запроса. Начало ленты, индекс описаний запросов и поток SSE запросов
+ * получают его после фиксации транзакции RequestServiceImpl. Запрос копируется при публикации.
+ **/
+@Getter
+public class RequestCreatedEvent {
+    private final Request request;
+
+    public RequestCreatedEvent(Request request) {
+        this.request = new Request(request.getId(), request.getDescription(), request.getRequestor(), request.getCreated());
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.request.feed;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.request.event.RequestCreatedEvent;
+import ru.practicum.shareit.request.mapper.RequestMapper;
+import ru.practicum.shareit.stream.ReplayBuffer;
+import ru.practicum.shareit.stream.SseBroadcaster;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Поток SSE новых запросов для шлюза: событие request отправляется после фиксации создания запроса.
+ * Шлюз держит одну подписку на сервер и сам раздает события своим клиентам.
+ * Как и в BookingEventStream, последние события хранятся в окне ReplayBuffer: при переподключении с Last-Event-ID
+ * шлюз получает пропущенные запросы, а если окно их уже не покрывает — событие reset. id отсчитываются от текущего
+ * времени и после перезапуска сервера продолжают расти.
+ **/
+@Component
+public class RequestEventStream {
+    static final String EVENT_NAME = "request";
+    static final String RESET_EVENT = "reset";
+
+    private final SseBroadcaster broadcaster;
+    private final ReplayBuffer replay;
+    private final AtomicLong lastEventId = new AtomicLong(System.currentTimeMillis() * 1000);
+    /**Публикация и подписка с догрузкой пропущенного не должны чередоваться, иначе событие потеряется или повторится.**/
+    private final Object publishLock = new Object();
+
+    public RequestEventStream(@Value("${shareit.stream.queue-capacity:256}") int queueCapacity,
+                              @Value("${shareit.stream.timeout:1800000}") long timeoutMillis,
+                              @Value("${shareit.stream.sender-threads:2}") int senderThreads,
+                              @Value("${shareit.stream.replay-window:1000}") int replayWindow,
+                              @Value("${shareit.stream.write-timeout:10000}") long writeTimeoutMillis) {
+        this.broadcaster = new SseBroadcaster("requests", queueCapacity, timeoutMillis, senderThreads, writeTimeoutMillis);
+        this.replay = new ReplayBuffer(replayWindow);
+    }
+
+    /**lastEventId — заголовок Last-Event-ID переподключившегося клиента.**/
+    public SseEmitter subscribe(Long lastEventId) {
+        synchronized (publishLock) {
+            if (lastEventId == null) {
+                return broadcaster.subscribe(null);
+            }
+            List<SseBroadcaster.Event> backlog = replay.after(lastEventId, null)
+                    .orElseGet(() -> List.of(new SseBroadcaster.Event(this.lastEventId.get(), RESET_EVENT, Map.of())));
+            return broadcaster.subscribe(null, backlog);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestCreated(RequestCreatedEvent event) {
+        synchronized (publishLock) {
+            SseBroadcaster.Event sseEvent = new SseBroadcaster.Event(lastEventId.incrementAndGet(), EVENT_NAME,
+                    RequestMapper.toRequestEventDto(event.getRequest()));
+            replay.add(sseEvent, null);
+            broadcaster.publish(sseEvent, any -> true);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        broadcaster.close();
+    }
+}
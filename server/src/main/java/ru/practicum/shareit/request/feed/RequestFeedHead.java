@@ -0,0 +1,215 @@
+package ru.practicum.shareit.request.feed;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.dto.RequestResponseDTO;
+import ru.practicum.shareit.request.dto.RequestedItemResponseDto;
+import ru.practicum.shareit.request.event.RequestCreatedEvent;
+import ru.practicum.shareit.request.mapper.RequestMapper;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.repository.RequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Начало общей ленты запросов: HEAD_SIZE самых новых запросов всех пользователей вместе с вещами,
+ * в порядке ленты (created desc, id). Первые страницы GET /requests/all собираются из него в памяти:
+ * запросы самого пользователя отфильтровываются, а если после фильтра записей на страницу не хватает,
+ * страница читается из базы. Голова строится при старте и дальше обновляется событиями о создании запросов,
+ * создании и изменении вещей — после фиксации транзакции.
+ **/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestFeedHead {
+    static final int HEAD_SIZE = 200;
+
+    private static final Comparator<FeedEntry> FEED_ORDER = Comparator
+            .comparing((FeedEntry it) -> it.created, Comparator.reverseOrder())
+            .thenComparing(it -> it.id);
+
+    private final RequestRepository requestRepository;
+    private final ItemRepository itemRepository;
+
+    private final List<FeedEntry> entries = new ArrayList<>();
+    private final Map<Integer, FeedEntry> byId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**В голове все запросы из базы: любая страница собирается из памяти.**/
+    private boolean complete;
+    private volatile boolean ready;
+
+    /**
+     * Загрузка идет под блокировкой записи: изменения, зафиксированные во время загрузки, ждут ее окончания
+     * и применяются поверх, а добавление запроса и вещи повторно ничего не меняет.
+     **/
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            List<Request> requests = requestRepository.findNewestRequests(PageRequest.of(0, HEAD_SIZE));
+            for (Request request : requests) {
+                FeedEntry entry = new FeedEntry(request);
+                entries.add(entry);
+                byId.put(entry.id, entry);
+            }
+            if (!requests.isEmpty()) {
+                for (Item item : itemRepository.findAllByRequestIdIn(new ArrayList<>(byId.keySet()))) {
+                    byId.get(item.getRequest().getId()).putItem(RequestMapper.toItemRequestResponseDto(item));
+                }
+            }
+            complete = requests.size() < HEAD_SIZE;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Начало ленты запросов загружено: {} запросов, {} мс", entries.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Страница ленты чужих запросов, если ее можно собрать из головы. Смещение offset используется
+     * без курсора, с курсором страница начинается сразу после него.
+     **/
+    public Optional<List<RequestResponseDTO>> page(Integer userId, long offset, int size, PageCursor cursor) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        PageCursor after = PageCursor.orFirst(cursor);
+        List<RequestResponseDTO> page = new ArrayList<>(size);
+        long skipped = 0;
+        lock.readLock().lock();
+        try {
+            for (FeedEntry entry : entries) {
+                if (entry.requestorId.equals(userId) || !entry.isAfter(after)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                page.add(entry.toDto());
+                if (page.size() == size) {
+                    return Optional.of(page);
+                }
+            }
+            return complete ? Optional.of(page) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestCreated(RequestCreatedEvent event) {
+        requestCreated(event.getRequest());
+    }
+
+    /**Новая вещь без запроса ленту не меняет.**/
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (!event.isCreated() || event.getItem().getRequest() != null) {
+            itemChanged(event.getItem());
+        }
+    }
+
+    /**Добавляет новый запрос в голову, если он попадает в первые HEAD_SIZE записей ленты.**/
+    public void requestCreated(Request request) {
+        lock.writeLock().lock();
+        try {
+            if (ready && !byId.containsKey(request.getId())) {
+                insert(new FeedEntry(request));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**Переносит вещь в запрос, на который она сейчас отвечает, или убирает из головы, если связь с запросом снята.**/
+    public void itemChanged(Item item) {
+        RequestedItemResponseDto dto = item.getRequest() == null ? null : RequestMapper.toItemRequestResponseDto(item);
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                return;
+            }
+            for (FeedEntry entry : entries) {
+                entry.removeItem(item.getId());
+            }
+            if (dto != null && byId.containsKey(dto.getRequestId())) {
+                byId.get(dto.getRequestId()).putItem(dto);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(FeedEntry entry) {
+        int position = Collections.binarySearch(entries, entry, FEED_ORDER);
+        int insertAt = position < 0 ? -position - 1 : position;
+        if (!complete && insertAt >= entries.size()) {
+            return;
+        }
+        entries.add(insertAt, entry);
+        byId.put(entry.id, entry);
+        if (entries.size() > HEAD_SIZE) {
+            byId.remove(entries.remove(entries.size() - 1).id);
+            complete = false;
+        }
+    }
+
+    private static class FeedEntry {
+        private final Integer id;
+        private final Integer requestorId;
+        private final String description;
+        private final LocalDateTime created;
+        /**Вещи по возрастанию id, как их отдает ItemRepository.findAllByRequestIdIn.**/
+        private final List<RequestedItemResponseDto> items = new ArrayList<>();
+
+        FeedEntry(Request request) {
+            this.id = request.getId();
+            this.requestorId = request.getRequestor().getId();
+            this.description = request.getDescription();
+            this.created = request.getCreated();
+        }
+
+        boolean isAfter(PageCursor cursor) {
+            return created.isBefore(cursor.getTime()) || (created.isEqual(cursor.getTime()) && id > cursor.getId());
+        }
+
+        void putItem(RequestedItemResponseDto item) {
+            removeItem(item.getId());
+            int position = 0;
+            while (position < items.size() && items.get(position).getId() < item.getId()) {
+                position++;
+            }
+            items.add(position, item);
+        }
+
+        void removeItem(Integer itemId) {
+            items.removeIf(it -> it.getId().equals(itemId));
+        }
+
+        /**Копия записи: DTO изменяемые, а голова общая для всех запросов.**/
+        RequestResponseDTO toDto() {
+            List<RequestedItemResponseDto> itemsCopy = items.stream()
+                    .map(it -> new RequestedItemResponseDto(it.getId(), it.getName(), it.getDescription(),
+                            it.getAvailable(), it.getRequestId()))
+                    .collect(Collectors.toList());
+            return new RequestResponseDTO(id, description, created, itemsCopy);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package ru.practicum.shareit.request.mapper;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.dto.RequestEventDto;
 import ru.practicum.shareit.request.dto.RequestRequestDTO;
 import ru.practicum.shareit.request.dto.RequestResponseDTO;
 import ru.practicum.shareit.request.dto.RequestedItemResponseDto;
@@ -11,8 +13,11 @@ import ru.practicum.shareit.user.model.User;
 
 import javax.validation.ValidationException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Component
 public class RequestMapper {
@@ -25,8 +30,21 @@ public class RequestMapper {
         return PageRequest.of(from / size, size);
     }
 
+    /**В режиме курсоров смещение задается самим курсором, поэтому всегда запрашивается первая страница.**/
+    public static PageRequest toPageRequest(Integer from, Integer size, PageCursor cursor) {
+        if (cursor == null) {
+            return toPageRequest(from, size);
+        }
+        return toPageRequest(0, size);
+    }
+
+    /**Дата создания обрезается до микросекунд, как ее хранит база: по ней строятся курсоры ленты, в том числе из RequestFeedHead.**/
     public static Request toRequest(RequestRequestDTO requestDTO, User requestor) {
-        return new Request(null, requestDTO.getDescription(), requestor, LocalDateTime.now());
+        return new Request(null, requestDTO.getDescription(), requestor, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    public static RequestEventDto toRequestEventDto(Request request) {
+        return new RequestEventDto(request.getId(), request.getDescription(), request.getCreated(), request.getRequestor().getId());
     }
 
     public static RequestedItemResponseDto toItemRequestResponseDto(Item item) {
@@ -37,21 +55,21 @@ public class RequestMapper {
                 item.getRequest().getId());
     }
 
+    /**Вещи раскладываются по запросам за один проход через таблицу id запроса → вещи, порядок запросов сохраняется.**/
     public static List<RequestResponseDTO> toRequestResponseDto(List<Request> requests, List<RequestedItemResponseDto> allItems) {
-        return requests
-                .stream()
-                .map(request ->
-                        new RequestResponseDTO(
-                                request.getId(),
-                                request.getDescription(),
-                                request.getCreated(),
-                                allItems
-                                        .stream()
-                                        .filter(it -> it.getRequestId().equals(request.getId()))
-                                        .collect(Collectors.toList())
-                        )
-                )
-                .distinct()
-                .collect(Collectors.toList());
+        Map<Integer, List<RequestedItemResponseDto>> itemsByRequest = new HashMap<>(requests.size() * 2);
+        for (RequestedItemResponseDto item : allItems) {
+            itemsByRequest.computeIfAbsent(item.getRequestId(), it -> new ArrayList<>()).add(item);
+        }
+        List<RequestResponseDTO> result = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            result.add(new RequestResponseDTO(
+                    request.getId(),
+                    request.getDescription(),
+                    request.getCreated(),
+                    itemsByRequest.getOrDefault(request.getId(), new ArrayList<>())
+            ));
+        }
+        return result;
     }
 }
@@ -1,17 +1,31 @@
 package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface RequestRepository extends JpaRepository<Request, Integer> {
-    @Query("select i, r from Request r left join Item i on i.request = r where r.requestor = ?1 order by r.created desc")
-    List<Object[]> findRequestsWithItemsByUser(User requestor);
+    @Query("select r from Request r where r.requestor = ?1 order by r.created desc, r.id")
+    List<Request> findRequestsByUser(User requestor);
 
-    @Query("select i, r from Request r left join Item i on i.request = r where r.requestor <> ?1 order by r.created desc")
-    List<Object[]> findAllRequestsOfOtherUsersWithItemsPageable(User requestor, PageRequest pageable);
+    /**Страница запросов без вещей: вещи страницы догружаются отдельно, поэтому размер страницы считается в запросах.**/
+    @Query("select r from Request r where r.requestor <> ?1 order by r.created desc, r.id")
+    List<Request> findRequestsOfOtherUsers(User requestor, PageRequest pageable);
+
+    /**Запросы в виде (id, id автора, описание) порциями по возрастанию id: для построения индекса описаний.**/
+    @Query("select r.id, r.requestor.id, r.description from Request r where r.id > ?1 order by r.id")
+    List<Object[]> findDescriptionsAfter(Integer lastId, Pageable pageable);
+
+    @Query("select r from Request r order by r.created desc, r.id")
+    List<Request> findNewestRequests(PageRequest pageable);
+
+    @Query("select r from Request r where r.requestor <> ?1 " +
+            "and (r.created < ?2 or (r.created = ?2 and r.id > ?3)) order by r.created desc, r.id")
+    List<Request> findRequestsOfOtherUsersAfter(User requestor, LocalDateTime cursorCreated, Integer cursorId, PageRequest pageable);
 }
@@ -0,0 +1,136 @@
+package ru.practicum.shareit.request.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.search.ItemAnalyzer;
+import ru.practicum.shareit.item.search.PostingList;
+import ru.practicum.shareit.item.search.TopK;
+import ru.practicum.shareit.request.event.RequestCreatedEvent;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.repository.RequestRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс описаний запросов для подбора запросов, которые владелец может закрыть своими вещами.
+ * Описание разбирается на термы так же, как текст вещи (ItemAnalyzer), поэтому «дрели» в запросе совпадает
+ * с «дрель» в названии вещи. Оценка запроса — сумма IDF общих с вещами владельца термов: совпадение
+ * по редкому слову весит больше, чем по частому. Просматриваются только списки термов владельца.
+ * Индекс строится при старте из requests и дальше пополняется событиями RequestCreatedEvent после фиксации транзакции.
+ **/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestMatchIndex {
+    private static final int BUILD_BATCH_SIZE = 10_000;
+
+    private final RequestRepository requestRepository;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Integer, Integer> requestors = new HashMap<>();
+    private final Set<Integer> touchedDuringBuild = new HashSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long started = System.currentTimeMillis();
+        int lastId = 0;
+        List<Object[]> batch;
+        do {
+            batch = requestRepository.findDescriptionsAfter(lastId, PageRequest.of(0, BUILD_BATCH_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : batch) {
+                    Integer id = (Integer) row[0];
+                    if (!touchedDuringBuild.contains(id)) {
+                        put(id, (Integer) row[1], (String) row[2]);
+                    }
+                    lastId = id;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } while (batch.size() == BUILD_BATCH_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            touchedDuringBuild.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс описаний запросов построен: {} запросов, {} термов, {} мс",
+                requestors.size(), postings.size(), System.currentTimeMillis() - started);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRequestCreated(RequestCreatedEvent event) {
+        add(event.getRequest());
+    }
+
+    public void add(Request request) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                touchedDuringBuild.add(request.getId());
+            }
+            put(request.getId(), request.getRequestor().getId(), request.getDescription());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * До limit id запросов чужих пользователей, описания которых делят термы с termsOfItems, по убыванию оценки.
+     * Запросы из excluded (например, уже закрытые вещами владельца) пропускаются.
+     **/
+    public List<Integer> match(Collection<String> termsOfItems, Integer userId, Set<Integer> excluded, int limit) {
+        Map<Integer, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int total = requestors.size();
+            for (String term : new HashSet<>(termsOfItems)) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (double) total / list.size());
+                list.forEach(id -> scores.merge(id, idf, Double::sum));
+            }
+            TopK top = new TopK(limit);
+            for (Map.Entry<Integer, Double> scored : scores.entrySet()) {
+                Integer id = scored.getKey();
+                if (!userId.equals(requestors.get(id)) && !excluded.contains(id)) {
+                    top.offer(id, scored.getValue());
+                }
+            }
+            return top.sorted();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(Integer id, Integer requestorId, String description) {
+        if (requestors.containsKey(id)) {
+            return;
+        }
+        requestors.put(id, requestorId);
+        for (String term : new HashSet<>(ItemAnalyzer.analyze(description))) {
+            postings.computeIfAbsent(term, it -> new PostingList()).add(id);
+        }
+    }
+}
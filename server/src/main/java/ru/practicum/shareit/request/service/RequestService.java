@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.RequestRequestDTO;
 import ru.practicum.shareit.request.dto.RequestResponseDTO;
 import ru.practicum.shareit.request.model.Request;
@@ -12,7 +13,9 @@ public interface RequestService {
 
     List<RequestResponseDTO> getItemsThatWereCreatedByRequest(Integer userId);
 
-    List<RequestResponseDTO> getAllRequestsPageable(Integer userId, Integer from, Integer size);
+    List<RequestResponseDTO> getAllRequestsPageable(Integer userId, Integer from, Integer size, PageCursor cursor);
 
     RequestResponseDTO getSingleRequestById(Integer requestId, Integer userId);
+
+    List<RequestResponseDTO> getMatchingRequests(Integer userId, Integer from, Integer size);
 }
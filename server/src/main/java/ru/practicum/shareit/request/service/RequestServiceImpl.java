@@ -2,22 +2,25 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemAnalyzer;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.RequestRequestDTO;
 import ru.practicum.shareit.request.dto.RequestResponseDTO;
 import ru.practicum.shareit.request.dto.RequestedItemResponseDto;
+import ru.practicum.shareit.request.event.RequestCreatedEvent;
+import ru.practicum.shareit.request.feed.RequestFeedHead;
 import ru.practicum.shareit.request.mapper.RequestMapper;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.request.search.RequestMatchIndex;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,38 +30,41 @@ public class RequestServiceImpl implements RequestService {
     private final RequestRepository requestRepository;
     private final ItemRepository itemRepository;
     private final UserServiceImpl userService;
+    private final RequestFeedHead feedHead;
+    private final RequestMatchIndex matchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public Request create(Integer userId, RequestRequestDTO request) {
         Request req = RequestMapper.toRequest(request, userService.getUser(userId));
-        return requestRepository.save(req);
+        Request created = requestRepository.save(req);
+        eventPublisher.publishEvent(new RequestCreatedEvent(created));
+        return created;
     }
 
     @Override
     public List<RequestResponseDTO> getItemsThatWereCreatedByRequest(Integer userId) {
         User requestor = userService.getUser(userId);
-
-        List<Item> items = new ArrayList<>();
-        List<Request> requests = new ArrayList<>();
-        List<Object[]> objects = requestRepository.findRequestsWithItemsByUser(requestor);
-        parseRepositoryRequestsWithItemsObjects(objects, items, requests);
-
-        List<RequestedItemResponseDto> allItemsResponse = items.stream().map(RequestMapper::toItemRequestResponseDto).collect(Collectors.toList());
-        return RequestMapper.toRequestResponseDto(requests, allItemsResponse);
+        return withItems(requestRepository.findRequestsByUser(requestor));
     }
 
+    /**
+     * Первые страницы собираются из общего начала ленты RequestFeedHead. Остальные читаются из базы в два шага:
+     * сначала страница самих запросов, затем вещи этих запросов одним запросом по id.
+     **/
     @Override
-    public List<RequestResponseDTO> getAllRequestsPageable(Integer userId, Integer from, Integer size) {
-        PageRequest request = RequestMapper.toPageRequest(from, size);
+    public List<RequestResponseDTO> getAllRequestsPageable(Integer userId, Integer from, Integer size, PageCursor cursor) {
+        PageRequest request = RequestMapper.toPageRequest(from, size, cursor);
         User requestor = userService.getUser(userId);
 
-        List<Item> items = new ArrayList<>();
-        List<Request> requests = new ArrayList<>();
-        List<Object[]> objects = requestRepository.findAllRequestsOfOtherUsersWithItemsPageable(requestor, request);
-        parseRepositoryRequestsWithItemsObjects(objects, items, requests);
-
-        List<RequestedItemResponseDto> allItemsResponse = items.stream().map(RequestMapper::toItemRequestResponseDto).collect(Collectors.toList());
-        return RequestMapper.toRequestResponseDto(requests, allItemsResponse);
+        Optional<List<RequestResponseDTO>> cached = feedHead.page(requestor.getId(), request.getOffset(), size, cursor);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        if (cursor != null) {
+            return withItems(requestRepository.findRequestsOfOtherUsersAfter(requestor, cursor.getTime(), cursor.getId(), request));
+        }
+        return withItems(requestRepository.findRequestsOfOtherUsers(requestor, request));
     }
 
     @Override
@@ -69,19 +75,51 @@ public class RequestServiceImpl implements RequestService {
         return RequestMapper.toRequestResponseDto(List.of(request), allItems).get(0);
     }
 
+    /**
+     * Чужие запросы, которые владелец может закрыть своими доступными вещами: по убыванию общих термов описания
+     * запроса с названиями и описаниями вещей. Запросы, на которые владелец уже ответил вещью, пропускаются.
+     * Пока индекс описаний строится при старте, список пуст.
+     **/
+    @Override
+    public List<RequestResponseDTO> getMatchingRequests(Integer userId, Integer from, Integer size) {
+        PageRequest page = RequestMapper.toPageRequest(from, size);
+        userService.getUser(userId);
+        if (!matchIndex.isReady()) {
+            return new ArrayList<>();
+        }
+        List<String> terms = new ArrayList<>();
+        for (Object[] row : itemRepository.findAvailableItemTextsOfOwner(userId)) {
+            terms.addAll(ItemAnalyzer.analyze((String) row[0]));
+            terms.addAll(ItemAnalyzer.analyze((String) row[1]));
+        }
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Integer> answered = new HashSet<>(itemRepository.findRequestIdsAnsweredByOwner(userId));
+        int offset = (int) page.getOffset();
+        List<Integer> ranked = matchIndex.match(terms, userId, answered, offset + size);
+        if (ranked.size() <= offset) {
+            return new ArrayList<>();
+        }
+        List<Integer> ids = ranked.subList(offset, ranked.size());
+        Map<Integer, Request> requests = requestRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Request::getId, it -> it));
+        return withItems(ids.stream().map(requests::get).filter(Objects::nonNull).collect(Collectors.toList()));
+    }
+
     public Request getRequest(Integer requestId) {
         return requestRepository.findById(requestId).orElseThrow(()
                 -> new NoSuchElementException("Запрос с ID = " + requestId + " не найден."));
     }
 
-    private void parseRepositoryRequestsWithItemsObjects(List<Object[]> objects, List<Item> items, List<Request> requests) {
-        for (Object[] obj : objects) {
-            Item item = (Item) obj[0];
-            if (item != null) {
-                items.add(item);
-            }
-            Request req = (Request) obj[1];
-            requests.add(req);
+    private List<RequestResponseDTO> withItems(List<Request> requests) {
+        if (requests.isEmpty()) {
+            return new ArrayList<>();
         }
+        List<Integer> requestIds = requests.stream().map(Request::getId).collect(Collectors.toList());
+        List<RequestedItemResponseDto> allItemsResponse = itemRepository.findAllByRequestIdIn(requestIds).stream()
+                .map(RequestMapper::toItemRequestResponseDto)
+                .collect(Collectors.toList());
+        return RequestMapper.toRequestResponseDto(requests, allItemsResponse);
     }
 }
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.savedsearch.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.savedsearch.dto.SavedSearchRequestDto;
+import ru.practicum.shareit.savedsearch.dto.SavedSearchResponseDto;
+import ru.practicum.shareit.savedsearch.dto.SearchNotificationDto;
+import ru.practicum.shareit.savedsearch.service.SavedSearchService;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/searches")
+public class SavedSearchController {
+
+    private static final String OWNER_ID_HEADER = "X-Sharer-User-Id";
+    private final SavedSearchService savedSearchService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public SavedSearchResponseDto create(@RequestBody SavedSearchRequestDto search, @RequestHeader(OWNER_ID_HEADER) Integer userId) {
+        log.info("Сохраняем поиск пользователя ID = {}: {}", userId, search);
+        return savedSearchService.create(userId, search);
+    }
+
+    @GetMapping
+    public List<SavedSearchResponseDto> getUserSearches(@RequestHeader(OWNER_ID_HEADER) Integer userId) {
+        log.info("Вывести сохраненные поиски пользователя ID = {}", userId);
+        return savedSearchService.getUserSearches(userId);
+    }
+
+    @DeleteMapping("/{searchId}")
+    public void delete(@RequestHeader(OWNER_ID_HEADER) Integer userId, @PathVariable Integer searchId) {
+        log.info("Удаляем сохраненный поиск ID = {} пользователя ID = {}", searchId, userId);
+        savedSearchService.delete(userId, searchId);
+    }
+
+    @GetMapping("/notifications")
+    public ResponseEntity<List<SearchNotificationDto>> getNotifications(@RequestHeader(OWNER_ID_HEADER) Integer userId,
+                                                                        @RequestParam(defaultValue = "0") Integer from,
+                                                                        @RequestParam(defaultValue = "10") Integer size,
+                                                                        @RequestParam(required = false) String cursor) {
+        log.info("Вывести уведомления по сохраненным поискам пользователя ID = {}", userId);
+        PageCursor pageCursor = PageCursor.decodeTimed(cursor);
+        List<SearchNotificationDto> notifications = savedSearchService.getNotifications(userId, from, size, pageCursor);
+        return ResponseEntity.ok()
+                .headers(PageCursor.nextPageHeaders(notifications, size, pageCursor, it -> PageCursor.of(it.getCreated(), it.getId())))
+                .body(notifications);
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.savedsearch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+@Data
+@RequiredArgsConstructor
+@AllArgsConstructor
+public class SavedSearchRequestDto {
+    private String text;
+}
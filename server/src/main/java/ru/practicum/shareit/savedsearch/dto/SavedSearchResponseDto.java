@@ -0,0 +1,14 @@
+package ru.practicum.shareit.savedsearch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class SavedSearchResponseDto {
+    private Integer id;
+    private String text;
+    private LocalDateTime created;
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.savedsearch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class SearchNotificationDto {
+    private Integer id;
+    private Integer savedSearchId;
+    private String text;
+    private Integer itemId;
+    private String itemName;
+    private String itemDescription;
+    private LocalDateTime created;
+}
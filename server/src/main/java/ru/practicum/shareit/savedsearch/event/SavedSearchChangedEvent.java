@@ -0,0 +1,22 @@
+package ru.practicum.shareit.savedsearch.event;
+
+import lombok.Getter;
+
+/**
+ * Событие шины приложения о сохранении или удалении сохраненного поиска: text равен null для удаленного поиска.
+ * Индекс сохраненных поисков получает его после фиксации транзакции SavedSearchServiceImpl.
+ **/
+@Getter
+public class SavedSearchChangedEvent {
+    private final Integer searchId;
+    private final String text;
+
+    public SavedSearchChangedEvent(Integer searchId, String text) {
+        this.searchId = searchId;
+        this.text = text;
+    }
+
+    public boolean isDeleted() {
+        return text == null;
+    }
+}
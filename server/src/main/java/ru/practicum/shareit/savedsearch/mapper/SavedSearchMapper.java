@@ -0,0 +1,27 @@
+package ru.practicum.shareit.savedsearch.mapper;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.savedsearch.dto.SavedSearchResponseDto;
+import ru.practicum.shareit.savedsearch.dto.SearchNotificationDto;
+import ru.practicum.shareit.savedsearch.model.SavedSearch;
+import ru.practicum.shareit.savedsearch.model.SearchNotification;
+
+@Component
+public class SavedSearchMapper {
+
+    public static SavedSearchResponseDto toSavedSearchResponseDto(SavedSearch search) {
+        return new SavedSearchResponseDto(search.getId(), search.getText(), search.getCreated());
+    }
+
+    public static SearchNotificationDto toSearchNotificationDto(SearchNotification notification) {
+        return new SearchNotificationDto(
+                notification.getId(),
+                notification.getSavedSearch().getId(),
+                notification.getSavedSearch().getText(),
+                notification.getItem().getId(),
+                notification.getItem().getName(),
+                notification.getItem().getDescription(),
+                notification.getCreated()
+        );
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.savedsearch.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotEmpty;
+import java.time.LocalDateTime;
+
+/**
+ * Сохраненный поиск
+ * id — уникальный идентификатор;
+ * user — пользователь, которому приходят уведомления о подходящих вещах;
+ * text — текст запроса, вещь подходит, если каждое его слово — начало какого-либо слова названия или описания;
+ * created — дата сохранения.
+ **/
+
+@Data
+@AllArgsConstructor
+@RequiredArgsConstructor
+@Entity
+@Table(name = "saved_searches", schema = "public")
+public class SavedSearch {
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    private Integer id;
+    @ManyToOne
+    private User user;
+    @NotEmpty
+    private String text;
+    private LocalDateTime created;
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.savedsearch.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Уведомление о вещи, подошедшей под сохраненный поиск
+ * id — уникальный идентификатор;
+ * savedSearch — сохраненный поиск;
+ * user — пользователь, сохранивший поиск, копия savedSearch.user для ленты уведомлений пользователя;
+ * item — подошедшая вещь, по каждой вещи на поиск приходит не больше одного уведомления;
+ * created — дата, когда вещь подошла под поиск.
+ **/
+
+@Data
+@AllArgsConstructor
+@RequiredArgsConstructor
+@Entity
+@Table(name = "search_notifications", schema = "public")
+public class SearchNotification {
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    private Integer id;
+    @ManyToOne
+    private SavedSearch savedSearch;
+    @ManyToOne
+    private User user;
+    @ManyToOne
+    private Item item;
+    private LocalDateTime created;
+}
@@ -0,0 +1,210 @@
+package ru.practicum.shareit.savedsearch.percolator;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemAnalyzer;
+import ru.practicum.shareit.savedsearch.event.SavedSearchChangedEvent;
+import ru.practicum.shareit.savedsearch.repository.SavedSearchRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Обратный индекс сохраненных поисков: по тексту вещи находит поиски, под которые она подходит,
+ * не выполняя каждый поиск заново.
+ * Поиск подходит, если каждый его терм (см. ItemAnalyzer) — начало какого-либо терма названия или описания,
+ * как в ItemSearchIndex. Поиск хранится под одним якорем — самым длинным своим термом. Для вещи перебираются
+ * все префиксы ее термов, поиски под найденными якорями — кандидаты, у которых остается проверить прочие термы.
+ * Индекс строится при старте из saved_searches и дальше обновляется событиями SavedSearchChangedEvent
+ * о сохранении и удалении поисков после фиксации транзакции.
+ **/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SavedSearchPercolator {
+    private static final int BUILD_BATCH_SIZE = 10_000;
+
+    private final SavedSearchRepository savedSearchRepository;
+
+    /**Якорный терм → поиски с этим якорем.**/
+    private final Map<String, Set<Integer>> anchors = new HashMap<>();
+    /**Термы каждого поиска для проверки кандидатов.**/
+    private final Map<Integer, String[]> queries = new HashMap<>();
+    private final Set<Integer> touchedDuringBuild = new HashSet<>();
+    /**Действия, ждущие окончания построения (см. whenReady).**/
+    private final List<Runnable> readyActions = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long started = System.currentTimeMillis();
+        int lastId = 0;
+        List<Object[]> batch;
+        do {
+            batch = savedSearchRepository.findTextsAfter(lastId, PageRequest.of(0, BUILD_BATCH_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : batch) {
+                    Integer id = (Integer) row[0];
+                    if (!touchedDuringBuild.contains(id)) {
+                        put(id, (String) row[1]);
+                    }
+                    lastId = id;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } while (batch.size() == BUILD_BATCH_SIZE);
+
+        List<Runnable> actions;
+        lock.writeLock().lock();
+        try {
+            touchedDuringBuild.clear();
+            ready = true;
+            actions = new ArrayList<>(readyActions);
+            readyActions.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс сохраненных поисков построен: {} поисков, {} мс", queries.size(), System.currentTimeMillis() - started);
+        actions.forEach(Runnable::run);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**Выполняет action сразу, если индекс построен, иначе — в потоке построения сразу после его окончания.**/
+    public void whenReady(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                readyActions.add(action);
+                return;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        action.run();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSavedSearchChanged(SavedSearchChangedEvent change) {
+        if (change.isDeleted()) {
+            remove(change.getSearchId());
+        } else {
+            add(change.getSearchId(), change.getText());
+        }
+    }
+
+    public void add(Integer searchId, String text) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                touchedDuringBuild.add(searchId);
+            }
+            put(searchId, text);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer searchId) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                touchedDuringBuild.add(searchId);
+            }
+            delete(searchId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**Идентификаторы сохраненных поисков, под которые подходит вещь, по возрастанию.**/
+    public List<Integer> match(Item item) {
+        NavigableSet<String> itemTerms = new TreeSet<>(ItemAnalyzer.analyze(item.getName()));
+        itemTerms.addAll(ItemAnalyzer.analyze(item.getDescription()));
+        if (itemTerms.isEmpty()) {
+            return List.of();
+        }
+        Set<String> prefixes = new HashSet<>();
+        for (String term : itemTerms) {
+            for (int end = 1; end <= term.length(); end++) {
+                prefixes.add(term.substring(0, end));
+            }
+        }
+        Set<Integer> matched = new TreeSet<>();
+        lock.readLock().lock();
+        try {
+            for (String prefix : prefixes) {
+                Set<Integer> candidates = anchors.get(prefix);
+                if (candidates == null) {
+                    continue;
+                }
+                for (Integer id : candidates) {
+                    if (matchesAll(queries.get(id), itemTerms)) {
+                        matched.add(id);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new ArrayList<>(matched);
+    }
+
+    private static boolean matchesAll(String[] queryTerms, NavigableSet<String> itemTerms) {
+        for (String queryTerm : queryTerms) {
+            String candidate = itemTerms.ceiling(queryTerm);
+            if (candidate == null || !candidate.startsWith(queryTerm)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void put(Integer id, String text) {
+        delete(id);
+        String[] terms = new LinkedHashSet<>(ItemAnalyzer.analyze(text)).toArray(new String[0]);
+        if (terms.length == 0) {
+            return;
+        }
+        queries.put(id, terms);
+        anchors.computeIfAbsent(anchorOf(terms), it -> new HashSet<>()).add(id);
+    }
+
+    private void delete(Integer id) {
+        String[] terms = queries.remove(id);
+        if (terms == null) {
+            return;
+        }
+        String anchor = anchorOf(terms);
+        Set<Integer> ids = anchors.get(anchor);
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            anchors.remove(anchor);
+        }
+    }
+
+    /**Самый длинный терм: у длинных префиксов меньше совпадений, поэтому под якорем меньше лишних кандидатов.**/
+    private static String anchorOf(String[] terms) {
+        String anchor = terms[0];
+        for (String term : terms) {
+            if (term.length() > anchor.length()) {
+                anchor = term;
+            }
+        }
+        return anchor;
+    }
+}
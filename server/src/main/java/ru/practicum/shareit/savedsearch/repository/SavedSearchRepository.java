@@ -0,0 +1,16 @@
+package ru.practicum.shareit.savedsearch.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.savedsearch.model.SavedSearch;
+
+import java.util.List;
+
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, Integer> {
+    List<SavedSearch> findAllByUserIdOrderById(Integer userId);
+
+    /**Сохраненные поиски в виде (id, text) порциями по возрастанию id: для построения обратного индекса.**/
+    @Query("select s.id, s.text from SavedSearch s where s.id > ?1 order by s.id")
+    List<Object[]> findTextsAfter(Integer lastId, Pageable pageable);
+}
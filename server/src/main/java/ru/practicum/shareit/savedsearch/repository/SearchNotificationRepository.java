@@ -0,0 +1,21 @@
+package ru.practicum.shareit.savedsearch.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.savedsearch.model.SearchNotification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SearchNotificationRepository extends JpaRepository<SearchNotification, Integer> {
+    /**Сохраненные поиски из searchIds, по которым уже есть уведомление о вещи.**/
+    @Query("select n.savedSearch.id from SearchNotification n where n.item.id = ?1 and n.savedSearch.id in ?2")
+    List<Integer> findNotifiedSearchIds(Integer itemId, Collection<Integer> searchIds);
+
+    /**Лента уведомлений пользователя по индексу search_notifications_user_created_idx.**/
+    @Query("select n from SearchNotification n join fetch n.savedSearch join fetch n.item " +
+            "where n.user.id = ?1 and (n.created < ?2 or (n.created = ?2 and n.id > ?3)) order by n.created desc, n.id")
+    List<SearchNotification> findUserNotifications(Integer userId, LocalDateTime cursorCreated, Integer cursorId, Pageable pageable);
+}
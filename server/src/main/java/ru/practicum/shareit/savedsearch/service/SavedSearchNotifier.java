@@ -0,0 +1,87 @@
+package ru.practicum.shareit.savedsearch.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.savedsearch.percolator.SavedSearchPercolator;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Уведомления по сохраненным поискам о созданных и измененных вещах. Вещь проверяется после фиксации транзакции
+ * в отдельном потоке, так что запрос на запись вещи не ждет сопоставления с поисками и сохранения уведомлений.
+ * Пока индекс сохраненных поисков строится при старте, вещи копятся в очереди и проверяются по порядку,
+ * как только он будет готов: иначе часть поисков была бы пропущена без повторной проверки.
+ **/
+@Slf4j
+@Component
+public class SavedSearchNotifier {
+    private final SavedSearchService savedSearchService;
+    private final SavedSearchPercolator percolator;
+    private final Executor executor;
+    private final Queue<Item> pending = new ArrayDeque<>();
+
+    @Autowired
+    public SavedSearchNotifier(SavedSearchService savedSearchService, SavedSearchPercolator percolator) {
+        this(savedSearchService, percolator, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "saved-search-notifier");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**Один поток исполнителя сохраняет порядок изменений одной вещи.**/
+    SavedSearchNotifier(SavedSearchService savedSearchService, SavedSearchPercolator percolator, Executor executor) {
+        this.savedSearchService = savedSearchService;
+        this.percolator = percolator;
+        this.executor = executor;
+        percolator.whenReady(() -> executor.execute(this::drain));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (!Boolean.TRUE.equals(event.getItem().getAvailable())) {
+            return;
+        }
+        synchronized (pending) {
+            pending.add(event.getItem());
+        }
+        executor.execute(this::drain);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    private void drain() {
+        if (!percolator.isReady()) {
+            return;
+        }
+        while (true) {
+            Item item;
+            synchronized (pending) {
+                item = pending.poll();
+            }
+            if (item == null) {
+                return;
+            }
+            try {
+                savedSearchService.notifyMatches(item);
+            } catch (RuntimeException e) {
+                log.warn("Не удалось сохранить уведомления по сохраненным поискам о вещи ID = {}", item.getId(), e);
+            }
+        }
+    }
+}
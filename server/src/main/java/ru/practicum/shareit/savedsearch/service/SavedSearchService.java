@@ -0,0 +1,22 @@
+package ru.practicum.shareit.savedsearch.service;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.savedsearch.dto.SavedSearchRequestDto;
+import ru.practicum.shareit.savedsearch.dto.SavedSearchResponseDto;
+import ru.practicum.shareit.savedsearch.dto.SearchNotificationDto;
+
+import java.util.List;
+
+public interface SavedSearchService {
+
+    SavedSearchResponseDto create(Integer userId, SavedSearchRequestDto search);
+
+    List<SavedSearchResponseDto> getUserSearches(Integer userId);
+
+    void delete(Integer userId, Integer searchId);
+
+    List<SearchNotificationDto> getNotifications(Integer userId, Integer from, Integer size, PageCursor cursor);
+
+    void notifyMatches(Item item);
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.savedsearch.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemAnalyzer;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.mapper.RequestMapper;
+import ru.practicum.shareit.savedsearch.dto.SavedSearchRequestDto;
+import ru.practicum.shareit.savedsearch.dto.SavedSearchResponseDto;
+import ru.practicum.shareit.savedsearch.dto.SearchNotificationDto;
+import ru.practicum.shareit.savedsearch.event.SavedSearchChangedEvent;
+import ru.practicum.shareit.savedsearch.mapper.SavedSearchMapper;
+import ru.practicum.shareit.savedsearch.model.SavedSearch;
+import ru.practicum.shareit.savedsearch.model.SearchNotification;
+import ru.practicum.shareit.savedsearch.percolator.SavedSearchPercolator;
+import ru.practicum.shareit.savedsearch.repository.SavedSearchRepository;
+import ru.practicum.shareit.savedsearch.repository.SearchNotificationRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserServiceImpl;
+
+import javax.validation.ValidationException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SavedSearchServiceImpl implements SavedSearchService {
+    private final SavedSearchRepository savedSearchRepository;
+    private final SearchNotificationRepository notificationRepository;
+    private final SavedSearchPercolator percolator;
+    private final UserServiceImpl userService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public SavedSearchResponseDto create(Integer userId, SavedSearchRequestDto search) {
+        User user = userService.getUser(userId);
+        if (search.getText() == null || ItemAnalyzer.analyze(search.getText()).isEmpty()) {
+            throw new ValidationException("Текст сохраненного поиска должен содержать хотя бы одно слово");
+        }
+        SavedSearch saved = savedSearchRepository.save(new SavedSearch(null, user, search.getText(), LocalDateTime.now()));
+        eventPublisher.publishEvent(new SavedSearchChangedEvent(saved.getId(), saved.getText()));
+        return SavedSearchMapper.toSavedSearchResponseDto(saved);
+    }
+
+    @Override
+    public List<SavedSearchResponseDto> getUserSearches(Integer userId) {
+        userService.getUser(userId);
+        return savedSearchRepository.findAllByUserIdOrderById(userId).stream()
+                .map(SavedSearchMapper::toSavedSearchResponseDto)
+                .collect(Collectors.toList());
+    }
+
+    /**Удалить сохраненный поиск может только его автор, уведомления по поиску удаляются вместе с ним.**/
+    @Override
+    public void delete(Integer userId, Integer searchId) {
+        SavedSearch search = savedSearchRepository.findById(searchId)
+                .filter(it -> it.getUser().getId().equals(userId))
+                .orElseThrow(() -> new NoSuchElementException("Сохраненный поиск с ID = " + searchId + " не найден."));
+        savedSearchRepository.delete(search);
+        eventPublisher.publishEvent(new SavedSearchChangedEvent(search.getId(), null));
+    }
+
+    @Override
+    public List<SearchNotificationDto> getNotifications(Integer userId, Integer from, Integer size, PageCursor cursor) {
+        PageRequest request = RequestMapper.toPageRequest(from, size, cursor);
+        userService.getUser(userId);
+        PageCursor after = PageCursor.orFirst(cursor);
+        return notificationRepository.findUserNotifications(userId, after.getTime(), after.getId(), request).stream()
+                .map(SavedSearchMapper::toSearchNotificationDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Сохраняет уведомления по всем поискам, под которые подходит доступная вещь.
+     * Поиски владельца вещи и поиски, по которым о вещи уже сообщалось, пропускаются.
+     **/
+    @Override
+    public void notifyMatches(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        List<Integer> matched = percolator.match(item);
+        if (matched.isEmpty()) {
+            return;
+        }
+        Set<Integer> notified = new HashSet<>(notificationRepository.findNotifiedSearchIds(item.getId(), matched));
+        LocalDateTime now = LocalDateTime.now();
+        List<SearchNotification> notifications = savedSearchRepository.findAllById(matched).stream()
+                .filter(it -> !notified.contains(it.getId()))
+                .filter(it -> !it.getUser().getId().equals(item.getOwner().getId()))
+                .map(it -> new SearchNotification(null, it, it.getUser(), item, now))
+                .collect(Collectors.toList());
+        if (!notifications.isEmpty()) {
+            notificationRepository.saveAll(notifications);
+            log.info("Вещь ID = {} подошла под {} сохраненных поисков", item.getId(), notifications.size());
+        }
+    }
+}
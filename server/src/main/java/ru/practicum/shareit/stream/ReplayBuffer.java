@@ -0,0 +1,59 @@
+package ru.practicum.shareit.stream;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Окно последних capacity событий потока для клиентов, которые переподключаются с заголовком Last-Event-ID.
+ * id событий растут. Если часть событий после Last-Event-ID уже вытеснена из окна или пришлась на время
+ * до первого события в окне (например, до перезапуска), восстановить пропущенное нельзя — after вернет пустой Optional.
+ **/
+public class ReplayBuffer {
+    private final int capacity;
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    /**Все события с id не больше этого значения вне окна. До первого события неизвестно, что было раньше.**/
+    private long lostUpTo = Long.MAX_VALUE;
+
+    public ReplayBuffer(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public synchronized void add(SseBroadcaster.Event event, Integer recipientId) {
+        if (lostUpTo == Long.MAX_VALUE) {
+            lostUpTo = event.getId() - 1;
+        }
+        entries.addLast(new Entry(event.getId(), event, recipientId));
+        if (entries.size() > capacity) {
+            lostUpTo = entries.removeFirst().id;
+        }
+    }
+
+    /**События после lastEventId для получателя recipientId (null — для всех получателей) в порядке id.**/
+    public synchronized Optional<List<SseBroadcaster.Event>> after(long lastEventId, Integer recipientId) {
+        if (lastEventId < lostUpTo) {
+            return Optional.empty();
+        }
+        List<SseBroadcaster.Event> missed = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.id > lastEventId && (recipientId == null || recipientId.equals(entry.recipientId))) {
+                missed.add(entry.event);
+            }
+        }
+        return Optional.of(missed);
+    }
+
+    private static class Entry {
+        private final long id;
+        private final SseBroadcaster.Event event;
+        private final Integer recipientId;
+
+        Entry(long id, SseBroadcaster.Event event, Integer recipientId) {
+            this.id = id;
+            this.event = event;
+            this.recipientId = recipientId;
+        }
+    }
+}
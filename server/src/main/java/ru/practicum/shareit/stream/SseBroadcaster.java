@@ -0,0 +1,256 @@
+package ru.practicum.shareit.stream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Рассылка событий подписчикам SSE, которая не блокирует публикующий поток.
+ * У каждого подписчика своя очередь на queueCapacity событий. Публикация только кладет событие в очереди,
+ * а отправляют его потоки рассылки, причем одному подписчику — не больше одного потока сразу.
+ * Если клиент читает медленнее, чем приходят события, его очередь переполняется и подписка закрывается:
+ * клиент переподключится, а остальные подписчики его не ждут. Эмиттер такой подписки завершает поток рассылки,
+ * а не публикующий поток: complete ждет ту же блокировку SseEmitter, что и зависшая отправка.
+ * Отправка одного события не должна длиться дольше writeTimeoutMillis: зависшую отправку (клиент не читает сокет)
+ * находит сторож, закрывает подписку и добавляет в пул запасной поток рассылки, чтобы зависшие клиенты
+ * не занимали все потоки. Сама зависшая запись заканчивается по таймауту записи контейнера, после чего
+ * ее поток завершает эмиттер и запасной поток убирается.
+ **/
+@Slf4j
+public class SseBroadcaster {
+    private final String name;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+    private final long writeTimeoutNanos;
+    private final int senderThreads;
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService watchdog;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    /**Потоки рассылки, зависшие в отправке: на каждый из них в пуле есть запасной поток.**/
+    private int stalledSenders;
+
+    public SseBroadcaster(String name, int queueCapacity, long timeoutMillis, int senderThreads, long writeTimeoutMillis) {
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeoutMillis;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+        this.senderThreads = senderThreads;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "sse-" + name + "-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-" + name + "-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, writeTimeoutMillis / 2);
+        watchdog.scheduleWithFixedDelay(this::detachStalled, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**Новая подписка. userId — получатель, по нему publish выбирает адресатов; может быть null.**/
+    public SseEmitter subscribe(Integer userId) {
+        return subscribe(userId, List.of());
+    }
+
+    /**Подписка, которая сначала получит backlog — пропущенные клиентом события, — а затем новые.**/
+    public SseEmitter subscribe(Integer userId, List<Event> backlog) {
+        return register(new SseEmitter(timeoutMillis), userId, backlog);
+    }
+
+    SseEmitter register(SseEmitter emitter, Integer userId, List<Event> backlog) {
+        Subscriber subscriber = new Subscriber(userId, emitter, new ArrayBlockingQueue<>(queueCapacity + backlog.size()));
+        subscriber.queue.addAll(backlog);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(error -> close(subscriber));
+        subscribers.add(subscriber);
+        if (!backlog.isEmpty()) {
+            schedule(subscriber);
+        }
+        return emitter;
+    }
+
+    /**Ставит событие в очереди подписчиков, для чьих userId audience истинно.**/
+    public void publish(Event event, Predicate<Integer> audience) {
+        for (Subscriber subscriber : subscribers) {
+            if (!audience.test(subscriber.userId)) {
+                continue;
+            }
+            if (!subscriber.queue.offer(event)) {
+                log.info("Подписчик потока {} не успевает читать события, подписка закрыта", name);
+                detach(subscriber);
+                continue;
+            }
+            schedule(subscriber);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    public void close() {
+        for (Subscriber subscriber : subscribers) {
+            close(subscriber);
+        }
+        senders.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Event event;
+            while (!subscriber.closed && (event = subscriber.queue.poll()) != null) {
+                send(subscriber, event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            detach(subscriber);
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (subscriber.closed) {
+            subscriber.emitter.complete();
+        } else if (!subscriber.queue.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    /**Отправка с дедлайном; если сторож успел признать ее зависшей, запасной поток убирается, когда запись вернулась.**/
+    private void send(Subscriber subscriber, Event event) throws IOException {
+        synchronized (subscriber) {
+            subscriber.sendDeadline = System.nanoTime() + writeTimeoutNanos;
+            subscriber.sending = true;
+        }
+        try {
+            subscriber.emitter.send(event.toSse());
+        } finally {
+            boolean stalled;
+            synchronized (subscriber) {
+                subscriber.sending = false;
+                stalled = subscriber.stalled;
+            }
+            if (stalled) {
+                resizeSenders(-1);
+            }
+        }
+    }
+
+    /**
+     * Сторож: закрывает подписки, отправка которым идет дольше дедлайна. Эмиттер завершит поток рассылки
+     * после возврата отправки, см. detach.
+     **/
+    private void detachStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            synchronized (subscriber) {
+                if (!subscriber.sending || subscriber.stalled || now - subscriber.sendDeadline < 0) {
+                    continue;
+                }
+                subscriber.stalled = true;
+                resizeSenders(1);
+            }
+            detach(subscriber);
+            log.info("Подписчик потока {} не принимает данные дольше дедлайна записи, подписка закрыта", name);
+        }
+    }
+
+    private void resizeSenders(int delta) {
+        synchronized (senders) {
+            stalledSenders += delta;
+            int size = senderThreads + stalledSenders;
+            if (delta > 0) {
+                senders.setMaximumPoolSize(size);
+                senders.setCorePoolSize(size);
+            } else {
+                senders.setCorePoolSize(size);
+                senders.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    /**
+     * Закрывает подписку, не трогая эмиттер: send и complete у SseEmitter синхронизированы, и вызывающий поток
+     * повис бы на зависшей отправке. Эмиттер завершает drain — текущий, когда отправка вернется, или новый.
+     **/
+    private void detach(Subscriber subscriber) {
+        subscriber.closed = true;
+        if (subscribers.remove(subscriber)) {
+            subscriber.queue.clear();
+            schedule(subscriber);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        if (subscribers.remove(subscriber)) {
+            subscriber.queue.clear();
+            subscriber.emitter.complete();
+        }
+    }
+
+    /**Событие потока: id передается клиенту в поле id, name — в поле event, data сериализуется в JSON.**/
+    public static class Event {
+        private final long id;
+        private final String name;
+        private final Object data;
+
+        public Event(long id, String name, Object data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**Построитель SseEmitter копит текст при сборке, поэтому для каждой отправки нужен новый.**/
+        SseEmitter.SseEventBuilder toSse() {
+            return SseEmitter.event().id(String.valueOf(id)).name(name).data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private static class Subscriber {
+        private final Integer userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Event> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        /**Состояние текущей отправки, под монитором подписчика.**/
+        private boolean sending;
+        private long sendDeadline;
+        private boolean stalled;
+
+        Subscriber(Integer userId, SseEmitter emitter, BlockingQueue<Event> queue) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
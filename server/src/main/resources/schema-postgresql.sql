@@ -0,0 +1,37 @@
+-- Выполняется только на PostgreSQL после schema.sql (spring.sql.init.platform=postgresql).
+-- Подтвержденные бронирования одной вещи не могут пересекаться: гарантия на уровне базы,
+-- корректная при любом числе экземпляров сервера. Интервал полуоткрытый [start_date, end_date).
+-- Для btree_gist пользователю базы нужно право на create extension либо расширение, установленное заранее.
+create extension if not exists btree_gist;
+
+alter table bookings
+    add column if not exists period tsrange generated always as (tsrange(start_date, end_date)) stored;
+
+comment on column bookings.period is 'Интервал бронирования для ограничения исключения';
+
+alter table bookings
+    add constraint bookings_approved_no_overlap
+        exclude using gist (item_id with =, period with &&) where (status = 'APPROVED');
+
+-- Полнотекстовый поиск по вещам: название весомее описания. Конфигурация russian
+-- стеммит русские слова, а латиницу обрабатывает английским стеммером.
+alter table items
+    add column if not exists search_vector tsvector generated always as (
+        setweight(to_tsvector('russian', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('russian', coalesce(description, '')), 'B')
+    ) stored;
+
+comment on column items.search_vector is 'Поисковый вектор названия и описания вещи';
+
+create index if not exists items_search_idx
+    on items using gin (search_vector);
+
+-- Поиск по подстроке и нечеткий поиск слов: триграммные индексы обслуживают ILIKE '%...%' и оператор <%.
+-- Порог похожести — shareit.search.similarity-threshold, выставляется каждому соединению пула.
+create extension if not exists pg_trgm;
+
+create index if not exists items_name_trgm_idx
+    on items using gin (name gin_trgm_ops);
+
+create index if not exists items_description_trgm_idx
+    on items using gin (description gin_trgm_ops);
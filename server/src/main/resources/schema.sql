@@ -1,4 +1,6 @@
 -- users : id , name , email
+drop table if exists search_notifications;
+drop table if exists saved_searches;
 drop table if exists bookings;
 drop table if exists comments;
 drop table if exists items;
@@ -25,6 +27,9 @@ create table if not exists requests
     requestor_id BIGINT not null references users(id)
 );
 
+create index if not exists requests_created_idx
+    on requests (created desc, id);
+
 comment on table requests is 'Запросы на потенциальное бронирование вещи';
 comment on column requests.id is 'Идентификатор запроса';
 comment on column requests.created is 'Дата создания запроса';
@@ -48,6 +53,9 @@ create table if not exists items
 create index if not exists item_idx
     on items (name, description, owner_id);
 
+create index if not exists items_owner_idx
+    on items (owner_id, id);
+
 comment on table items is 'Вещи пользователей';
 comment on column items.id is 'Идентификатор вещи';
 comment on column items.name is 'Название вещи';
@@ -74,6 +82,18 @@ create table if not exists bookings
 create index if not exists bookings_idx
     on bookings (start_date, end_date, item_id, booker_id);
 
+create index if not exists bookings_booker_idx
+    on bookings (booker_id, start_date desc, id);
+
+create index if not exists bookings_item_idx
+    on bookings (item_id, start_date desc, id);
+
+create index if not exists bookings_item_status_idx
+    on bookings (item_id, status, start_date, end_date);
+
+create index if not exists bookings_item_status_end_idx
+    on bookings (item_id, status, end_date);
+
 comment on table bookings is 'Бронирования';
 comment on column bookings.id is 'Идентификатор бронирования';
 comment on column bookings.start_date is 'Дата начала аренды';
@@ -102,4 +122,44 @@ comment on column comments.id is 'Идентификатор отзыва';
 comment on column comments.text is 'Описание запроса';
 comment on column comments.item_id is 'Идентификатор пользователя, отправляющего запрос';
 comment on column comments.author_id is 'Идентификатор пользователя, отправляющего запрос';
-comment on column comments.created is 'Дата создания комментария';
\ No newline at end of file
+comment on column comments.created is 'Дата создания комментария';
+
+--saved_searches : id , user_id , text , created
+create table if not exists saved_searches
+(
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT not null references users(id),
+    text varchar not null,
+    created timestamp not null default now()
+);
+
+create index if not exists saved_searches_user_idx
+    on saved_searches (user_id, id);
+
+comment on table saved_searches is 'Сохраненные поиски вещей: пользователь получает уведомление о новых подходящих вещах';
+comment on column saved_searches.id is 'Идентификатор сохраненного поиска';
+comment on column saved_searches.user_id is 'Идентификатор пользователя, сохранившего поиск';
+comment on column saved_searches.text is 'Текст поискового запроса';
+comment on column saved_searches.created is 'Дата сохранения поиска';
+
+--search_notifications : id , saved_search_id , user_id , item_id , created
+create table if not exists search_notifications
+(
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    saved_search_id BIGINT not null references saved_searches(id) on delete cascade,
+    user_id BIGINT not null references users(id),
+    item_id BIGINT not null references items(id),
+    created timestamp not null default now(),
+
+    unique (saved_search_id, item_id)
+);
+
+create index if not exists search_notifications_user_created_idx
+    on search_notifications (user_id, created desc, id);
+
+comment on table search_notifications is 'Вещи, подошедшие под сохраненные поиски';
+comment on column search_notifications.id is 'Идентификатор уведомления';
+comment on column search_notifications.saved_search_id is 'Идентификатор сохраненного поиска';
+comment on column search_notifications.user_id is 'Идентификатор пользователя, сохранившего поиск';
+comment on column search_notifications.item_id is 'Идентификатор подошедшей вещи';
+comment on column search_notifications.created is 'Дата, когда вещь подошла под поиск';
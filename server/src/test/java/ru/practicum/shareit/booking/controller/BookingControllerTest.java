@@ -8,13 +8,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.enums.State;
 import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.event.BookingEventStream;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 
 import java.nio.charset.StandardCharsets;
@@ -23,8 +26,10 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -41,6 +46,9 @@ class BookingControllerTest {
     @MockBean
     private BookingService service;
 
+    @MockBean
+    private BookingEventStream eventStream;
+
     @SneakyThrows
     @Test
     void create_whenAllDataPresent_thenCreated() {
@@ -154,7 +162,7 @@ class BookingControllerTest {
 
         Booking booking = new Booking(bookingId, startDt, endDt, existingItem, booker, Status.APPROVED, created);
 
-        when(service.getAllUserBookings(ownerId, State.ALL, 0, 10)).thenReturn(List.of(booking));
+        when(service.getAllUserBookings(ownerId, State.ALL, 0, 10, null)).thenReturn(List.of(booking));
 
         String actual = mockMvc.perform(get("/bookings?state=ALL")
                         .header(OWNER_ID_HEADER, ownerId)
@@ -167,7 +175,19 @@ class BookingControllerTest {
                 .getContentAsString();
 
         assertEquals(objectMapper.writeValueAsString(List.of(booking)), actual);
-        verify(service).getAllUserBookings(ownerId, State.ALL, 0, 10);
+        verify(service).getAllUserBookings(ownerId, State.ALL, 0, 10, null);
+    }
+
+    @SneakyThrows
+    @Test
+    void getUserBookings_whenCursorHasNoTime_thenBadRequest() {
+        mockMvc.perform(get("/bookings")
+                        .header(OWNER_ID_HEADER, 1)
+                        .param("cursor", PageCursor.of(5).encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
     }
 
     @SneakyThrows
@@ -186,7 +206,7 @@ class BookingControllerTest {
 
         Booking booking = new Booking(bookingId, startDt, endDt, existingItem, booker, Status.APPROVED, created);
 
-        when(service.getAllUserItemBookings(ownerId, State.ALL, 0, 10)).thenReturn(List.of(booking));
+        when(service.getAllUserItemBookings(ownerId, State.ALL, 0, 10, null)).thenReturn(List.of(booking));
 
         String actual = mockMvc.perform(get("/bookings/owner?state=ALL")
                         .header(OWNER_ID_HEADER, ownerId)
@@ -199,6 +219,21 @@ class BookingControllerTest {
                 .getContentAsString();
 
         assertEquals(objectMapper.writeValueAsString(List.of(booking)), actual);
-        verify(service).getAllUserItemBookings(ownerId, State.ALL, 0, 10);
+        verify(service).getAllUserItemBookings(ownerId, State.ALL, 0, 10, null);
+    }
+
+    @SneakyThrows
+    @Test
+    void stream_whenReconnectedWithLastEventId_thenEventStreamIsOpened() {
+        Integer userId = 1;
+        when(eventStream.subscribe(userId, 42L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/bookings/stream")
+                        .header(OWNER_ID_HEADER, userId)
+                        .header("Last-Event-ID", 42)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(eventStream).subscribe(userId, 42L);
     }
-}
\ No newline at end of file
+}
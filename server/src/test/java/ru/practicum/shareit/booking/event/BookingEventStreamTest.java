@@ -0,0 +1,99 @@
+package ru.practicum.shareit.booking.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.stream.SseBroadcaster;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class BookingEventStreamTest {
+    private final BookingEventStream stream = new BookingEventStream(16, 60_000, 1, 100, 60_000);
+    private final SseBroadcaster broadcaster = mock(SseBroadcaster.class);
+
+    private final User owner = new User(1, "owner", "owner@mail.ru");
+    private final User booker = new User(2, "booker", "booker@mail.ru");
+    private final Item item = new Item(3, "Дрель", "Ударная", true, owner, null);
+    private final LocalDateTime start = LocalDateTime.of(2030, 1, 10, 10, 0);
+
+    @BeforeEach
+    void setUp() {
+        stream.close();
+        ReflectionTestUtils.setField(stream, "broadcaster", broadcaster);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onBookingChanged_whenBookingIsCreatedThenApproved_thenOwnerAndBookerAreNotified() {
+        ArgumentCaptor<SseBroadcaster.Event> events = ArgumentCaptor.forClass(SseBroadcaster.Event.class);
+        ArgumentCaptor<Predicate<Integer>> audiences = ArgumentCaptor.forClass(Predicate.class);
+
+        stream.onBookingChanged(new BookingChangedEvent(booking(Status.WAITING)));
+        stream.onBookingChanged(new BookingChangedEvent(booking(Status.APPROVED)));
+
+        verify(broadcaster, times(2)).publish(events.capture(), audiences.capture());
+        assertEquals(BookingEventStream.CREATED_EVENT, events.getAllValues().get(0).getName());
+        assertEquals(BookingEventStream.STATUS_EVENT, events.getAllValues().get(1).getName());
+        assertEquals(events.getAllValues().get(0).getId() + 1, events.getAllValues().get(1).getId());
+
+        Predicate<Integer> toOwner = audiences.getAllValues().get(0);
+        assertTrue(toOwner.test(owner.getId()));
+        assertFalse(toOwner.test(booker.getId()));
+        assertTrue(toOwner.test(null));
+        Predicate<Integer> toBooker = audiences.getAllValues().get(1);
+        assertTrue(toBooker.test(booker.getId()));
+        assertFalse(toBooker.test(owner.getId()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void subscribe_whenClientReconnects_thenMissedEventsOrResetAreSentFirst() {
+        ArgumentCaptor<SseBroadcaster.Event> events = ArgumentCaptor.forClass(SseBroadcaster.Event.class);
+        stream.onBookingChanged(new BookingChangedEvent(booking(Status.WAITING)));
+        stream.onBookingChanged(new BookingChangedEvent(booking(Status.REJECTED)));
+        verify(broadcaster, times(2)).publish(events.capture(), any(Predicate.class));
+        SseBroadcaster.Event created = events.getAllValues().get(0);
+        SseBroadcaster.Event rejected = events.getAllValues().get(1);
+
+        stream.subscribe(booker.getId(), created.getId() - 1);
+        verify(broadcaster).subscribe(booker.getId(), List.of(rejected));
+
+        stream.subscribe(owner.getId(), created.getId() - 1);
+        verify(broadcaster).subscribe(owner.getId(), List.of(created));
+
+        ArgumentCaptor<List<SseBroadcaster.Event>> backlog = ArgumentCaptor.forClass(List.class);
+        stream.subscribe(3, created.getId() - 10);
+        verify(broadcaster).subscribe(eq(3), backlog.capture());
+        assertEquals(1, backlog.getValue().size());
+        assertEquals(BookingEventStream.RESET_EVENT, backlog.getValue().get(0).getName());
+
+        stream.subscribe(owner.getId(), null);
+        verify(broadcaster).subscribe(owner.getId());
+    }
+
+    private Booking booking(Status status) {
+        return new Booking(5, start, start.plusDays(1), item, booker, status, LocalDateTime.now());
+    }
+}
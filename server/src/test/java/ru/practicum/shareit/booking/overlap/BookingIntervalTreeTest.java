@@ -0,0 +1,92 @@
+package ru.practicum.shareit.booking.overlap;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingIntervalTreeTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void findOverlapping_whenIntervalsTouch_thenTheyDoNotOverlap() {
+        BookingIntervalTree tree = new BookingIntervalTree();
+        tree.add(1, BASE, BASE.plusDays(2));
+
+        assertNull(tree.findOverlapping(BASE.plusDays(2), BASE.plusDays(3)));
+        assertNull(tree.findOverlapping(BASE.minusDays(1), BASE));
+        assertEquals(1, tree.findOverlapping(BASE.plusDays(1), BASE.plusDays(3)));
+    }
+
+    @Test
+    void findOverlapping_whenLongIntervalIsInLeftSubtree_thenItIsFound() {
+        BookingIntervalTree tree = new BookingIntervalTree();
+        tree.add(1, BASE, BASE.plusDays(100));
+        for (int i = 2; i <= 20; i++) {
+            tree.add(i, BASE.plusDays(i * 10), BASE.plusDays(i * 10 + 1));
+        }
+
+        assertEquals(1, tree.findOverlapping(BASE.plusDays(50), BASE.plusDays(51)));
+    }
+
+    @Test
+    void remove_whenBookingIsRemoved_thenItIsNoLongerFound() {
+        BookingIntervalTree tree = new BookingIntervalTree();
+        tree.add(1, BASE, BASE.plusDays(2));
+        tree.add(2, BASE.plusDays(5), BASE.plusDays(6));
+
+        tree.remove(1, BASE);
+
+        assertEquals(1, tree.size());
+        assertNull(tree.findOverlapping(BASE, BASE.plusDays(2)));
+        assertEquals(2, tree.findOverlapping(BASE, BASE.plusDays(10)));
+    }
+
+    @Test
+    void findOverlapping_whenRandomIntervalsAreAddedAndRemoved_thenResultMatchesLinearScan() {
+        Random random = new Random(42);
+        BookingIntervalTree tree = new BookingIntervalTree();
+        List<LocalDateTime[]> intervals = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            LocalDateTime start = BASE.plusHours(random.nextInt(10_000));
+            intervals.add(new LocalDateTime[]{start, start.plusHours(1 + random.nextInt(100))});
+            tree.add(i, intervals.get(i)[0], intervals.get(i)[1]);
+        }
+        for (int i = 0; i < 500; i += 2) {
+            tree.remove(i, intervals.get(i)[0]);
+        }
+
+        for (int q = 0; q < 1000; q++) {
+            LocalDateTime start = BASE.plusHours(random.nextInt(10_000));
+            LocalDateTime end = start.plusHours(1 + random.nextInt(50));
+            boolean expected = false;
+            for (int i = 1; i < 500; i += 2) {
+                expected |= intervals.get(i)[0].isBefore(end) && start.isBefore(intervals.get(i)[1]);
+            }
+            Integer found = tree.findOverlapping(start, end);
+            assertEquals(expected, found != null);
+            if (found != null) {
+                assertEquals(1, found % 2);
+            }
+        }
+        assertEquals(250, tree.size());
+    }
+
+    @Test
+    void forEachOverlapping_whenRangeIsQueried_thenIntervalsAreVisitedInStartOrder() {
+        BookingIntervalTree tree = new BookingIntervalTree();
+        tree.add(3, BASE.plusDays(6), BASE.plusDays(7));
+        tree.add(1, BASE, BASE.plusDays(2));
+        tree.add(2, BASE.plusDays(3), BASE.plusDays(4));
+        tree.add(4, BASE.plusDays(9), BASE.plusDays(10));
+
+        List<LocalDateTime> starts = new ArrayList<>();
+        tree.forEachOverlapping(BASE.plusDays(1), BASE.plusDays(7), (start, end) -> starts.add(start));
+
+        assertEquals(List.of(BASE, BASE.plusDays(3), BASE.plusDays(6)), starts);
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking.overlap;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BookingOverlapIndexTest {
+    private static final LocalDateTime BASE = LocalDateTime.now().plusDays(10);
+
+    private final BookingRepository repository = mock(BookingRepository.class);
+
+    @Test
+    void hasOverlapping_whenMoreItemsThanLimitAreQueried_thenLeastRecentlyUsedTreeIsReloaded() {
+        BookingOverlapIndex index = new BookingOverlapIndex(repository, 2, 60);
+        List<Object[]> busy = new ArrayList<>();
+        busy.add(new Object[]{1, BASE, BASE.plusDays(1)});
+        when(repository.findActiveIntervalsOfItem(eq(1), any(), any())).thenReturn(busy);
+
+        assertTrue(index.hasOverlapping(1, BASE, BASE.plusHours(1)));
+        index.hasOverlapping(2, BASE, BASE.plusHours(1));
+        index.hasOverlapping(1, BASE, BASE.plusHours(1));
+        verify(repository, times(1)).findActiveIntervalsOfItem(eq(1), any(), any());
+
+        index.hasOverlapping(3, BASE, BASE.plusHours(1));
+        assertTrue(index.hasOverlapping(1, BASE, BASE.plusHours(1)));
+        verify(repository, times(1)).findActiveIntervalsOfItem(eq(1), any(), any());
+
+        index.hasOverlapping(2, BASE, BASE.plusHours(1));
+        verify(repository, times(2)).findActiveIntervalsOfItem(eq(2), any(), any());
+    }
+
+    @Test
+    void add_whenBookingHasEnded_thenItIsNotIndexed() {
+        BookingOverlapIndex index = new BookingOverlapIndex(repository, 10, 60);
+        LocalDateTime now = LocalDateTime.now();
+        index.hasOverlapping(1, BASE, BASE.plusHours(1));
+
+        index.onBookingChanged(new BookingChangedEvent(booking(1, now.minusDays(2), now.minusDays(1), Status.WAITING)));
+        index.onBookingChanged(new BookingChangedEvent(booking(2, BASE, BASE.plusDays(1), Status.WAITING)));
+
+        assertFalse(index.hasOverlapping(1, now.minusDays(3), now.minusHours(1)));
+        assertTrue(index.hasOverlapping(1, BASE, BASE.plusHours(1)));
+        verify(repository, times(1)).findActiveIntervalsOfItem(eq(1), any(), any());
+    }
+
+    @Test
+    void onBookingChanged_whenBookingIsRejected_thenItsIntervalIsRemoved() {
+        BookingOverlapIndex index = new BookingOverlapIndex(repository, 10, 60);
+        index.hasOverlapping(1, BASE, BASE.plusHours(1));
+        index.onBookingChanged(new BookingChangedEvent(booking(2, BASE, BASE.plusDays(1), Status.WAITING)));
+        assertTrue(index.hasOverlapping(1, BASE, BASE.plusHours(1)));
+
+        index.onBookingChanged(new BookingChangedEvent(booking(2, BASE, BASE.plusDays(1), Status.REJECTED)));
+
+        assertFalse(index.hasOverlapping(1, BASE, BASE.plusHours(1)));
+    }
+
+    @Test
+    void busyIntervals_whenBookingsTouchOrOverlap_thenTheyAreMergedAndClippedToRange() {
+        BookingOverlapIndex index = new BookingOverlapIndex(repository, 10, 60);
+        List<Object[]> busy = new ArrayList<>();
+        busy.add(new Object[]{1, BASE.minusDays(1), BASE.plusDays(1)});
+        busy.add(new Object[]{2, BASE.plusDays(1), BASE.plusDays(2)});
+        busy.add(new Object[]{3, BASE.plusDays(5), BASE.plusDays(6)});
+        busy.add(new Object[]{4, BASE.plusDays(5), BASE.plusHours(125)});
+        busy.add(new Object[]{5, BASE.plusDays(9), BASE.plusDays(11)});
+        when(repository.findActiveIntervalsOfItem(eq(1), any(), any())).thenReturn(busy);
+
+        assertEquals(List.of(
+                new BusyInterval(BASE, BASE.plusDays(2)),
+                new BusyInterval(BASE.plusDays(5), BASE.plusDays(6)),
+                new BusyInterval(BASE.plusDays(9), BASE.plusDays(10))), index.busyIntervals(1, BASE, BASE.plusDays(10)));
+
+        index.onBookingChanged(new BookingChangedEvent(booking(6, BASE.plusDays(3), BASE.plusDays(4), Status.WAITING)));
+        assertEquals(List.of(new BusyInterval(BASE.plusDays(3), BASE.plusDays(4))),
+                index.busyIntervals(1, BASE.plusDays(2), BASE.plusDays(5)));
+        verify(repository, times(1)).findActiveIntervalsOfItem(eq(1), any(), any());
+    }
+
+    private static Booking booking(Integer id, LocalDateTime start, LocalDateTime end, Status status) {
+        User owner = new User(1, "owner", "owner@mail.ru");
+        Item item = new Item(1, "Дрель", "Ударная", true, owner, null);
+        return new Booking(id, start, end, item, owner, status, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.PostgresRepositoryTest;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingRepositoryPostgresTest extends PostgresRepositoryTest {
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        booker = userRepository.save(new User(null, "booker", "booker@mail.ru"));
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.ru"));
+        item = itemRepository.save(new Item(null, "Дрель", "Ударная", true, owner, null));
+    }
+
+    @Test
+    void saveAndFlush_whenApprovedBookingsOverlap_thenExclusionConstraintRejectsTheSecond() {
+        bookingRepository.saveAndFlush(new Booking(null, now.plusDays(1), now.plusDays(3), item, booker, Status.APPROVED, now));
+        bookingRepository.saveAndFlush(new Booking(null, now.plusDays(3), now.plusDays(4), item, booker, Status.APPROVED, now));
+        bookingRepository.saveAndFlush(new Booking(null, now.plusDays(2), now.plusDays(4), item, booker, Status.WAITING, now));
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class, () ->
+                bookingRepository.saveAndFlush(new Booking(null, now.plusDays(2), now.plusDays(5), item, booker, Status.APPROVED, now)));
+
+        Throwable cause = e.getCause();
+        while (cause != null && !(cause instanceof SQLException)) {
+            cause = cause.getCause();
+        }
+        assertNotNull(cause);
+        assertEquals("23P01", ((SQLException) cause).getSQLState());
+    }
+
+    @Test
+    void findLastAndNextBookingsOfItem_whenBothStatusesArePresent_thenClosestOfThemIsReturned() {
+        Booking last = bookingRepository.save(new Booking(null, now.minusDays(3), now.minusDays(2), item, booker, Status.WAITING, now));
+        bookingRepository.save(new Booking(null, now.minusDays(10), now.minusDays(9), item, booker, Status.APPROVED, now));
+        Booking next = bookingRepository.save(new Booking(null, now.plusDays(2), now.plusDays(3), item, booker, Status.APPROVED, now));
+        bookingRepository.save(new Booking(null, now.plusDays(5), now.plusDays(6), item, booker, Status.WAITING, now));
+
+        List<Object[]> single = bookingRepository.findLastAndNextBookingsOfItem(item.getId(), now);
+        List<Object[]> batch = bookingRepository.findLastAndNextBookingsOfItems(List.of(item.getId()), now);
+
+        for (List<Object[]> rows : List.of(single, batch)) {
+            assertEquals(2, rows.size());
+            for (Object[] row : rows) {
+                int expectedId = Boolean.TRUE.equals(row[3]) ? last.getId() : next.getId();
+                assertEquals(expectedId, ((Number) row[1]).intValue());
+            }
+        }
+    }
+}
@@ -5,11 +5,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
-import ru.practicum.shareit.booking.comparator.BookingComparator;
 import ru.practicum.shareit.booking.enums.Status;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
@@ -17,7 +17,6 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.time.Month;
-import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,7 +37,7 @@ class BookingRepositoryTest {
     private BookingRepository bookingRepository;
 
     @Test
-    void getAllUserItems_whenSeveralItemsHaveBooking_ThenAllAreReturned() {
+    void findOwnerBookings_whenSeveralItemsHaveBooking_ThenAllAreReturned() {
         PageRequest pageRequest = PageRequest.of(0, 10);
         LocalDateTime startTime1 = LocalDateTime.of(2023, Month.JANUARY, 10, 10, 10);
         LocalDateTime endTime1 = LocalDateTime.of(2030, Month.JANUARY, 10, 10, 10);
@@ -61,12 +60,176 @@ class BookingRepositoryTest {
         Booking booking1 = bookingRepository.save(new Booking(null, startTime1, endTime1, item1, booker, Status.WAITING, created1));
         Booking booking2 = bookingRepository.save(new Booking(null, startTime2, endTime2, item2, booker, Status.WAITING, created2));
 
-        List<Booking> bookingListExpected = Arrays.asList(booking1, booking2);
-        List<Booking> bookingListActual = bookingRepository.getAllUserItems(booker, pageRequest);
+        List<Booking> bookingListActual = bookingRepository.findOwnerBookings(booker, PageCursor.FIRST.getTime(), PageCursor.FIRST.getId(), pageRequest);
 
-        bookingListExpected.sort(new BookingComparator());
-        bookingListActual.sort(new BookingComparator());
-        assertEquals(bookingListActual, bookingListExpected);
+        assertEquals(List.of(booking1, booking2), bookingListActual);
+    }
+
+    @Test
+    void findBookerBookings_whenStateQueriesAreUsed_thenOnlyMatchingPageIsReturned() {
+        LocalDateTime now = LocalDateTime.now();
+
+        User booker = userRepository.save(new User(null, "test", "test@mail.ru"));
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.ru"));
+        Item item = itemRepository.save(new Item(null, "itemName", "itemDesc", true, owner, null));
+
+        Booking past = bookingRepository.save(new Booking(null, now.minusDays(10), now.minusDays(9), item, booker, Status.APPROVED, now));
+        Booking pastRejected = bookingRepository.save(new Booking(null, now.minusDays(8), now.minusDays(7), item, booker, Status.REJECTED, now));
+        Booking current = bookingRepository.save(new Booking(null, now.minusDays(1), now.plusDays(1), item, booker, Status.APPROVED, now));
+        Booking future = bookingRepository.save(new Booking(null, now.plusDays(5), now.plusDays(6), item, booker, Status.WAITING, now));
+        Booking futureSameStart = bookingRepository.save(new Booking(null, now.plusDays(5), now.plusDays(7), item, booker, Status.WAITING, now));
+
+        List<Status> statuses = List.of(Status.APPROVED, Status.WAITING);
+
+        assertEquals(List.of(future, futureSameStart, current, pastRejected, past),
+                bookingRepository.findBookerBookings(booker, PageCursor.FIRST.getTime(), PageCursor.FIRST.getId(), PageRequest.of(0, 10)));
+        assertEquals(List.of(future, futureSameStart),
+                bookingRepository.findBookerBookings(booker, PageCursor.FIRST.getTime(), PageCursor.FIRST.getId(), PageRequest.of(0, 2)));
+        assertEquals(List.of(past),
+                bookingRepository.findBookerPastBookings(booker, now, statuses, PageCursor.FIRST.getTime(), PageCursor.FIRST.getId(), PageRequest.of(0, 10)));
+        assertEquals(List.of(current),
+                bookingRepository.findBookerCurrentBookings(booker, now, PageCursor.FIRST.getTime(), PageCursor.FIRST.getId(), PageRequest.of(0, 10)));
+        assertEquals(List.of(futureSameStart),
+                bookingRepository.findBookerFutureBookings(booker, now, statuses, PageCursor.FIRST.getTime(), PageCursor.FIRST.getId(), PageRequest.of(1, 1)));
+        assertEquals(List.of(pastRejected),
+                bookingRepository.findBookerBookingsByStatus(booker, Status.REJECTED, PageCursor.FIRST.getTime(), PageCursor.FIRST.getId(), PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void findOwnerFutureBookings_whenPageIsRequested_thenStateIsFilteredBeforePaging() {
+        LocalDateTime now = LocalDateTime.now();
+
+        User booker = userRepository.save(new User(null, "test", "test@mail.ru"));
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.ru"));
+        Item item = itemRepository.save(new Item(null, "itemName", "itemDesc", true, owner, null));
+        Item otherItem = itemRepository.save(new Item(null, "other", "otherDesc", true, booker, null));
+
+        bookingRepository.save(new Booking(null, now.plusDays(30), now.plusDays(31), otherItem, owner, Status.WAITING, now));
+        for (int i = 1; i <= 3; i++) {
+            bookingRepository.save(new Booking(null, now.minusDays(i + 1), now.minusDays(i), item, booker, Status.APPROVED, now));
+        }
+        Booking future1 = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker, Status.WAITING, now));
+        Booking future2 = bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4), item, booker, Status.APPROVED, now));
+        bookingRepository.save(new Booking(null, now.plusDays(5), now.plusDays(6), item, booker, Status.REJECTED, now));
+
+        List<Booking> actual = bookingRepository.findOwnerFutureBookings(owner, now,
+                List.of(Status.APPROVED, Status.WAITING), PageCursor.FIRST.getTime(), PageCursor.FIRST.getId(), PageRequest.of(0, 2));
+
+        assertEquals(List.of(future2, future1), actual);
+    }
+
+    @Test
+    void findBookerBookings_whenCursorIsPassed_thenPageStartsAfterIt() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+
+        User booker = userRepository.save(new User(null, "test", "test@mail.ru"));
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.ru"));
+        Item item = itemRepository.save(new Item(null, "itemName", "itemDesc", true, owner, null));
+
+        Booking first = bookingRepository.save(new Booking(null, now.plusDays(5), now.plusDays(6), item, booker, Status.WAITING, now));
+        Booking sameStart = bookingRepository.save(new Booking(null, now.plusDays(5), now.plusDays(7), item, booker, Status.WAITING, now));
+        Booking last = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker, Status.WAITING, now));
+
+        PageCursor cursor = PageCursor.decodeTimed(PageCursor.of(first.getStart(), first.getId()).encode());
+        List<Booking> actual = bookingRepository.findBookerBookings(booker, cursor.getTime(), cursor.getId(), PageRequest.of(0, 10));
+
+        assertEquals(List.of(sameStart, last), actual);
+    }
+
+    @Test
+    void findLastAndNextBookingsOfItems_whenItemsHaveHistory_thenOnlyClosestBookingsAreReturned() {
+        LocalDateTime now = LocalDateTime.now();
+
+        User booker = userRepository.save(new User(null, "test", "test@mail.ru"));
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.ru"));
+        Item item1 = itemRepository.save(new Item(null, "itemName", "itemDesc", true, owner, null));
+        Item item2 = itemRepository.save(new Item(null, "itemName2", "itemDesc2", true, owner, null));
+
+        bookingRepository.save(new Booking(null, now.minusDays(10), now.minusDays(9), item1, booker, Status.APPROVED, now));
+        Booking last1 = bookingRepository.save(new Booking(null, now.minusDays(3), now.minusDays(2), item1, booker, Status.APPROVED, now));
+        bookingRepository.save(new Booking(null, now.minusDays(1), now.plusDays(1), item1, booker, Status.REJECTED, now));
+        Booking next1 = bookingRepository.save(new Booking(null, now.plusDays(2), now.plusDays(3), item1, booker, Status.WAITING, now));
+        bookingRepository.save(new Booking(null, now.plusDays(5), now.plusDays(6), item1, booker, Status.APPROVED, now));
+        Booking next2 = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item2, booker, Status.APPROVED, now));
+
+        List<Object[]> rows = bookingRepository.findLastAndNextBookingsOfItems(List.of(item1.getId(), item2.getId()), now);
+
+        assertEquals(3, rows.size());
+        for (Object[] row : rows) {
+            int itemId = ((Number) row[0]).intValue();
+            int bookingId = ((Number) row[1]).intValue();
+            assertEquals(booker.getId(), ((Number) row[2]).intValue());
+            if (itemId == item2.getId()) {
+                assertEquals(next2.getId(), bookingId);
+                assertEquals(false, row[3]);
+            } else if (Boolean.TRUE.equals(row[3])) {
+                assertEquals(last1.getId(), bookingId);
+            } else {
+                assertEquals(next1.getId(), bookingId);
+            }
+        }
+    }
+
+    @Test
+    void findLastAndNextBookingsOfItem_whenBothStatusesArePresent_thenClosestOfThemIsReturned() {
+        LocalDateTime now = LocalDateTime.now();
+
+        User booker = userRepository.save(new User(null, "test", "test@mail.ru"));
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.ru"));
+        Item item = itemRepository.save(new Item(null, "itemName", "itemDesc", true, owner, null));
+
+        bookingRepository.save(new Booking(null, now.minusDays(10), now.minusDays(9), item, booker, Status.APPROVED, now));
+        Booking last = bookingRepository.save(new Booking(null, now.minusDays(3), now.minusDays(2), item, booker, Status.WAITING, now));
+        bookingRepository.save(new Booking(null, now.minusDays(1), now.plusDays(1), item, booker, Status.REJECTED, now));
+        Booking next = bookingRepository.save(new Booking(null, now.plusDays(2), now.plusDays(3), item, booker, Status.APPROVED, now));
+        bookingRepository.save(new Booking(null, now.plusDays(5), now.plusDays(6), item, booker, Status.WAITING, now));
+
+        List<Object[]> rows = bookingRepository.findLastAndNextBookingsOfItem(item.getId(), now);
+
+        assertEquals(2, rows.size());
+        for (Object[] row : rows) {
+            assertEquals(item.getId(), ((Number) row[0]).intValue());
+            int expectedId = Boolean.TRUE.equals(row[3]) ? last.getId() : next.getId();
+            assertEquals(expectedId, ((Number) row[1]).intValue());
+        }
+    }
+
+    @Test
+    void existsOverlappingBooking_whenOnlyRejectedOrAdjacentBookingsExist_thenFalseIsReturned() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+
+        User booker = userRepository.save(new User(null, "test", "test@mail.ru"));
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.ru"));
+        Item item = itemRepository.save(new Item(null, "itemName", "itemDesc", true, owner, null));
+
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(3), item, booker, Status.REJECTED, now));
+        bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(5), item, booker, Status.APPROVED, now));
+        List<Status> statuses = List.of(Status.APPROVED, Status.WAITING);
+
+        assertFalse(bookingRepository.existsOverlappingBooking(item.getId(), statuses, now.plusDays(1), now.plusDays(3)));
+        assertTrue(bookingRepository.existsOverlappingBooking(item.getId(), statuses, now.plusDays(2), now.plusDays(4)));
+        assertEquals(1, bookingRepository.findActiveIntervalsOfItem(item.getId(), statuses, now).size());
+    }
+
+    @Test
+    void countBookingsOfItemsBetween_whenRangeIsGiven_thenOnlyItsItemsAreCounted() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+
+        User booker = userRepository.save(new User(null, "test", "test@mail.ru"));
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.ru"));
+        Item first = itemRepository.save(new Item(null, "first", "itemDesc", true, owner, null));
+        Item second = itemRepository.save(new Item(null, "second", "itemDesc", true, owner, null));
+
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), first, booker, Status.APPROVED, now));
+        bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4), second, booker, Status.APPROVED, now));
+        bookingRepository.save(new Booking(null, now.plusDays(5), now.plusDays(6), second, booker, Status.APPROVED, now));
+        bookingRepository.save(new Booking(null, now.plusDays(7), now.plusDays(8), second, booker, Status.REJECTED, now));
+
+        List<Object[]> actual = bookingRepository.countBookingsOfItemsBetween(Status.APPROVED, first.getId(), second.getId());
+
+        assertEquals(1, actual.size());
+        assertEquals(second.getId(), actual.get(0)[0]);
+        assertEquals(2L, ((Number) actual.get(0)[1]).longValue());
     }
 
     @AfterEach
@@ -5,19 +5,27 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.enums.State;
 import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.overlap.BookingOverlapIndex;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
 import javax.validation.ValidationException;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.util.Arrays;
@@ -27,7 +35,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class BookingServiceImplTest {
@@ -41,6 +50,12 @@ class BookingServiceImplTest {
     @Mock
     private BookingRepository repository;
 
+    @Mock
+    private BookingOverlapIndex overlapIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private BookingServiceImpl service;
 
@@ -56,7 +71,7 @@ class BookingServiceImplTest {
         BookingDto bookingDto = new BookingDto(1, startDt, endDt);
 
         when(userService.getUser(userId)).thenReturn(booker);
-        when(itemService.getItem(bookingDto.getItemId())).thenReturn(existingItem);
+        when(itemService.getItemForUpdate(bookingDto.getItemId())).thenReturn(existingItem);
 
         Booking createdBooking = BookingMapper.toBooking(bookingDto, booker, existingItem, Status.WAITING);
 
@@ -64,6 +79,67 @@ class BookingServiceImplTest {
 
         Booking actual = service.create(userId, bookingDto);
         assertEquals(actual, createdBooking);
+        verify(eventPublisher).publishEvent(argThat((BookingChangedEvent event) -> event.getStatus() == Status.WAITING));
+    }
+
+    @Test
+    void create_whenIndexFindsOverlap_thenValidationExceptionIsThrownWithoutDatabaseCheck() {
+        Integer userId = 1;
+        LocalDateTime startDt = LocalDateTime.now().plusHours(1);
+        LocalDateTime endDt = LocalDateTime.now().plusDays(10);
+        User booker = new User(1, "test", "test@mail.ru");
+        User owner = new User(2, "owner", "owner@mail.ru");
+        Item existingItem = new Item(1, "itemName", "itemDesc", true, owner, null);
+
+        BookingDto bookingDto = new BookingDto(1, startDt, endDt);
+
+        when(userService.getUser(userId)).thenReturn(booker);
+        when(itemService.getItemForUpdate(bookingDto.getItemId())).thenReturn(existingItem);
+        when(overlapIndex.hasOverlapping(1, startDt, endDt)).thenReturn(true);
+
+        assertThrows(ValidationException.class, () -> service.create(userId, bookingDto));
+        verify(repository, never()).existsOverlappingBooking(any(), any(), any(), any());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void create_whenExclusionConstraintIsEnabled_thenItemIsLockedAndDatabaseIsChecked() {
+        ReflectionTestUtils.setField(service, "exclusionConstraint", true);
+        Integer userId = 1;
+        LocalDateTime startDt = LocalDateTime.now().plusHours(1);
+        LocalDateTime endDt = LocalDateTime.now().plusDays(10);
+        User booker = new User(1, "test", "test@mail.ru");
+        User owner = new User(2, "owner", "owner@mail.ru");
+        Item existingItem = new Item(1, "itemName", "itemDesc", true, owner, null);
+
+        BookingDto bookingDto = new BookingDto(1, startDt, endDt);
+
+        when(userService.getUser(userId)).thenReturn(booker);
+        when(itemService.getItemForUpdate(bookingDto.getItemId())).thenReturn(existingItem);
+        when(repository.existsOverlappingBooking(eq(1), any(), eq(startDt), eq(endDt))).thenReturn(true);
+
+        assertThrows(ValidationException.class, () -> service.create(userId, bookingDto));
+        verify(itemService, never()).getItem(any());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void create_whenDatabaseFindsOverlap_thenValidationExceptionIsThrown() {
+        Integer userId = 1;
+        LocalDateTime startDt = LocalDateTime.now().plusHours(1);
+        LocalDateTime endDt = LocalDateTime.now().plusDays(10);
+        User booker = new User(1, "test", "test@mail.ru");
+        User owner = new User(2, "owner", "owner@mail.ru");
+        Item existingItem = new Item(1, "itemName", "itemDesc", true, owner, null);
+
+        BookingDto bookingDto = new BookingDto(1, startDt, endDt);
+
+        when(userService.getUser(userId)).thenReturn(booker);
+        when(itemService.getItemForUpdate(bookingDto.getItemId())).thenReturn(existingItem);
+        when(repository.existsOverlappingBooking(eq(1), any(), eq(startDt), eq(endDt))).thenReturn(true);
+
+        assertThrows(ValidationException.class, () -> service.create(userId, bookingDto));
+        verify(repository, never()).save(any());
     }
 
     @Test
@@ -110,11 +186,67 @@ class BookingServiceImplTest {
         BookingDto bookingDto = new BookingDto(1, LocalDateTime.now().plusHours(1), LocalDateTime.now().plusDays(10));
 
         when(userService.getUser(userId)).thenReturn(booker);
-        when(itemService.getItem(bookingDto.getItemId())).thenReturn(existingItem);
+        when(itemService.getItemForUpdate(bookingDto.getItemId())).thenReturn(existingItem);
 
         assertThrows(NoSuchElementException.class, () -> service.create(userId, bookingDto));
     }
 
+    @Test
+    void setAcceptStatus_whenApprovedBookingOverlaps_thenConflictExceptionIsThrown() {
+        User booker = new User(1, "test", "test@mail.ru");
+        User owner = new User(2, "owner", "owner@mail.ru");
+        Item existingItem = new Item(1, "itemName", "itemDesc", true, owner, null);
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1);
+        LocalDateTime endTime = LocalDateTime.now().plusDays(2);
+
+        Booking booking = new Booking(1, startTime, endTime, existingItem, booker, Status.WAITING, LocalDateTime.now());
+
+        when(repository.findById(1)).thenReturn(Optional.of(booking));
+        when(repository.existsOverlappingBooking(1, List.of(Status.APPROVED), startTime, endTime)).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> service.setAcceptStatus(2, 1, true));
+        assertEquals(Status.WAITING, booking.getStatus());
+        verify(itemService).getItemForUpdate(1);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void setAcceptStatus_whenExclusionConstraintIsViolated_thenConflictExceptionIsThrown() {
+        ReflectionTestUtils.setField(service, "exclusionConstraint", true);
+        User booker = new User(1, "test", "test@mail.ru");
+        User owner = new User(2, "owner", "owner@mail.ru");
+        Item existingItem = new Item(1, "itemName", "itemDesc", true, owner, null);
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1);
+        LocalDateTime endTime = LocalDateTime.now().plusDays(2);
+
+        Booking booking = new Booking(1, startTime, endTime, existingItem, booker, Status.WAITING, LocalDateTime.now());
+
+        when(repository.findById(1)).thenReturn(Optional.of(booking));
+        when(repository.saveAndFlush(booking)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("conflicting key value violates exclusion constraint \"bookings_approved_no_overlap\"", "23P01")));
+
+        assertThrows(ConflictException.class, () -> service.setAcceptStatus(2, 1, true));
+        verify(repository, never()).existsOverlappingBooking(any(), any(), any(), any());
+    }
+
+    @Test
+    void setAcceptStatus_whenOtherConstraintIsViolated_thenExceptionIsNotReportedAsConflict() {
+        ReflectionTestUtils.setField(service, "exclusionConstraint", true);
+        User booker = new User(1, "test", "test@mail.ru");
+        User owner = new User(2, "owner", "owner@mail.ru");
+        Item existingItem = new Item(1, "itemName", "itemDesc", true, owner, null);
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1);
+        LocalDateTime endTime = LocalDateTime.now().plusDays(2);
+
+        Booking booking = new Booking(1, startTime, endTime, existingItem, booker, Status.WAITING, LocalDateTime.now());
+
+        when(repository.findById(1)).thenReturn(Optional.of(booking));
+        when(repository.saveAndFlush(booking)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("insert or update violates foreign key constraint \"fk_bookings_to_items\"", "23503")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> service.setAcceptStatus(2, 1, true));
+    }
+
     @Test
     void setAcceptStatus_whenBookingIsApproved_ThenStatusChngesToPositive() {
         Integer bookerId = 1;
@@ -138,6 +270,8 @@ class BookingServiceImplTest {
         when(repository.save(booking)).thenReturn(bookingAccepted);
         Booking finalBooking = service.setAcceptStatus(ownerId, bookingId, true);
         assertEquals(finalBooking.getStatus(), Status.APPROVED);
+        verify(eventPublisher).publishEvent(argThat((BookingChangedEvent event) ->
+                event.getStatus() == Status.APPROVED && event.getBookerId().equals(bookerId)));
     }
 
     @Test
@@ -163,6 +297,7 @@ class BookingServiceImplTest {
         when(repository.save(booking)).thenReturn(bookingDeclined);
         Booking finalBooking = service.setAcceptStatus(ownerId, bookingId, false);
         assertEquals(finalBooking.getStatus(), Status.REJECTED);
+        verify(eventPublisher).publishEvent(argThat((BookingChangedEvent event) -> event.getStatus() == Status.REJECTED));
     }
 
     @Test
@@ -218,8 +353,8 @@ class BookingServiceImplTest {
 
         List<Booking> bookingList = Arrays.asList(booking1); //mutable list
         when(userService.getUser(bookerId)).thenReturn(booker);
-        when(repository.findAllByBookerOrderByCreatedDesc(booker, pageRequest)).thenReturn(bookingList);
-        List<Booking> actual = service.getAllUserBookings(bookerId, State.ALL, 0, 10);
+        when(repository.findBookerBookings(booker, PageCursor.FIRST.getTime(), PageCursor.FIRST.getId(), pageRequest)).thenReturn(bookingList);
+        List<Booking> actual = service.getAllUserBookings(bookerId, State.ALL, 0, 10, null);
         assertEquals(actual, bookingList);
     }
 
@@ -237,8 +372,8 @@ class BookingServiceImplTest {
 
         List<Booking> bookingList = Arrays.asList(booking1); //mutable list
         when(userService.getUser(bookerId)).thenReturn(booker);
-        when(repository.getBookingsByBookerAndEndIsBefore(any(), any())).thenReturn(bookingList);
-        List<Booking> actual = service.getAllUserBookings(bookerId, State.PAST, 0, 10);
+        when(repository.findBookerPastBookings(any(), any(), any(), any(), any(), any())).thenReturn(bookingList);
+        List<Booking> actual = service.getAllUserBookings(bookerId, State.PAST, 0, 10, null);
         assertEquals(actual, bookingList);
     }
 
@@ -256,8 +391,8 @@ class BookingServiceImplTest {
 
         List<Booking> bookingList = Arrays.asList(booking1); //mutable list
         when(userService.getUser(bookerId)).thenReturn(booker);
-        when(repository.getBookingsByBookerAndStartIsBeforeAndEndIsAfter(any(), any(), any())).thenReturn(bookingList);
-        List<Booking> actual = service.getAllUserBookings(bookerId, State.CURRENT, 0, 10);
+        when(repository.findBookerCurrentBookings(any(), any(), any(), any(), any())).thenReturn(bookingList);
+        List<Booking> actual = service.getAllUserBookings(bookerId, State.CURRENT, 0, 10, null);
         assertEquals(actual, bookingList);
     }
 
@@ -275,8 +410,8 @@ class BookingServiceImplTest {
 
         List<Booking> bookingList = Arrays.asList(booking1); //mutable list
         when(userService.getUser(bookerId)).thenReturn(booker);
-        when(repository.getBookingsByBookerAndStartIsAfter(any(), any())).thenReturn(bookingList);
-        List<Booking> actual = service.getAllUserBookings(bookerId, State.FUTURE, 0, 10);
+        when(repository.findBookerFutureBookings(any(), any(), any(), any(), any(), any())).thenReturn(bookingList);
+        List<Booking> actual = service.getAllUserBookings(bookerId, State.FUTURE, 0, 10, null);
         assertEquals(actual, bookingList);
     }
 
@@ -294,8 +429,8 @@ class BookingServiceImplTest {
 
         List<Booking> bookingList = Arrays.asList(booking1); //mutable list
         when(userService.getUser(bookerId)).thenReturn(booker);
-        when(repository.getBookingsByBookerAndStatusEquals(booker, Status.WAITING)).thenReturn(bookingList);
-        List<Booking> actual = service.getAllUserBookings(bookerId, State.WAITING, 0, 10);
+        when(repository.findBookerBookingsByStatus(booker, Status.WAITING, PageCursor.FIRST.getTime(), PageCursor.FIRST.getId(), PageRequest.of(0, 10))).thenReturn(bookingList);
+        List<Booking> actual = service.getAllUserBookings(bookerId, State.WAITING, 0, 10, null);
         assertEquals(actual, bookingList);
     }
 
@@ -313,8 +448,8 @@ class BookingServiceImplTest {
 
         List<Booking> bookingList = Arrays.asList(booking1); //mutable list
         when(userService.getUser(bookerId)).thenReturn(booker);
-        when(repository.getBookingsByBookerAndStatusEquals(booker, Status.REJECTED)).thenReturn(bookingList);
-        List<Booking> actual = service.getAllUserBookings(bookerId, State.REJECTED, 0, 10);
+        when(repository.findBookerBookingsByStatus(booker, Status.REJECTED, PageCursor.FIRST.getTime(), PageCursor.FIRST.getId(), PageRequest.of(0, 10))).thenReturn(bookingList);
+        List<Booking> actual = service.getAllUserBookings(bookerId, State.REJECTED, 0, 10, null);
         assertEquals(actual, bookingList);
     }
 
@@ -333,8 +468,8 @@ class BookingServiceImplTest {
 
         List<Booking> bookingList = Arrays.asList(booking1); //mutable list
         when(userService.getUser(bookerId)).thenReturn(booker);
-        when(repository.getAllUserItems(booker, pageRequest)).thenReturn(bookingList);
-        List<Booking> actual = service.getAllUserItemBookings(bookerId, State.ALL, 0, 10);
+        when(repository.findOwnerBookings(booker, PageCursor.FIRST.getTime(), PageCursor.FIRST.getId(), pageRequest)).thenReturn(bookingList);
+        List<Booking> actual = service.getAllUserItemBookings(bookerId, State.ALL, 0, 10, null);
         assertEquals(actual, bookingList);
     }
 
@@ -353,8 +488,8 @@ class BookingServiceImplTest {
 
         List<Booking> bookingList = Arrays.asList(booking1); //mutable list
         when(userService.getUser(bookerId)).thenReturn(booker);
-        when(repository.getAllUserItems(booker, pageRequest)).thenReturn(bookingList);
-        List<Booking> actual = service.getAllUserItemBookings(bookerId, State.PAST, 0, 10);
+        when(repository.findOwnerPastBookings(any(), any(), any(), any(), any(), any())).thenReturn(bookingList);
+        List<Booking> actual = service.getAllUserItemBookings(bookerId, State.PAST, 0, 10, null);
         assertEquals(actual, bookingList);
     }
 
@@ -373,8 +508,8 @@ class BookingServiceImplTest {
 
         List<Booking> bookingList = Arrays.asList(booking1); //mutable list
         when(userService.getUser(bookerId)).thenReturn(booker);
-        when(repository.getAllUserItems(booker, pageRequest)).thenReturn(bookingList);
-        List<Booking> actual = service.getAllUserItemBookings(bookerId, State.CURRENT, 0, 10);
+        when(repository.findOwnerCurrentBookings(any(), any(), any(), any(), any())).thenReturn(bookingList);
+        List<Booking> actual = service.getAllUserItemBookings(bookerId, State.CURRENT, 0, 10, null);
         assertEquals(actual, bookingList);
     }
 
@@ -393,8 +528,8 @@ class BookingServiceImplTest {
 
         List<Booking> bookingList = Arrays.asList(booking1); //mutable list
         when(userService.getUser(bookerId)).thenReturn(booker);
-        when(repository.getAllUserItems(booker, pageRequest)).thenReturn(bookingList);
-        List<Booking> actual = service.getAllUserItemBookings(bookerId, State.FUTURE, 0, 10);
+        when(repository.findOwnerFutureBookings(any(), any(), any(), any(), any(), any())).thenReturn(bookingList);
+        List<Booking> actual = service.getAllUserItemBookings(bookerId, State.FUTURE, 0, 10, null);
         assertEquals(actual, bookingList);
     }
 
@@ -413,8 +548,8 @@ class BookingServiceImplTest {
 
         List<Booking> bookingList = Arrays.asList(booking1); //mutable list
         when(userService.getUser(bookerId)).thenReturn(booker);
-        when(repository.getAllUserItems(booker, pageRequest)).thenReturn(bookingList);
-        List<Booking> actual = service.getAllUserItemBookings(bookerId, State.WAITING, 0, 10);
+        when(repository.findOwnerBookingsByStatus(booker, Status.WAITING, PageCursor.FIRST.getTime(), PageCursor.FIRST.getId(), pageRequest)).thenReturn(bookingList);
+        List<Booking> actual = service.getAllUserItemBookings(bookerId, State.WAITING, 0, 10, null);
         assertEquals(actual, bookingList);
     }
 
@@ -433,8 +568,8 @@ class BookingServiceImplTest {
 
         List<Booking> bookingList = Arrays.asList(booking1); //mutable list
         when(userService.getUser(bookerId)).thenReturn(booker);
-        when(repository.getAllUserItems(booker, pageRequest)).thenReturn(bookingList);
-        List<Booking> actual = service.getAllUserItemBookings(bookerId, State.REJECTED, 0, 10);
+        when(repository.findOwnerBookingsByStatus(booker, Status.REJECTED, PageCursor.FIRST.getTime(), PageCursor.FIRST.getId(), pageRequest)).thenReturn(bookingList);
+        List<Booking> actual = service.getAllUserItemBookings(bookerId, State.REJECTED, 0, 10, null);
         assertEquals(actual, bookingList);
     }
 
@@ -15,6 +15,7 @@ import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.user.model.User;
 
@@ -242,7 +243,7 @@ class ItemControllerTest {
                 new BookingInfoDto(1, 1),
                 List.of());
 
-        when(service.getAllUserItems(ownerId, 0, 10)).thenReturn(List.of(expected));
+        when(service.getAllUserItems(ownerId, 0, 10, null)).thenReturn(List.of(expected));
 
         String actual = mockMvc.perform(get("/items")
                         .header(OWNER_ID_HEADER, ownerId)
@@ -255,7 +256,19 @@ class ItemControllerTest {
                 .getContentAsString();
 
         assertEquals(objectMapper.writeValueAsString(List.of(expected)), actual);
-        verify(service).getAllUserItems(ownerId, 0, 10);
+        verify(service).getAllUserItems(ownerId, 0, 10, null);
+    }
+
+    @SneakyThrows
+    @Test
+    void getUserItems_whenCursorHasTime_thenBadRequest() {
+        mockMvc.perform(get("/items")
+                        .header(OWNER_ID_HEADER, 1)
+                        .param("cursor", PageCursor.of(LocalDateTime.now(), 5).encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
     }
 
     @SneakyThrows
@@ -273,7 +286,7 @@ class ItemControllerTest {
         Request request = new Request(1, "ReqDescription", booker, created);
         Item item = new Item(1, "itemName", "itemDesc", true, owner, request);
 
-        when(service.search(query, 1, 1)).thenReturn(List.of(item));
+        when(service.search(query, null, null, 0, 1, 1, null)).thenReturn(List.of(item));
 
         String actual = mockMvc.perform(get("/items/search?text=" + query + "&from=1&size=1")
                         .header(OWNER_ID_HEADER, ownerId)
@@ -286,6 +299,62 @@ class ItemControllerTest {
                 .getContentAsString();
 
         assertEquals(objectMapper.writeValueAsString(List.of(item)), actual);
-        verify(service).search(query, 1, 1);
+        verify(service).search(query, null, null, 0, 1, 1, null);
+    }
+
+    @SneakyThrows
+    @Test
+    void getAvailability_whenRangeIsPassed_thenSlotsAreReturned() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime busyFrom = LocalDateTime.of(2030, 1, 2, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 3, 10, 0);
+
+        ItemAvailabilityDto expected = new ItemAvailabilityDto(1, true, from, to, List.of(
+                new AvailabilitySlotDto(from, busyFrom, true),
+                new AvailabilitySlotDto(busyFrom, to, false)));
+
+        when(service.getAvailability(1, from, to)).thenReturn(expected);
+
+        mockMvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-03T10:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slots.length()", is(2)))
+                .andExpect(jsonPath("$.slots[0].free", is(true)))
+                .andExpect(jsonPath("$.slots[1].free", is(false)));
+    }
+
+    @SneakyThrows
+    @Test
+    void suggest_whenPrefixIsPassed_thenNamesAreReturned() {
+        when(service.suggest("дре", 5)).thenReturn(List.of("Дрель", "Дрель-шуруповерт"));
+
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "дре")
+                        .param("size", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$[0]", is("Дрель")));
+    }
+
+    @SneakyThrows
+    @Test
+    void search_whenFacetsAreRequested_thenPageAndCountsAreReturned() {
+        Item item = new Item(1, "drill", "drill", true, null, null);
+        ItemSearchFacetsDto facets = new ItemSearchFacetsDto(1L, 0L, 0L, 1L, List.of(new OwnerFacetDto(2, 1L)));
+        when(service.searchWithFacets("drill", null, null, 0, 0, 10, null))
+                .thenReturn(new ItemSearchResultDto(List.of(item), facets));
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "drill")
+                        .param("facets", "true")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()", is(1)))
+                .andExpect(jsonPath("$.facets.available", is(1)))
+                .andExpect(jsonPath("$.facets.owners[0].ownerId", is(2)));
+        verify(service, never()).search(any(), any(), any(), any(), any(), any(), any());
     }
-}
\ No newline at end of file
+}
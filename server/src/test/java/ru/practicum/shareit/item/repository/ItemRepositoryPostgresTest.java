@@ -0,0 +1,109 @@
+package ru.practicum.shareit.item.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.PostgresRepositoryTest;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemSearchFacetsDto;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.FacetCounter;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemRepositoryPostgresTest extends PostgresRepositoryTest {
+    private static final PageRequest PAGE = PageRequest.of(0, 10);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    private User owner;
+    private User other;
+    private Item drillInDescription;
+    private Item drill;
+    private Item busyDrill;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "owner", "owner@mail.ru"));
+        other = userRepository.save(new User(null, "other", "other@mail.ru"));
+        Request request = requestRepository.save(new Request(null, "Нужна дрель", other, now));
+
+        drillInDescription = itemRepository.save(new Item(null, "Перфоратор", "Мощнее любой дрели", true, owner, null));
+        drill = itemRepository.save(new Item(null, "Дрель ударная", "Почти новая", true, owner, request));
+        busyDrill = itemRepository.save(new Item(null, "Дрель", "Аккумуляторная", true, other, null));
+        itemRepository.save(new Item(null, "Дрель", "Сломана", false, owner, null));
+        itemRepository.save(new Item(null, "Палатка", "Двухместная", true, other, null));
+
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(3), busyDrill, other, Status.APPROVED, now));
+    }
+
+    @Test
+    void searchFullText_whenWordFormDiffers_thenStemmedMatchesAreRankedByWeight() {
+        assertEquals(List.of(drillInDescription, drill, busyDrill),
+                itemRepository.searchFullText("дрели", 0, false, PAGE));
+        assertEquals(List.of(drill, busyDrill, drillInDescription),
+                itemRepository.searchFullText("дрели", 0, true, PAGE));
+        assertEquals(List.of(drill, busyDrill),
+                itemRepository.searchFullText("дрели", drillInDescription.getId(), false, PAGE));
+    }
+
+    @Test
+    void searchFullTextFreeBetween_whenItemHasApprovedOverlap_thenItIsFilteredOut() {
+        assertEquals(List.of(drillInDescription, drill),
+                itemRepository.searchFullTextFreeBetween("дрель", now.plusDays(2), now.plusDays(4), 0, false, PAGE));
+        assertEquals(List.of(drillInDescription, drill, busyDrill),
+                itemRepository.searchFullTextFreeBetween("дрель", now.plusDays(3), now.plusDays(4), 0, false, PAGE));
+    }
+
+    @Test
+    void countFullTextFacets_whenItemsMatch_thenCountsAreGroupedByOwnerAndAvailability() {
+        FacetCounter facets = FacetCounter.fromRows(itemRepository.countFullTextFacets("дрель"));
+
+        assertEquals(new ItemSearchFacetsDto(3L, 1L, 1L, 3L,
+                List.of(new OwnerFacetDto(owner.getId(), 3L), new OwnerFacetDto(other.getId(), 1L))), facets.toDto(10));
+    }
+
+    @Test
+    void searchTrigram_whenQueryIsSubstringOrHasTypo_thenItemsAreFound() {
+        assertEquals(List.of(drillInDescription, drill, busyDrill),
+                itemRepository.searchTrigram("дрел", 0, false, PAGE));
+        assertEquals(List.of(drillInDescription),
+                itemRepository.searchTrigram("перфаратор", 0, true, PAGE));
+    }
+
+    @Test
+    void searchTrigramFreeBetween_whenItemHasApprovedOverlap_thenItIsFilteredOut() {
+        assertEquals(List.of(drillInDescription, drill),
+                itemRepository.searchTrigramFreeBetween("дрел", now.plusDays(2), now.plusDays(4), 0, false, PAGE));
+    }
+
+    @Test
+    void countTrigramFacets_whenItemsMatch_thenCountsAreGroupedByOwnerAndAvailability() {
+        FacetCounter facets = FacetCounter.fromRows(itemRepository.countTrigramFacets("дрел"));
+
+        assertEquals(new ItemSearchFacetsDto(3L, 1L, 1L, 3L,
+                List.of(new OwnerFacetDto(owner.getId(), 3L), new OwnerFacetDto(other.getId(), 1L))), facets.toDto(10));
+    }
+}
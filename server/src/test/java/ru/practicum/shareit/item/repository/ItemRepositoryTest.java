@@ -5,15 +5,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
-import ru.practicum.shareit.item.comparator.ItemComparator;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemSearchFacetsDto;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.FacetCounter;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,6 +34,9 @@ class ItemRepositoryTest {
     @Autowired
     private RequestRepository requestRepository;
 
+    @Autowired
+    private BookingRepository bookingRepository;
+
     @Test
     void search_whenSeveralItemsMatch_thenTheyAreReturned() {
         LocalDateTime created = LocalDateTime.of(2022, 10, 10, 10, 10);
@@ -43,17 +50,79 @@ class ItemRepositoryTest {
         Item item2 = itemRepository.save(new Item(null, "itemName2", "itemDesc2", true, booker, request));
 
         PageRequest pageRequest = PageRequest.of(0, 10);
-        List<Item> items = itemRepository.search("nAm", pageRequest);
+        List<Item> items = itemRepository.search("nAm", 0, pageRequest);
+
+        assertEquals(List.of(item1, item2), items);
+    }
+
+    @Test
+    void search_whenItemIsUnavailable_thenItIsNotReturnedEvenIfNameMatches() {
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.ru"));
+
+        Item available = itemRepository.save(new Item(null, "drill", "tool", true, owner, null));
+        itemRepository.save(new Item(null, "drill", "tool", false, owner, null));
+        itemRepository.save(new Item(null, "saw", "old drill", false, owner, null));
+
+        List<Item> items = itemRepository.search("drill", 0, PageRequest.of(0, 10));
+
+        assertEquals(List.of(available), items);
+    }
+
+    @Test
+    void findOwnerItems_whenOtherUsersHaveItems_thenOnlyOwnerPageIsReturned() {
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.ru"));
+        User other = userRepository.save(new User(null, "other", "other@mail.ru"));
+
+        Item item1 = itemRepository.save(new Item(null, "itemName1", "itemDesc1", true, owner, null));
+        itemRepository.save(new Item(null, "otherName", "otherDesc", true, other, null));
+        Item item2 = itemRepository.save(new Item(null, "itemName2", "itemDesc2", false, owner, null));
+        Item item3 = itemRepository.save(new Item(null, "itemName3", "itemDesc3", true, owner, null));
+
+        assertEquals(List.of(item1, item2), itemRepository.findOwnerItems(owner.getId(), 0, PageRequest.of(0, 2)));
+        assertEquals(List.of(item3), itemRepository.findOwnerItems(owner.getId(), 0, PageRequest.of(1, 2)));
+        assertEquals(List.of(item2, item3), itemRepository.findOwnerItems(owner.getId(), item1.getId(), PageRequest.of(0, 2)));
+    }
+
+    @Test
+    void searchFreeBetween_whenItemHasApprovedOverlap_thenItIsFilteredOut() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.ru"));
+        User booker = userRepository.save(new User(null, "booker", "booker@mail.ru"));
+
+        Item busy = itemRepository.save(new Item(null, "drill", "busy drill", true, owner, null));
+        Item waiting = itemRepository.save(new Item(null, "drill", "waiting drill", true, owner, null));
+        Item adjacent = itemRepository.save(new Item(null, "drill", "adjacent drill", true, owner, null));
+
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(3), busy, booker, Status.APPROVED, now));
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(3), waiting, booker, Status.WAITING, now));
+        bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4), adjacent, booker, Status.APPROVED, now));
+
+        List<Item> items = itemRepository.searchFreeBetween("drill", now.plusDays(2), now.plusDays(3), 0, PageRequest.of(0, 10));
+
+        assertEquals(List.of(waiting, adjacent), items);
+    }
+
+    @Test
+    void countFacets_whenItemsMatch_thenCountsAreGroupedByOwnerAndAvailability() {
+        LocalDateTime created = LocalDateTime.of(2022, 10, 10, 10, 10);
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.ru"));
+        User other = userRepository.save(new User(null, "other", "other@mail.ru"));
+        Request request = requestRepository.save(new Request(null, "need a drill", other, created));
+
+        itemRepository.save(new Item(null, "drill", "tool", true, owner, request));
+        itemRepository.save(new Item(null, "drill", "broken", false, owner, null));
+        itemRepository.save(new Item(null, "saw", "old drill", true, other, null));
+        itemRepository.save(new Item(null, "saw", "tool", true, other, null));
 
-        List<Item> expected = Arrays.asList(item1, item2);
-        items.sort(new ItemComparator());
-        expected.sort(new ItemComparator());
+        FacetCounter facets = FacetCounter.fromRows(itemRepository.countFacets("DRILL"));
 
-        assertEquals(items, expected);
+        assertEquals(new ItemSearchFacetsDto(2L, 1L, 1L, 2L,
+                List.of(new OwnerFacetDto(owner.getId(), 2L), new OwnerFacetDto(other.getId(), 1L))), facets.toDto(10));
     }
 
     @AfterEach
     private void deleteData() {
+        bookingRepository.deleteAll();
         itemRepository.deleteAll();
         requestRepository.deleteAll();
         userRepository.deleteAll();
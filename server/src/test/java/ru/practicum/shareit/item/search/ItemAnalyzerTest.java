@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemAnalyzerTest {
+
+    @Test
+    void analyze_whenRussianWordFormsDiffer_thenTheyShareStem() {
+        assertEquals(ItemAnalyzer.analyze("дрель"), ItemAnalyzer.analyze("дрели"));
+        assertEquals(ItemAnalyzer.analyze("Дрелью"), ItemAnalyzer.analyze("дрелей"));
+        assertEquals(ItemAnalyzer.analyze("палатка"), ItemAnalyzer.analyze("палатки"));
+        assertEquals(ItemAnalyzer.analyze("ударная"), ItemAnalyzer.analyze("ударный"));
+        assertEquals(ItemAnalyzer.analyze("свёрла"), ItemAnalyzer.analyze("сверл"));
+    }
+
+    @Test
+    void analyze_whenEnglishWordFormsDiffer_thenTheyShareStem() {
+        assertEquals(ItemAnalyzer.analyze("drill"), ItemAnalyzer.analyze("drilling"));
+        assertEquals(ItemAnalyzer.analyze("drills"), ItemAnalyzer.analyze("drilled"));
+        assertEquals(List.of("ladder"), ItemAnalyzer.analyze("Ladders"));
+        assertEquals(List.of("connect"), ItemAnalyzer.analyze("connections"));
+        assertEquals(List.of("gener"), ItemAnalyzer.analyze("generalization"));
+    }
+
+    @Test
+    void analyze_whenTextHasPunctuationDigitsAndMixedScripts_thenTheyAreKeptAsIs() {
+        assertEquals(List.of("дрел", "bosch", "gsb", "500w", "2"), ItemAnalyzer.analyze("Дрель, Bosch GSB-500w (2)"));
+        assertEquals(List.of(), ItemAnalyzer.analyze(" ,.- "));
+    }
+
+    @Test
+    void tokenize_whenTextIsPassed_thenWordsAreNotStemmed() {
+        assertEquals(List.of("дрели", "drilling"), ItemAnalyzer.tokenize("Дрели, DRILLING"));
+    }
+}
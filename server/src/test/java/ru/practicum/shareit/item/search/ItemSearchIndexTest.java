@@ -0,0 +1,144 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemSearchFacetsDto;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
+import ru.practicum.shareit.item.enums.SearchMode;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @InjectMocks
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void enableIndex() {
+        ReflectionTestUtils.setField(index, "searchMode", SearchMode.INDEX);
+    }
+
+    @Test
+    void search_whenIndexIsBuiltFromRepository_thenPrefixesOfAllQueryTermsMatch() {
+        when(itemRepository.findIndexableItemsAfter(0, PageRequest.of(0, 10_000))).thenReturn(List.of(
+                new Object[]{1, "Дрель ударная", "Мощная, с набором свёрл", true, 7, null},
+                new Object[]{2, "Отвертка", "Крестовая", true, 7, null},
+                new Object[]{5, "Дрель-шуруповерт", "Аккумулятор в комплекте", true, 7, null}));
+
+        index.build();
+
+        assertTrue(index.isReady());
+        assertEquals(bits(1, 5), index.search("дрел").getIds());
+        assertEquals(bits(1), index.search("ДРЕЛЬ сверл").getIds());
+        assertEquals(bits(), index.search("дрель пила").getIds());
+        assertEquals(bits(), index.search("  ,  ").getIds());
+    }
+
+    @Test
+    void index_whenItemBecomesUnavailableOrChanges_thenOldTermsAreRemoved() {
+        when(itemRepository.findIndexableItemsAfter(0, PageRequest.of(0, 10_000))).thenReturn(List.of());
+        index.build();
+
+        index.index(new Item(3, "Палатка", "Двухместная", true, null, null));
+        assertEquals(bits(3), index.search("палатка").getIds());
+
+        index.index(new Item(3, "Тент", "Двухместный", true, null, null));
+        assertEquals(bits(), index.search("палатка").getIds());
+        assertEquals(bits(3), index.search("тент").getIds());
+
+        index.index(new Item(3, "Тент", "Двухместный", false, null, null));
+        assertEquals(bits(), index.search("тент").getIds());
+    }
+
+    @Test
+    void search_whenFuzzy_thenTermsWithinEditDistanceMatch() {
+        when(itemRepository.findIndexableItemsAfter(0, PageRequest.of(0, 10_000))).thenReturn(List.of(
+                new Object[]{1, "Перфоратор", "Ударный", true, 7, null},
+                new Object[]{2, "Палатка", "Туристическая", true, 7, null},
+                new Object[]{4, "Кот", "Переноска для кота", true, 7, null}));
+        index.build();
+
+        assertEquals(bits(), index.search("перфаратор").getIds());
+        assertEquals(bits(1), index.search("перфаратор", 1, false).getIds());
+        assertEquals(bits(), index.search("пирфаратор", 1, false).getIds());
+        assertEquals(bits(1), index.search("пирфаратор", 2, false).getIds());
+        assertEquals(bits(2), index.search("полатка туристичиская", 1, false).getIds());
+        assertEquals(bits(4), index.search("кит", 2, false).getIds());
+        assertEquals(bits(), index.search("кт", 2, false).getIds());
+    }
+
+    @Test
+    void search_whenTermsMatchInNameOrDescription_thenScoreWeighsNameAndPopularity() {
+        List<Object[]> counts = List.<Object[]>of(new Object[]{2, 3L});
+        when(bookingRepository.countBookingsByItem(Status.APPROVED)).thenReturn(counts);
+        when(itemRepository.findIndexableItemsAfter(0, PageRequest.of(0, 10_000))).thenReturn(List.of(
+                new Object[]{1, "Дрель", "Ударная", true, 7, null},
+                new Object[]{2, "Набор", "Дрель и биты", true, 7, null},
+                new Object[]{3, "Шуруповерт", "Дрель-шуруповерт", true, 7, null}));
+        index.build();
+        index.bookingApproved(3);
+
+        SearchHits hits = index.search("дрель");
+
+        assertEquals(3.0, hits.score(1));
+        assertEquals(1.0 + Math.log1p(3), hits.score(2));
+        assertEquals(1.0 + Math.log1p(1), hits.score(3));
+    }
+
+    @Test
+    void search_whenFacetsRequested_thenAllTextMatchesAreCountedInOnePass() {
+        when(itemRepository.findIndexableItemsAfter(0, PageRequest.of(0, 10_000))).thenReturn(List.of(
+                new Object[]{1, "Дрель", "Ударная", true, 7, null},
+                new Object[]{2, "Дрель", "Сломана", false, 7, 11},
+                new Object[]{3, "Дрель", "Аккумуляторная", true, 8, 12},
+                new Object[]{4, "Пила", "Ручная", true, 8, null}));
+        index.build();
+
+        SearchHits hits = index.search("дрель", 0, true);
+
+        assertEquals(bits(1, 3), hits.getIds());
+        ItemSearchFacetsDto facets = hits.getFacets().toDto(10);
+        assertEquals(new ItemSearchFacetsDto(2L, 1L, 2L, 1L,
+                List.of(new OwnerFacetDto(7, 2L), new OwnerFacetDto(8, 1L))), facets);
+        assertNull(index.search("дрель", 0, false).getFacets());
+    }
+
+    @Test
+    void index_whenModeIsNotIndex_thenNothingIsIndexed() {
+        ReflectionTestUtils.setField(index, "searchMode", SearchMode.LIKE);
+
+        index.build();
+        index.index(new Item(3, "Палатка", "Двухместная", true, null, null));
+
+        assertFalse(index.isReady());
+        assertEquals(bits(), index.search("палатка").getIds());
+    }
+
+    private static BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSuggesterTest {
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @InjectMocks
+    private ItemSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(suggester, "enabled", true);
+    }
+
+    @Test
+    void build_whenDisabled_thenItemsAreNotScannedAndUpdatesAreIgnored() {
+        ReflectionTestUtils.setField(suggester, "enabled", false);
+
+        suggester.build();
+        suggester.index(new Item(3, "Палатка", "Двухместная", true, null, null));
+        suggester.bookingApproved(3);
+
+        assertFalse(suggester.isReady());
+        assertEquals(List.of(), suggester.suggest("п", 10));
+        verifyNoInteractions(itemRepository, bookingRepository);
+    }
+
+    @Test
+    void suggest_whenBuilt_thenAnyWordOfNameMatchesAndPopularOnesGoFirst() {
+        List<Object[]> counts = List.<Object[]>of(new Object[]{5, 4L});
+        when(bookingRepository.countBookingsOfItemsBetween(Status.APPROVED, 0, 5)).thenReturn(counts);
+        when(itemRepository.findSearchableItemsAfter(0, PageRequest.of(0, 10_000))).thenReturn(List.of(
+                new Object[]{1, "Дрель ударная", "Мощная"},
+                new Object[]{2, "Отвертка", "Крестовая"},
+                new Object[]{5, "Дрель-шуруповерт", "Аккумулятор"}));
+
+        suggester.build();
+
+        assertTrue(suggester.isReady());
+        assertEquals(List.of("Дрель-шуруповерт", "Дрель ударная"), suggester.suggest("ДРЕ", 10));
+        assertEquals(List.of("Дрель-шуруповерт"), suggester.suggest("шуруп", 10));
+        assertEquals(List.of("Дрель ударная"), suggester.suggest("дрель уд", 10));
+        assertEquals(List.of(), suggester.suggest(" , ", 10));
+    }
+
+    @Test
+    void build_whenApprovalsArriveBeforeBatchIsLoaded_thenTheyAreNotCountedTwice() {
+        List<Object[]> counts = List.of(new Object[]{1, 5L}, new Object[]{5, 4L});
+        when(bookingRepository.countBookingsOfItemsBetween(Status.APPROVED, 0, 5)).thenReturn(counts);
+        when(itemRepository.findSearchableItemsAfter(0, PageRequest.of(0, 10_000))).thenReturn(List.of(
+                new Object[]{1, "Дрель ударная", "Мощная"},
+                new Object[]{5, "Дрель-шуруповерт", "Аккумулятор"}));
+
+        suggester.bookingApproved(5);
+        suggester.bookingApproved(5);
+        suggester.build();
+        assertEquals(List.of("Дрель ударная", "Дрель-шуруповерт"), suggester.suggest("дрель", 10));
+
+        suggester.bookingApproved(5);
+        suggester.bookingApproved(5);
+        assertEquals(List.of("Дрель-шуруповерт", "Дрель ударная"), suggester.suggest("дрель", 10));
+    }
+
+    @Test
+    void index_whenItemChangesOrGetsBooked_thenSuggestionsFollow() {
+        when(itemRepository.findSearchableItemsAfter(0, PageRequest.of(0, 10_000))).thenReturn(List.of());
+        suggester.build();
+
+        suggester.index(new Item(3, "Палатка", "Двухместная", true, null, null));
+        suggester.index(new Item(4, "Пила", "Ручная", true, null, null));
+        suggester.index(new Item(5, "Пила", "Цепная", true, null, null));
+        assertEquals(List.of("Пила", "Палатка"), suggester.suggest("п", 10));
+
+        suggester.bookingApproved(3);
+        suggester.bookingApproved(3);
+        assertEquals(List.of("Палатка", "Пила"), suggester.suggest("п", 10));
+
+        suggester.index(new Item(3, "Тент", "Двухместный", true, null, null));
+        assertEquals(List.of("Пила"), suggester.suggest("п", 10));
+        assertEquals(List.of("Тент"), suggester.suggest("т", 10));
+
+        suggester.index(new Item(4, "Пила", "Ручная", false, null, null));
+        suggester.index(new Item(5, "Пила", "Цепная", false, null, null));
+        assertEquals(List.of(), suggester.suggest("п", 10));
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LevenshteinWalkTest {
+
+    @Test
+    void collect_whenDictionaryWalked_thenMatchesOnlyTermsWithinDistance() {
+        NavigableSet<String> dictionary = new TreeSet<>(List.of("дрель", "дрели", "дрова", "трель", "модель", "др"));
+        Map<String, Integer> found = new HashMap<>();
+
+        LevenshteinWalk.collect(dictionary, "дрель", 1, found);
+
+        assertEquals(Map.of("дрель", 0, "дрели", 1, "трель", 1), found);
+    }
+
+    @Test
+    void collect_whenRandomDictionary_thenSameAsFullDistanceComputation() {
+        Random random = new Random(7);
+        NavigableSet<String> dictionary = new TreeSet<>();
+        for (int i = 0; i < 2_000; i++) {
+            dictionary.add(randomWord(random));
+        }
+        for (int i = 0; i < 50; i++) {
+            String query = randomWord(random);
+            for (int maxEdits = 1; maxEdits <= 2; maxEdits++) {
+                Map<String, Integer> expected = new HashMap<>();
+                for (String term : dictionary) {
+                    int distance = distance(term, query);
+                    if (distance <= maxEdits) {
+                        expected.put(term, distance);
+                    }
+                }
+                Map<String, Integer> found = new HashMap<>();
+
+                LevenshteinWalk.collect(dictionary, query, maxEdits, found);
+
+                assertEquals(expected, found, query);
+            }
+        }
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 1 + random.nextInt(7);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+
+    private static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    d[i][j] = i + j;
+                } else {
+                    int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                    d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
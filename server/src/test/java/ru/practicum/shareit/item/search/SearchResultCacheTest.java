@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchResultCacheTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SearchResultCache cache = new SearchResultCache(registry, 2);
+
+    @Test
+    void getOrLoad_whenKeyRepeats_thenLoadedOnceAndMetricsAreCounted() {
+        AtomicInteger loads = new AtomicInteger();
+        Item tent = new Item(1, "Палатка", "Туристическая", true, null, null);
+
+        cache.getOrLoad(key("палатка"), () -> result(loads, tent));
+        ItemSearchResultDto second = cache.getOrLoad(key("палатка"), () -> result(loads, tent));
+
+        assertEquals(1, loads.get());
+        assertEquals(List.of(tent), second.getItems());
+        assertEquals(1.0, registry.get("shareit.search.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("shareit.search.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(0.5, registry.get("shareit.search.cache.hit.ratio").gauge().value());
+        assertEquals(1, registry.get("shareit.search.cache.load").timer().count());
+    }
+
+    @Test
+    void getOrLoad_whenCacheIsFull_thenLeastRecentlyUsedEntryIsEvicted() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(key("палатка"), () -> result(loads));
+        cache.getOrLoad(key("дрель"), () -> result(loads));
+        cache.getOrLoad(key("палатка"), () -> result(loads));
+        cache.getOrLoad(key("велосипед"), () -> result(loads));
+        cache.getOrLoad(key("палатка"), () -> result(loads));
+        cache.getOrLoad(key("дрель"), () -> result(loads));
+
+        assertEquals(4, loads.get());
+        assertEquals(2.0, registry.get("shareit.search.cache.size").gauge().value());
+    }
+
+    @Test
+    void getOrLoad_whenMissesAreConcurrent_thenOneLoadServesAllCallers() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<ItemSearchResultDto> first = executor.submit(() -> cache.getOrLoad(key("дрель"), () -> {
+                loaderStarted.countDown();
+                await(release);
+                return result(loads);
+            }));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            List<Future<ItemSearchResultDto>> waiting = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                waiting.add(executor.submit(() -> cache.getOrLoad(key("дрель"), () -> result(loads))));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            ItemSearchResultDto loaded = first.get(5, TimeUnit.SECONDS);
+            for (Future<ItemSearchResultDto> future : waiting) {
+                assertSame(loaded, future.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void invalidate_whenItemIsContainedOrCouldMatch_thenOnlyAffectedEntriesAreDropped() {
+        AtomicInteger loads = new AtomicInteger();
+        Item drill = new Item(1, "Дрель", "Ударная", true, null, null);
+        cache.getOrLoad(key("дрель"), () -> result(loads, drill));
+        cache.getOrLoad(key("палатка"), () -> result(loads));
+
+        cache.invalidate(null, new Item(2, "Палатки", "Двухместная", true, null, null));
+        cache.getOrLoad(key("дрель"), () -> result(loads));
+        cache.getOrLoad(key("палатка"), () -> result(loads));
+        assertEquals(3, loads.get());
+
+        cache.invalidate(drill, new Item(1, "Шуруповерт", "Аккумуляторный", true, null, null));
+        cache.getOrLoad(key("дрель"), () -> result(loads));
+        cache.getOrLoad(key("палатка"), () -> result(loads));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void invalidate_whenQueryHasSeveralTerms_thenEntryIsDroppedOnlyIfItemHasAllOfThem() {
+        AtomicInteger loads = new AtomicInteger();
+        SearchResultCache.Key key = key("дрель аккум");
+        assertEquals(ItemAnalyzer.analyze("дрель аккум"), key.getQueryTerms());
+        cache.getOrLoad(key, () -> result(loads));
+
+        cache.invalidate(null, new Item(2, "Дрель", "Сетевая", true, null, null));
+        cache.getOrLoad(key, () -> result(loads));
+        assertEquals(1, loads.get());
+
+        cache.invalidate(null, new Item(3, "Дрель-шуруповерт", "Аккумуляторная", true, null, null));
+        cache.getOrLoad(key, () -> result(loads));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_whenLoadStartedBeforeChange_thenItsResultIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(key("дрель"), () -> {
+            cache.invalidate(null, new Item(5, "Дрель", "Новая", true, null, null));
+            return result(loads);
+        });
+        cache.getOrLoad(key("дрель"), () -> result(loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    private static SearchResultCache.Key key(String query) {
+        return new SearchResultCache.Key(query, 0, 0, 10, 0, true, false, false);
+    }
+
+    private static ItemSearchResultDto result(AtomicInteger loads, Item... items) {
+        loads.incrementAndGet();
+        return new ItemSearchResultDto(List.of(items), null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
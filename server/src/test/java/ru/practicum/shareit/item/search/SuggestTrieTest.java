@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestTrieTest {
+
+    @Test
+    void top_whenPrefixEndsInsideEdge_thenMostPopularKeysAreReturned() {
+        SuggestTrie trie = new SuggestTrie();
+        trie.add("дрель", "Дрель", 2);
+        trie.add("дрель ударная", "Дрель ударная", 5);
+        trie.add("дрова", "Дрова", 1);
+        trie.add("доска", "Доска", 9);
+
+        assertEquals(List.of("Дрель ударная", "Дрель", "Дрова"), trie.top("др", 10));
+        assertEquals(List.of("Дрель ударная", "Дрель"), trie.top("дре", 10));
+        assertEquals(List.of("Доска"), trie.top("д", 1));
+        assertEquals(List.of(), trie.top("дрелька", 10));
+        assertEquals(List.of(), trie.top("к", 10));
+    }
+
+    @Test
+    void add_whenPopularityDropsToZero_thenKeyIsRemovedAndTreeCompressed() {
+        SuggestTrie trie = new SuggestTrie();
+        trie.add("дрель", "Дрель", 1);
+        trie.add("дрель ударная", "Дрель ударная", 1);
+        trie.add("дрова", "Дрова", 3);
+
+        trie.add("дрель", "Дрель", -1);
+        assertEquals(List.of("Дрова", "Дрель ударная"), trie.top("др", 10));
+
+        trie.add("дрель ударная", "Дрель ударная", 4);
+        assertEquals(List.of("Дрель ударная", "Дрова"), trie.top("др", 10));
+
+        trie.add("дрель ударная", "Дрель ударная", -5);
+        trie.add("дрова", "Дрова", -3);
+        trie.add("несуществующий", "Несуществующий", -1);
+        assertTrue(trie.isEmpty());
+    }
+}
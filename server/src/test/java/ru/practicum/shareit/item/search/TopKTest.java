@@ -0,0 +1,43 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopKTest {
+
+    @Test
+    void sorted_whenScoresTie_thenSmallerIdIsFirst() {
+        TopK top = new TopK(3);
+        top.offer(7, 1.0);
+        top.offer(2, 5.0);
+        top.offer(5, 1.0);
+        top.offer(3, 1.0);
+        top.offer(1, 0.5);
+
+        assertEquals(List.of(2, 3, 5), top.sorted());
+    }
+
+    @Test
+    void sorted_whenManyCandidates_thenSameAsFullSortPrefix() {
+        Random random = new Random(11);
+        double[] scores = new double[1_000];
+        TopK top = new TopK(25);
+        for (int id = 0; id < scores.length; id++) {
+            scores[id] = random.nextInt(50);
+            top.offer(id, scores[id]);
+        }
+
+        List<Integer> expected = IntStream.range(0, scores.length).boxed()
+                .sorted(Comparator.comparingDouble((Integer id) -> -scores[id]).thenComparing(id -> id))
+                .limit(25)
+                .collect(Collectors.toList());
+        assertEquals(expected, top.sorted());
+    }
+}
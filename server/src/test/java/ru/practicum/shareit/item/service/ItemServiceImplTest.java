@@ -1,21 +1,33 @@
 package ru.practicum.shareit.item.service;
 
 import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
 import ru.practicum.shareit.booking.enums.Status;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.overlap.BookingOverlapIndex;
+import ru.practicum.shareit.booking.overlap.BusyInterval;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.enums.SearchMode;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSuggester;
+import ru.practicum.shareit.item.search.SearchHits;
+import ru.practicum.shareit.item.search.SearchResultCache;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.service.RequestServiceImpl;
 import ru.practicum.shareit.user.model.User;
@@ -24,12 +36,15 @@ import ru.practicum.shareit.user.service.UserServiceImpl;
 import javax.validation.ValidationException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,6 +64,21 @@ class ItemServiceImplTest {
     @Mock
     private RequestServiceImpl requestService;
 
+    @Mock
+    private BookingOverlapIndex overlapIndex;
+
+    @Mock
+    private ItemSearchIndex searchIndex;
+
+    @Mock
+    private ItemSuggester suggester;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SearchResultCache searchCache = new SearchResultCache(new SimpleMeterRegistry(), 0);
+
     @InjectMocks
     private ItemServiceImpl service;
 
@@ -69,8 +99,9 @@ class ItemServiceImplTest {
         Comment commentToItem = new Comment(1, "Comment", booker, existingItem, created.plusDays(2));
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(existingItem));
-        when(bookingRepository.findAllByItem(existingItem)).thenReturn(Arrays.asList(booking));
-        when(commentRepository.findCommentByItemEquals(existingItem)).thenReturn(Arrays.asList(commentToItem));
+        when(bookingRepository.findLastAndNextBookingsOfItem(eq(itemId), any()))
+                .thenReturn(List.<Object[]>of(new Object[]{itemId, booking.getId(), bookerId, false}));
+        when(commentRepository.findAllByItemIdIn(List.of(itemId))).thenReturn(Arrays.asList(commentToItem));
 
         ItemResponseDto actual = service.getById(itemId, ownerId);
 
@@ -94,8 +125,6 @@ class ItemServiceImplTest {
 
     @Test
     void getById_whenNotOwnerGetsItemWithComments_thenItGetsReturned() {
-        LocalDateTime startDt = LocalDateTime.now().plusHours(1);
-        LocalDateTime endDt = LocalDateTime.now().plusDays(10);
         LocalDateTime created = LocalDateTime.now();
         int itemId = 1;
         int bookerId = 1;
@@ -105,15 +134,15 @@ class ItemServiceImplTest {
         User owner = new User(ownerId, "owner", "owner@mail.ru");
 
         Item existingItem = new Item(1, "itemName", "itemDesc", true, owner, null);
-        Booking booking = new Booking(1, startDt, endDt, existingItem, booker, Status.WAITING, created);
         Comment commentToItem = new Comment(1, "Comment", booker, existingItem, created.plusDays(2));
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(existingItem));
-        when(bookingRepository.findAllByItem(existingItem)).thenReturn(Arrays.asList(booking));
-        when(commentRepository.findCommentByItemEquals(existingItem)).thenReturn(Arrays.asList(commentToItem));
+        when(commentRepository.findAllByItemIdIn(List.of(itemId))).thenReturn(Arrays.asList(commentToItem));
 
         ItemResponseDto actual = service.getById(itemId, bookerId);
 
+        verify(bookingRepository, never()).findLastAndNextBookingsOfItem(any(), any());
+
         ItemResponseDto expected = new ItemResponseDto(1,
                 existingItem.getName(),
                 existingItem.getDescription(),
@@ -184,6 +213,7 @@ class ItemServiceImplTest {
 
         CreatedItemResponseDto actual = service.create(ownerId, itemToCreate);
         assertEquals(actual, expected);
+        verify(eventPublisher).publishEvent(argThat((ItemChangedEvent event) -> event.isCreated() && event.getItem().equals(item)));
     }
 
     @Test
@@ -351,16 +381,16 @@ class ItemServiceImplTest {
         User owner = new User(ownerId, "owner", "owner@mail.ru");
         Item existingItem = new Item(1, "itemName", null, true, owner, null);
 
-        when(itemRepository.search(query, pageRequest)).thenReturn(List.of(existingItem));
+        when(itemRepository.search(query, 0, pageRequest)).thenReturn(List.of(existingItem));
 
-        List<Item> actual = service.search(query, 0, 10);
+        List<Item> actual = service.search(query, null, null, 0, 0, 10, null);
         assertEquals(actual, List.of(existingItem));
     }
 
     @Test
     void search_whenQueryIsEmpty_thenEmptyListIsReturned() {
         String query = "";
-        List<Item> actual = service.search(query, 0, 10);
+        List<Item> actual = service.search(query, null, null, 0, 0, 10, null);
         assertEquals(actual, List.of());
     }
 
@@ -385,9 +415,9 @@ class ItemServiceImplTest {
                 owner,
                 null);
 
-        when(itemRepository.findAll(pageRequest)).thenReturn(new PageImpl<>(Arrays.asList(ownerItem1, ownerItem2)));
-        when(bookingRepository.findAllByItem(any())).thenReturn(List.of());
-        when(commentRepository.findCommentByItemEquals(any())).thenReturn(List.of());
+        when(itemRepository.findOwnerItems(ownerId, 0, pageRequest)).thenReturn(Arrays.asList(ownerItem1, ownerItem2));
+        when(bookingRepository.findLastAndNextBookingsOfItems(eq(List.of(1, 2)), any())).thenReturn(List.of());
+        when(commentRepository.findAllByItemIdIn(List.of(1, 2))).thenReturn(List.of());
 
         ItemResponseDto expected1 = new ItemResponseDto(1,
                 ownerItem1.getName(),
@@ -410,14 +440,255 @@ class ItemServiceImplTest {
                 null,
                 List.of()
         );
-        List<ItemResponseDto> actual = service.getAllUserItems(ownerId, 0, 10);
+        List<ItemResponseDto> actual = service.getAllUserItems(ownerId, 0, 10, null);
 
         assertEquals(actual, List.of(expected1, expected2));
     }
 
+    @Test
+    void getAllUserItems_whenItemsHaveBookingsAndComments_thenTheyAreAssembledFromBatch() {
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        LocalDateTime created = LocalDateTime.now();
+
+        int ownerId = 2;
+
+        User owner = new User(ownerId, "owner", "owner@mail.ru");
+        User booker = new User(1, "test", "test@mail.ru");
+        Item ownerItem1 = new Item(1, "itemName1", "itemDesc1", true, owner, null);
+        Item ownerItem2 = new Item(2, "itemName2", "itemDesc2", true, owner, null);
+        Comment comment = new Comment(5, "Comment", booker, ownerItem2, created);
+
+        when(itemRepository.findOwnerItems(ownerId, 0, pageRequest)).thenReturn(Arrays.asList(ownerItem1, ownerItem2));
+        when(bookingRepository.findLastAndNextBookingsOfItems(eq(List.of(1, 2)), any())).thenReturn(List.of(
+                new Object[]{1L, 10, 1L, true},
+                new Object[]{1L, 11, 1L, false},
+                new Object[]{2L, 12, 1L, false}));
+        when(commentRepository.findAllByItemIdIn(List.of(1, 2))).thenReturn(List.of(comment));
+
+        List<ItemResponseDto> actual = service.getAllUserItems(ownerId, 0, 10, null);
+
+        assertEquals(2, actual.size());
+        assertEquals(new BookingInfoDto(10, 1), actual.get(0).getLastBooking());
+        assertEquals(new BookingInfoDto(11, 1), actual.get(0).getNextBooking());
+        assertEquals(List.of(), actual.get(0).getComments());
+        assertNull(actual.get(1).getLastBooking());
+        assertEquals(new BookingInfoDto(12, 1), actual.get(1).getNextBooking());
+        assertEquals(List.of(new CommentResponseDTO(5, "Comment", "test", created)), actual.get(1).getComments());
+    }
+
     @Test
     void getItem_whenItemIsMissing_thenNoSuchElementExceptionIsThrown() {
         when(itemRepository.findById(1)).thenReturn(Optional.empty());
         assertThrows(NoSuchElementException.class, () -> service.getItem(1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAvailability_whenItemHasBusyIntervals_thenFreeGapsAreReturnedBetweenThem() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = from.plusDays(10);
+        User owner = new User(2, "owner", "owner@mail.ru");
+        Item item = new Item(1, "itemName", "itemDesc", true, owner, null);
+
+        when(itemRepository.findById(1)).thenReturn(Optional.of(item));
+        when(overlapIndex.busyIntervals(1, from, to)).thenReturn(List.of(
+                new BusyInterval(from, from.plusDays(2)),
+                new BusyInterval(from.plusDays(5), from.plusDays(6))));
+
+        ItemAvailabilityDto actual = service.getAvailability(1, from, to);
+
+        assertEquals(List.of(
+                new AvailabilitySlotDto(from, from.plusDays(2), false),
+                new AvailabilitySlotDto(from.plusDays(2), from.plusDays(5), true),
+                new AvailabilitySlotDto(from.plusDays(5), from.plusDays(6), false),
+                new AvailabilitySlotDto(from.plusDays(6), to, true)), actual.getSlots());
+    }
+
+    @Test
+    void getAvailability_whenRangeIsEmpty_thenValidationExceptionIsThrown() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+        assertThrows(ValidationException.class, () -> service.getAvailability(1, from, from));
+        verify(overlapIndex, never()).busyIntervals(any(), any(), any());
+    }
+
+    @Test
+    void search_whenDateRangeIsPassed_thenFreeItemsQueryIsUsed() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(2);
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        Item item = new Item(1, "drill", "drill", true, new User(2, "owner", "owner@mail.ru"), null);
+
+        when(itemRepository.searchFreeBetween("drill", start, end, 0, pageRequest)).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), service.search("drill", start, end, 0, 0, 10, null));
+        verify(itemRepository, never()).search(any(), any(), any());
+    }
+
+    @Test
+    void search_whenOnlyStartIsPassed_thenValidationExceptionIsThrown() {
+        assertThrows(ValidationException.class,
+                () -> service.search("drill", LocalDateTime.now(), null, 0, 0, 10, null));
+    }
+
+    @Test
+    void search_whenFuzzyIsPassedOutsideIndexMode_thenValidationExceptionIsThrown() {
+        ReflectionTestUtils.setField(service, "searchMode", SearchMode.TRIGRAM);
+
+        assertThrows(ValidationException.class,
+                () -> service.search("дрел", null, null, 1, 0, 10, null));
+        verifyNoInteractions(itemRepository, searchIndex);
+    }
+
+    @Test
+    void search_whenFuzzyIsPassedInIndexMode_thenIndexIsSearchedWithTypos() {
+        ReflectionTestUtils.setField(service, "searchMode", SearchMode.INDEX);
+        User owner = new User(2, "owner", "owner@mail.ru");
+        Item item = new Item(4, "дрель", "дрель", true, owner, null);
+        BitSet candidates = new BitSet();
+        candidates.set(4);
+
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("дрел", 1, false)).thenReturn(new SearchHits(candidates, List.of(), List.of(), Map.of(), null));
+        when(itemRepository.findAllWithOwnerByIdIn(List.of(4))).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), service.search("дрел", null, null, 1, 0, 10, null));
+    }
+
+    @Test
+    void search_whenFullTextIsEnabled_thenRankedFullTextQueryIsUsedForOffsetPages() {
+        ReflectionTestUtils.setField(service, "searchMode", SearchMode.FULL_TEXT);
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        Item item = new Item(1, "drill", "drill", true, new User(2, "owner", "owner@mail.ru"), null);
+
+        when(itemRepository.searchFullText("drill", 0, true, pageRequest)).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), service.search("drill", null, null, 0, 0, 10, null));
+        verify(itemRepository, never()).search(any(), any(), any());
+    }
+
+    @Test
+    void search_whenTrigramIsEnabledAndCursorIsPassed_thenUnrankedTrigramQueryIsUsed() {
+        ReflectionTestUtils.setField(service, "searchMode", SearchMode.TRIGRAM);
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        Item item = new Item(7, "дрель", "ударная дрель", true, new User(2, "owner", "owner@mail.ru"), null);
+
+        when(itemRepository.searchTrigram("дрел", 5, false, pageRequest)).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), service.search("дрел", null, null, 0, 0, 10, PageCursor.of(5)));
+    }
+
+    @Test
+    void search_whenIndexIsReady_thenBusyCandidatesAreSkippedAndPageIsLoadedInOneBatch() {
+        ReflectionTestUtils.setField(service, "searchMode", SearchMode.INDEX);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(2);
+        User owner = new User(2, "owner", "owner@mail.ru");
+        Item item4 = new Item(4, "дрель", "дрель", true, owner, null);
+        BitSet candidates = new BitSet();
+        candidates.set(1);
+        candidates.set(3);
+        candidates.set(4);
+        candidates.set(9);
+
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("дрель", 0, false)).thenReturn(new SearchHits(candidates, List.of(), List.of(), Map.of(), null));
+        when(bookingRepository.findItemIdsWithApprovedOverlap(List.of(1, 3, 4, 9), start, end)).thenReturn(List.of(3));
+        when(itemRepository.findAllWithOwnerByIdIn(List.of(4))).thenReturn(List.of(item4));
+
+        List<Item> actual = service.search("дрель", start, end, 0, 1, 1, null);
+
+        assertEquals(List.of(item4), actual);
+        verify(itemRepository, never()).searchFreeBetween(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void search_whenIndexModeAndPagedByOffset_thenItemsAreRankedByRelevance() {
+        ReflectionTestUtils.setField(service, "searchMode", SearchMode.INDEX);
+        User owner = new User(2, "owner", "owner@mail.ru");
+        Item item4 = new Item(4, "Ключ", "Дрель в комплекте", true, owner, null);
+        Item item9 = new Item(9, "Дрель", "Ударная", true, owner, null);
+        BitSet candidates = new BitSet();
+        candidates.set(1);
+        candidates.set(4);
+        candidates.set(9);
+        BitSet inName = new BitSet();
+        inName.set(9);
+        BitSet inDescription = new BitSet();
+        inDescription.set(1);
+        inDescription.set(4);
+        SearchHits hits = new SearchHits(candidates, List.of(inName), List.of(inDescription), Map.of(4, 3), null);
+
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("дрель", 0, false)).thenReturn(hits);
+        when(itemRepository.findAllWithOwnerByIdIn(List.of(9, 4))).thenReturn(List.of(item4, item9));
+
+        assertEquals(List.of(item9, item4), service.search("дрель", null, null, 0, 0, 2, null));
+    }
+
+    @Test
+    void suggest_whenSuggesterIsReady_thenItAnswersWithoutRepository() {
+        when(suggester.isReady()).thenReturn(true);
+        when(suggester.suggest("дре", 5)).thenReturn(List.of("Дрель"));
+
+        assertEquals(List.of("Дрель"), service.suggest("дре", 5));
+        verify(itemRepository, never()).findAvailableNamesStartingWith(any(), any());
+    }
+
+    @Test
+    void suggest_whenSuggesterIsNotBuiltYet_thenNamesComeFromRepository() {
+        when(suggester.isReady()).thenReturn(false);
+        when(itemRepository.findAvailableNamesStartingWith("дре", PageRequest.of(0, 5))).thenReturn(List.of("Дрель"));
+
+        assertEquals(List.of("Дрель"), service.suggest("дре", 5));
+        assertEquals(List.of(), service.suggest("  ", 5));
+    }
+
+    @Test
+    void suggest_whenSizeIsNotPositive_thenValidationExceptionIsThrown() {
+        assertThrows(ValidationException.class, () -> service.suggest("дре", 0));
+        verify(suggester, never()).suggest(any(), anyInt());
+        verify(itemRepository, never()).findAvailableNamesStartingWith(any(), any());
+    }
+
+    @Test
+    void searchWithFacets_whenLikeMode_thenFacetsComeFromOneGroupedQuery() {
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        Item item = new Item(1, "drill", "drill", true, new User(2, "owner", "owner@mail.ru"), null);
+        List<Object[]> rows = List.of(new Object[]{2, true, 1L, 0L}, new Object[]{2, false, 2L, 1L});
+
+        when(itemRepository.search("drill", 0, pageRequest)).thenReturn(List.of(item));
+        when(itemRepository.countFacets("drill")).thenReturn(rows);
+
+        ItemSearchResultDto actual = service.searchWithFacets("drill", null, null, 0, 0, 10, null);
+
+        assertEquals(List.of(item), actual.getItems());
+        assertEquals(new ItemSearchFacetsDto(1L, 2L, 1L, 2L, List.of(new OwnerFacetDto(2, 3L))), actual.getFacets());
+    }
+
+    @Test
+    void search_whenCacheIsEnabled_thenRepeatedQueryIsServedFromCacheUntilItemChanges() {
+        SearchResultCache cache = new SearchResultCache(new SimpleMeterRegistry(), 10);
+        ReflectionTestUtils.setField(service, "searchCache", cache);
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        User owner = new User(2, "owner", "owner@mail.ru");
+        Item item = new Item(1, "Палатка", "Двухместная", true, owner, null);
+        doAnswer(invocation -> {
+            cache.onItemChanged(invocation.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(ItemChangedEvent.class));
+        when(itemRepository.search("Палатка", 0, pageRequest)).thenReturn(List.of(item));
+        when(itemRepository.search("палатка", 0, pageRequest)).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), service.search("Палатка", null, null, 0, 0, 10, null));
+        assertEquals(List.of(item), service.search("палатка", null, null, 0, 0, 10, null));
+        verify(itemRepository, times(1)).search(any(), any(), any());
+
+        when(itemRepository.findById(1)).thenReturn(Optional.of(item));
+        when(userService.getUser(2)).thenReturn(owner);
+        when(itemRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        service.update(2, new ItemDto(1, null, "Трехместная", null));
+
+        service.search("палатка", null, null, 0, 0, 10, null);
+        verify(itemRepository, times(2)).search(any(), any(), any());
+    }
+}
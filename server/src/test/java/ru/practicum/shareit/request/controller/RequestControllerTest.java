@@ -8,10 +8,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.RequestRequestDTO;
 import ru.practicum.shareit.request.dto.RequestResponseDTO;
 import ru.practicum.shareit.request.dto.RequestedItemResponseDto;
+import ru.practicum.shareit.request.feed.RequestEventStream;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.service.RequestService;
 import ru.practicum.shareit.user.model.User;
@@ -22,9 +25,11 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = RequestController.class)
@@ -41,6 +46,9 @@ class RequestControllerTest {
     @MockBean
     private RequestService service;
 
+    @MockBean
+    private RequestEventStream eventStream;
+
     @SneakyThrows
     @Test
     void create_whenAllFieldsValid_thenRequestIsCreated() {
@@ -153,7 +161,7 @@ class RequestControllerTest {
                 request.getCreated(),
                 List.of(expectedItem));
 
-        when(service.getAllRequestsPageable(requestorId, 0, 10)).thenReturn(List.of(expected));
+        when(service.getAllRequestsPageable(requestorId, 0, 10, null)).thenReturn(List.of(expected));
 
         String actual = mockMvc.perform(get("/requests/all")
                         .header(OWNER_ID_HEADER, requestorId)
@@ -166,7 +174,19 @@ class RequestControllerTest {
                 .getContentAsString();
 
         assertEquals(objectMapper.writeValueAsString(List.of(expected)), actual);
-        verify(service).getAllRequestsPageable(requestorId, 0, 10);
+        verify(service).getAllRequestsPageable(requestorId, 0, 10, null);
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllRequestsPageable_whenCursorHasNoTime_thenBadRequest() {
+        mockMvc.perform(get("/requests/all")
+                        .header(OWNER_ID_HEADER, 1)
+                        .param("cursor", PageCursor.of(5).encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
     }
 
     @SneakyThrows
@@ -217,4 +237,47 @@ class RequestControllerTest {
         assertEquals(objectMapper.writeValueAsString(expected), actual);
         verify(service).getSingleRequestById(request.getId(), requestorId);
     }
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    void getMatchingRequests_whenOwnerAsks_thenRankedRequestsAreReturned() {
+        RequestResponseDTO expected = new RequestResponseDTO(3, "Нужна дрель", LocalDateTime.now().minusDays(1), List.of());
+
+        when(service.getMatchingRequests(2, 0, 5)).thenReturn(List.of(expected));
+
+        String actual = mockMvc.perform(get("/requests/matching")
+                        .header(OWNER_ID_HEADER, 2)
+                        .param("size", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(List.of(expected)), actual);
+    }
+
+    @SneakyThrows
+    @Test
+    void stream_whenSubscribed_thenEventStreamIsOpened() {
+        when(eventStream.subscribe(null)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/requests/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(eventStream).subscribe(null);
+    }
+
+    @SneakyThrows
+    @Test
+    void stream_whenReconnectedWithLastEventId_thenEventStreamIsOpened() {
+        when(eventStream.subscribe(42L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/requests/stream")
+                        .header("Last-Event-ID", 42)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(eventStream).subscribe(42L);
+    }
+}
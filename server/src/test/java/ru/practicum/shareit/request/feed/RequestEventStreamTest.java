@@ -0,0 +1,67 @@
+package ru.practicum.shareit.request.feed;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.request.event.RequestCreatedEvent;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.stream.SseBroadcaster;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class RequestEventStreamTest {
+    private final RequestEventStream stream = new RequestEventStream(16, 60_000, 1, 1, 60_000);
+    private final SseBroadcaster broadcaster = mock(SseBroadcaster.class);
+
+    private final User alice = new User(1, "alice", "alice@mail.ru");
+    private final LocalDateTime created = LocalDateTime.of(2023, 1, 1, 10, 0);
+
+    @BeforeEach
+    void setUp() {
+        stream.close();
+        ReflectionTestUtils.setField(stream, "broadcaster", broadcaster);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void subscribe_whenGatewayReconnects_thenMissedRequestsOrResetAreSentFirst() {
+        ArgumentCaptor<SseBroadcaster.Event> events = ArgumentCaptor.forClass(SseBroadcaster.Event.class);
+        stream.onRequestCreated(new RequestCreatedEvent(new Request(1, "дрель", alice, created)));
+        stream.onRequestCreated(new RequestCreatedEvent(new Request(2, "палатка", alice, created)));
+        verify(broadcaster, times(2)).publish(events.capture(), any(Predicate.class));
+        SseBroadcaster.Event first = events.getAllValues().get(0);
+        SseBroadcaster.Event second = events.getAllValues().get(1);
+        assertTrue(first.getId() > System.currentTimeMillis());
+        assertEquals(first.getId() + 1, second.getId());
+
+        stream.subscribe(first.getId());
+        verify(broadcaster).subscribe(null, List.of(second));
+
+        ArgumentCaptor<List<SseBroadcaster.Event>> backlog = ArgumentCaptor.forClass(List.class);
+        stream.subscribe(first.getId() - 1);
+        verify(broadcaster, times(2)).subscribe(isNull(), backlog.capture());
+        assertEquals(1, backlog.getValue().size());
+        assertEquals(RequestEventStream.RESET_EVENT, backlog.getValue().get(0).getName());
+
+        stream.subscribe(null);
+        verify(broadcaster).subscribe(null);
+    }
+}
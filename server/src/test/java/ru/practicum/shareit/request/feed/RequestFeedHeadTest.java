@@ -0,0 +1,102 @@
+package ru.practicum.shareit.request.feed;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.dto.RequestResponseDTO;
+import ru.practicum.shareit.request.dto.RequestedItemResponseDto;
+import ru.practicum.shareit.request.event.RequestCreatedEvent;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RequestFeedHeadTest {
+    @Mock
+    private RequestRepository requestRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private RequestFeedHead feedHead;
+
+    private final LocalDateTime created = LocalDateTime.of(2023, 1, 1, 10, 0);
+    private final User alice = new User(1, "alice", "alice@mail.ru");
+    private final User bob = new User(2, "bob", "bob@mail.ru");
+
+    @Test
+    void page_whenHeadHoldsAllRequests_thenOwnRequestsAreFilteredAndItemsFollowChanges() {
+        Request first = new Request(1, "дрель", alice, created);
+        Request second = new Request(2, "палатка", bob, created.plusHours(1));
+        Request third = new Request(3, "пила", alice, created.plusHours(2));
+        when(requestRepository.findNewestRequests(PageRequest.of(0, RequestFeedHead.HEAD_SIZE)))
+                .thenReturn(List.of(third, second, first));
+        when(itemRepository.findAllByRequestIdIn(anyList()))
+                .thenReturn(List.of(new Item(5, "Дрель", "Ударная", true, bob, first)));
+
+        feedHead.build();
+
+        assertEquals(List.of(2), ids(feedHead.page(1, 0, 10, null)));
+        List<RequestResponseDTO> bobsFeed = feedHead.page(2, 0, 10, null).orElseThrow();
+        assertEquals(List.of(3, 1), ids(Optional.of(bobsFeed)));
+        assertEquals(List.of(5), itemIds(bobsFeed.get(1)));
+        assertEquals(List.of(1), ids(feedHead.page(2, 1, 1, null)));
+        assertEquals(List.of(1), ids(feedHead.page(2, 0, 10, PageCursor.of(third.getCreated(), third.getId()))));
+
+        feedHead.onRequestCreated(new RequestCreatedEvent(new Request(4, "лодка", alice, created.plusHours(3))));
+        feedHead.onItemChanged(new ItemChangedEvent(null, new Item(6, "Пила", "Цепная", true, bob, third)));
+        feedHead.onItemChanged(new ItemChangedEvent(new Item(5, "Дрель", "Ударная", true, bob, first),
+                new Item(5, "Дрель", "Ударная", true, bob, null)));
+
+        bobsFeed = feedHead.page(2, 0, 10, null).orElseThrow();
+        assertEquals(List.of(4, 3, 1), ids(Optional.of(bobsFeed)));
+        assertEquals(List.of(6), itemIds(bobsFeed.get(1)));
+        assertEquals(List.of(), itemIds(bobsFeed.get(2)));
+    }
+
+    @Test
+    void page_whenPageGoesPastTrimmedHead_thenItIsLeftToDatabase() {
+        List<Request> newest = new ArrayList<>();
+        for (int i = RequestFeedHead.HEAD_SIZE; i > 0; i--) {
+            newest.add(new Request(i, "запрос " + i, i % 2 == 0 ? alice : bob, created.plusMinutes(i)));
+        }
+        when(requestRepository.findNewestRequests(PageRequest.of(0, RequestFeedHead.HEAD_SIZE))).thenReturn(newest);
+        when(itemRepository.findAllByRequestIdIn(anyList())).thenReturn(List.of());
+
+        feedHead.build();
+
+        assertEquals(10, feedHead.page(1, 0, 10, null).orElseThrow().size());
+        assertEquals(10, feedHead.page(1, 90, 10, null).orElseThrow().size());
+        assertTrue(feedHead.page(1, 95, 10, null).isEmpty());
+
+        feedHead.requestCreated(new Request(1000, "старый", alice, created.minusDays(1)));
+        assertTrue(feedHead.page(2, 100, 10, null).isEmpty());
+    }
+
+    private static List<Integer> ids(Optional<List<RequestResponseDTO>> page) {
+        return page.orElseThrow().stream().map(RequestResponseDTO::getId).collect(Collectors.toList());
+    }
+
+    private static List<Integer> itemIds(RequestResponseDTO request) {
+        return request.getItems().stream().map(RequestedItemResponseDto::getId).collect(Collectors.toList());
+    }
+}
@@ -12,7 +12,6 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -31,7 +30,7 @@ class RequestRepositoryTest {
     private RequestRepository requestRepository;
 
     @Test
-    void findRequestsWithItemsByUser_whenSeveralItemsOnOneRequest_thenAllItemsAreReturned() {
+    void findRequestsByUser_whenSeveralItemsOnOneRequest_thenRequestIsReturnedOnce() {
         LocalDateTime created = LocalDateTime.of(2022, 10, 10, 10, 10);
 
         User requestor = userRepository.save(new User(null, "test", "test@mail.ru"));
@@ -42,27 +41,12 @@ class RequestRepositoryTest {
         Item item1 = itemRepository.save(new Item(null, "itemName", "itemDesc", true, owner, request));
         Item item2 = itemRepository.save(new Item(null, "itemName2", "itemDesc2", true, owner, request));
 
-        List<Object[]> objects = requestRepository.findRequestsWithItemsByUser(requestor);
-
-        List<Item> items = new ArrayList<>();
-        List<Request> requests = new ArrayList<>();
-
-        for (Object[] o : objects) {
-            Item item = (Item) o[0];
-            if (item != null) {
-                items.add(item);
-            }
-            Request req = (Request) o[1];
-            requests.add(req);
-        }
-
-        assertEquals(items, List.of(item1, item2));
-        assertEquals(requests, List.of(request, request));
-
+        assertEquals(List.of(request), requestRepository.findRequestsByUser(requestor));
+        assertEquals(List.of(item1, item2), itemRepository.findAllByRequestIdIn(List.of(request.getId())));
     }
 
     @Test
-    void findAllRequestsOfOtherUsersWithItemsPageable_whenRequestsAreByUser_thenTheyAreFilteredAndNotReturned() {
+    void findRequestsOfOtherUsers_whenRequestsAreByUser_thenTheyAreFilteredAndNotReturned() {
         PageRequest pageRequest = PageRequest.of(0, 10);
         LocalDateTime created = LocalDateTime.of(2022, 10, 10, 10, 10);
 
@@ -74,53 +58,26 @@ class RequestRepositoryTest {
         itemRepository.save(new Item(null, "itemName", "itemDesc", true, owner, request));
         itemRepository.save(new Item(null, "itemName2", "itemDesc2", true, owner, request));
 
-        List<Object[]> objects = requestRepository.findAllRequestsOfOtherUsersWithItemsPageable(requestor, pageRequest);
-
-        List<Item> items = new ArrayList<>();
-        List<Request> requests = new ArrayList<>();
-
-        for (Object[] o : objects) {
-            Item item = (Item) o[0];
-            if (item != null) {
-                items.add(item);
-            }
-            Request req = (Request) o[1];
-            requests.add(req);
-        }
-
-        assertEquals(items, Collections.emptyList());
-        assertEquals(requests, Collections.emptyList());
+        assertEquals(Collections.emptyList(), requestRepository.findRequestsOfOtherUsers(requestor, pageRequest));
     }
 
     @Test
-    void findAllRequestsOfOtherUsersWithItemsPageable_whenRequestsAreByOtherPeople_thenTheyAreReturned() {
-        PageRequest pageRequest = PageRequest.of(0, 10);
+    void findRequestsOfOtherUsers_whenRequestsHaveSeveralItems_thenPageSizeCountsRequests() {
         LocalDateTime created = LocalDateTime.of(2022, 10, 10, 10, 10);
 
         User requestor = userRepository.save(new User(null, "test", "test@mail.ru"));
         User owner = userRepository.save(new User(null, "owner", "owner@mail.ru"));
 
-        Request request = requestRepository.save(new Request(1, "ReqDescription", requestor, created));
-
-        Item item1 = itemRepository.save(new Item(null, "itemName", "itemDesc", true, owner, request));
-        Item item2 = itemRepository.save(new Item(null, "itemName2", "itemDesc2", true, owner, request));
-
-        List<Object[]> objects = requestRepository.findAllRequestsOfOtherUsersWithItemsPageable(owner, pageRequest);
-
-        List<Item> items = new ArrayList<>();
-        List<Request> requests = new ArrayList<>();
+        Request older = requestRepository.save(new Request(null, "ReqDescription", requestor, created));
+        Request newer = requestRepository.save(new Request(null, "ReqDescription2", requestor, created.plusDays(1)));
 
-        for (Object[] o : objects) {
-            Item item = (Item) o[0];
-            if (item != null) {
-                items.add(item);
-            }
-            Request req = (Request) o[1];
-            requests.add(req);
+        for (int i = 0; i < 3; i++) {
+            itemRepository.save(new Item(null, "itemName" + i, "itemDesc", true, owner, older));
+            itemRepository.save(new Item(null, "otherName" + i, "itemDesc", true, owner, newer));
         }
 
-        assertEquals(items, List.of(item1, item2));
-        assertEquals(requests, List.of(request, request));
+        assertEquals(List.of(newer, older), requestRepository.findRequestsOfOtherUsers(owner, PageRequest.of(0, 2)));
+        assertEquals(List.of(older), requestRepository.findRequestsOfOtherUsers(owner, PageRequest.of(1, 1)));
     }
 
     @AfterEach
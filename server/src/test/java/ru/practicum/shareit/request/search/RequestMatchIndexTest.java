@@ -0,0 +1,59 @@
+package ru.practicum.shareit.request.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.search.ItemAnalyzer;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RequestMatchIndexTest {
+    @Mock
+    private RequestRepository requestRepository;
+
+    @InjectMocks
+    private RequestMatchIndex index;
+
+    @Test
+    void match_whenRequestsShareTermsWithItems_thenRareTermsRankHigherAndOwnRequestsAreSkipped() {
+        when(requestRepository.findDescriptionsAfter(0, PageRequest.of(0, 10_000))).thenReturn(List.of(
+                new Object[]{1, 2, "Нужна дрель на выходные"},
+                new Object[]{2, 2, "Нужна палатка"},
+                new Object[]{3, 3, "Нужна ударная дрель"},
+                new Object[]{4, 1, "Нужна дрель"},
+                new Object[]{5, 3, "Ищу лодку"}));
+
+        index.build();
+
+        assertTrue(index.isReady());
+        List<String> terms = ItemAnalyzer.analyze("Дрель ударная, нужна для ремонта");
+        assertEquals(List.of(3, 1, 2), index.match(terms, 1, Set.of(), 10));
+        assertEquals(List.of(3), index.match(terms, 1, Set.of(), 1));
+        assertEquals(List.of(1, 2), index.match(terms, 1, Set.of(3), 10));
+        assertEquals(List.of(), index.match(ItemAnalyzer.analyze("Байдарка"), 1, Set.of(), 10));
+    }
+
+    @Test
+    void add_whenRequestIsCreated_thenItCanBeMatched() {
+        when(requestRepository.findDescriptionsAfter(0, PageRequest.of(0, 10_000))).thenReturn(List.of());
+        index.build();
+
+        index.add(new Request(7, "Нужны дрели", new User(2, "user", "user@mail.ru"), LocalDateTime.now()));
+
+        assertEquals(List.of(7), index.match(ItemAnalyzer.analyze("Дрель"), 1, Set.of(), 10));
+        assertEquals(List.of(), index.match(ItemAnalyzer.analyze("Дрель"), 2, Set.of(), 10));
+    }
+}
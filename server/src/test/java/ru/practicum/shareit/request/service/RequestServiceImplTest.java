@@ -5,23 +5,30 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemAnalyzer;
+import ru.practicum.shareit.request.feed.RequestFeedHead;
 import ru.practicum.shareit.request.dto.RequestRequestDTO;
 import ru.practicum.shareit.request.dto.RequestResponseDTO;
 import ru.practicum.shareit.request.dto.RequestedItemResponseDto;
+import ru.practicum.shareit.request.event.RequestCreatedEvent;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.request.search.RequestMatchIndex;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class RequestServiceImplTest {
@@ -35,6 +42,15 @@ class RequestServiceImplTest {
     @Mock
     private RequestRepository requestRepository;
 
+    @Mock
+    private RequestFeedHead feedHead;
+
+    @Mock
+    private RequestMatchIndex matchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private RequestServiceImpl service;
 
@@ -57,6 +73,8 @@ class RequestServiceImplTest {
         assertEquals(actual.getId(), expected.getId());
         assertEquals(actual.getDescription(), expected.getDescription());
         assertEquals(actual.getRequestor(), expected.getRequestor());
+        verify(requestRepository).save(argThat(it -> it.getCreated().getNano() % 1000 == 0));
+        verify(eventPublisher).publishEvent(argThat((RequestCreatedEvent event) -> event.getRequest().getId().equals(1)));
     }
 
     @Test
@@ -88,11 +106,8 @@ class RequestServiceImplTest {
                 request);
 
         when(userService.getUser(requestorId)).thenReturn(requestor);
-        Object[] obj = {createdItem, request};
-        Object[] obj2 = {createdItem2, request};
-        List<Object[]> objList = List.of(obj, obj2);
-
-        when(requestRepository.findRequestsWithItemsByUser(requestor)).thenReturn(objList);
+        when(requestRepository.findRequestsByUser(requestor)).thenReturn(List.of(request));
+        when(itemRepository.findAllByRequestIdIn(List.of(request.getId()))).thenReturn(List.of(createdItem, createdItem2));
 
         RequestedItemResponseDto expectedItem = new RequestedItemResponseDto(createdItem.getId(),
                 createdItem.getName(),
@@ -143,12 +158,9 @@ class RequestServiceImplTest {
                 true,
                 owner,
                 request);
-        Object[] obj = {createdItem, request};
-        Object[] obj2 = {createdItem2, request};
-        List<Object[]> objList = List.of(obj, obj2);
-
         when(userService.getUser(ownerId)).thenReturn(owner);
-        when(requestRepository.findAllRequestsOfOtherUsersWithItemsPageable(owner, pageRequest)).thenReturn(objList);
+        when(requestRepository.findRequestsOfOtherUsers(owner, pageRequest)).thenReturn(List.of(request));
+        when(itemRepository.findAllByRequestIdIn(List.of(request.getId()))).thenReturn(List.of(createdItem, createdItem2));
 
         RequestedItemResponseDto expectedItem1 = new RequestedItemResponseDto(createdItem.getId(),
                 createdItem.getName(),
@@ -167,10 +179,48 @@ class RequestServiceImplTest {
                 request.getCreated(),
                 List.of(expectedItem1, expectedItem2));
 
-        List<RequestResponseDTO> actual = service.getAllRequestsPageable(ownerId, 0, 10);
+        List<RequestResponseDTO> actual = service.getAllRequestsPageable(ownerId, 0, 10, null);
         assertEquals(List.of(expected), actual);
     }
 
+    @Test
+    void getAllRequestsPageable_whenPageHasSeveralRequests_thenItemsAreGroupedByTheirRequest() {
+        PageRequest pageRequest = PageRequest.of(0, 2);
+        User requestor = new User(1, "requestor", "requestor@mail.ru");
+        User owner = new User(2, "owner", "owner@mail.ru");
+        LocalDateTime created = LocalDateTime.now().minusDays(1);
+
+        Request newer = new Request(2, "desc2", requestor, created.plusHours(1));
+        Request older = new Request(1, "desc1", requestor, created);
+        Item item1 = new Item(1, "itemName", "itemDesc", true, owner, older);
+        Item item2 = new Item(2, "itemName2", "itemDesc2", true, owner, newer);
+        Item item3 = new Item(3, "itemName3", "itemDesc3", true, owner, older);
+
+        when(userService.getUser(2)).thenReturn(owner);
+        when(requestRepository.findRequestsOfOtherUsers(owner, pageRequest)).thenReturn(List.of(newer, older));
+        when(itemRepository.findAllByRequestIdIn(List.of(2, 1))).thenReturn(List.of(item1, item2, item3));
+
+        List<RequestResponseDTO> actual = service.getAllRequestsPageable(2, 0, 2, null);
+
+        assertEquals(2, actual.size());
+        assertEquals(2, actual.get(0).getId());
+        assertEquals(List.of(2), actual.get(0).getItems().stream().map(RequestedItemResponseDto::getId).collect(Collectors.toList()));
+        assertEquals(1, actual.get(1).getId());
+        assertEquals(List.of(1, 3), actual.get(1).getItems().stream().map(RequestedItemResponseDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void getAllRequestsPageable_whenFeedHeadHasThePage_thenDatabaseIsNotQueried() {
+        User owner = new User(2, "owner", "owner@mail.ru");
+        List<RequestResponseDTO> page = List.of(new RequestResponseDTO(1, "desc1", LocalDateTime.now(), List.of()));
+
+        when(userService.getUser(2)).thenReturn(owner);
+        when(feedHead.page(2, 10L, 10, null)).thenReturn(Optional.of(page));
+
+        assertEquals(page, service.getAllRequestsPageable(2, 10, 10, null));
+        verify(requestRepository, never()).findRequestsOfOtherUsers(any(), any());
+    }
+
     @Test
     void getAllRequestsPageable_whenOwnerAsks_thenHisRequestsAreNotReturned() {
         PageRequest pageRequest = PageRequest.of(0, 10);
@@ -184,9 +234,9 @@ class RequestServiceImplTest {
                 created);
 
         when(userService.getUser(requestorId)).thenReturn(requestor);
-        when(requestRepository.findAllRequestsOfOtherUsersWithItemsPageable(requestor, pageRequest)).thenReturn(Collections.emptyList());
+        when(requestRepository.findRequestsOfOtherUsers(requestor, pageRequest)).thenReturn(Collections.emptyList());
 
-        List<RequestResponseDTO> actual = service.getAllRequestsPageable(requestorId, 0, 10);
+        List<RequestResponseDTO> actual = service.getAllRequestsPageable(requestorId, 0, 10, null);
         assertEquals(List.of(), actual);
     }
 
@@ -281,4 +331,35 @@ class RequestServiceImplTest {
         Request actual = service.getRequest(1);
         assertEquals(actual, request);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getMatchingRequests_whenIndexRanksRequests_thenRequestedPageIsReturnedInRankOrder() {
+        User owner = new User(2, "owner", "owner@mail.ru");
+        User requestor = new User(1, "requestor", "requestor@mail.ru");
+        LocalDateTime created = LocalDateTime.now().minusDays(1);
+        Request first = new Request(4, "Нужна ударная дрель", requestor, created);
+        Request second = new Request(9, "Нужна дрель", requestor, created.plusHours(1));
+
+        when(userService.getUser(2)).thenReturn(owner);
+        when(matchIndex.isReady()).thenReturn(true);
+        when(itemRepository.findAvailableItemTextsOfOwner(2)).thenReturn(List.<Object[]>of(new Object[]{"Дрель", "Ударная"}));
+        when(itemRepository.findRequestIdsAnsweredByOwner(2)).thenReturn(List.of(5));
+        when(matchIndex.match(ItemAnalyzer.analyze("Дрель Ударная"), 2, Set.of(5), 4)).thenReturn(List.of(7, 8, 4, 9));
+        when(requestRepository.findAllById(List.of(4, 9))).thenReturn(List.of(second, first));
+        when(itemRepository.findAllByRequestIdIn(List.of(4, 9))).thenReturn(List.of());
+
+        List<RequestResponseDTO> actual = service.getMatchingRequests(2, 2, 2);
+
+        assertEquals(List.of(4, 9), actual.stream().map(RequestResponseDTO::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void getMatchingRequests_whenOwnerHasNoAvailableItems_thenNothingIsMatched() {
+        when(userService.getUser(2)).thenReturn(new User(2, "owner", "owner@mail.ru"));
+        when(matchIndex.isReady()).thenReturn(true);
+        when(itemRepository.findAvailableItemTextsOfOwner(2)).thenReturn(List.of());
+
+        assertEquals(List.of(), service.getMatchingRequests(2, 0, 10));
+        verify(matchIndex, never()).match(any(), any(), any(), anyInt());
+    }
+}
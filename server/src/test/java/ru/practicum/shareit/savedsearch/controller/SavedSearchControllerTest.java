@@ -0,0 +1,84 @@
+package ru.practicum.shareit.savedsearch.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.savedsearch.dto.SavedSearchRequestDto;
+import ru.practicum.shareit.savedsearch.dto.SavedSearchResponseDto;
+import ru.practicum.shareit.savedsearch.dto.SearchNotificationDto;
+import ru.practicum.shareit.savedsearch.service.SavedSearchService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = SavedSearchController.class)
+class SavedSearchControllerTest {
+
+    private static final String OWNER_ID_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SavedSearchService service;
+
+    @SneakyThrows
+    @Test
+    void create_whenTextIsPresent_thenSearchIsCreated() {
+        SavedSearchRequestDto request = new SavedSearchRequestDto("дрель");
+        SavedSearchResponseDto expected = new SavedSearchResponseDto(1, "дрель", LocalDateTime.of(2023, 1, 1, 10, 0));
+        when(service.create(2, request)).thenReturn(expected);
+
+        String actual = mockMvc.perform(post("/searches")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(OWNER_ID_HEADER, 2)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(expected), actual);
+    }
+
+    @SneakyThrows
+    @Test
+    void delete_whenCalled_thenServiceDeletesSearch() {
+        mockMvc.perform(delete("/searches/{searchId}", 1).header(OWNER_ID_HEADER, 2))
+                .andExpect(status().isOk());
+
+        verify(service).delete(2, 1);
+    }
+
+    @SneakyThrows
+    @Test
+    void getNotifications_whenCursorPageIsFull_thenNextCursorIsReturned() {
+        LocalDateTime created = LocalDateTime.of(2023, 1, 1, 10, 0);
+        SearchNotificationDto notification = new SearchNotificationDto(7, 1, "дрель", 3, "Дрель", "Ударная", created);
+        when(service.getNotifications(2, 0, 1, PageCursor.FIRST)).thenReturn(List.of(notification));
+
+        mockMvc.perform(get("/searches/notifications")
+                        .header(OWNER_ID_HEADER, 2)
+                        .param("size", "1")
+                        .param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER, PageCursor.of(created, 7).encode()));
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.savedsearch.percolator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.savedsearch.repository.SavedSearchRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SavedSearchPercolatorTest {
+    @Mock
+    private SavedSearchRepository savedSearchRepository;
+
+    @InjectMocks
+    private SavedSearchPercolator percolator;
+
+    @Test
+    void match_whenEveryQueryTermStartsSomeItemTerm_thenSearchMatches() {
+        when(savedSearchRepository.findTextsAfter(0, PageRequest.of(0, 10_000))).thenReturn(List.of(
+                new Object[]{1, "дрель"},
+                new Object[]{2, "Дрели ударные"},
+                new Object[]{3, "дрель аккумуляторная"},
+                new Object[]{4, "шуруп"},
+                new Object[]{5, "палатка"}));
+
+        percolator.build();
+
+        assertTrue(percolator.isReady());
+        assertEquals(List.of(1, 2, 4), percolator.match(new Item(1, "Дрель-шуруповерт", "Ударная, 18 В", true, null, null)));
+        assertEquals(List.of(1, 3), percolator.match(new Item(2, "Дрель", "Аккумуляторная", true, null, null)));
+        assertEquals(List.of(), percolator.match(new Item(3, "Пила", "Цепная", true, null, null)));
+    }
+
+    @Test
+    void addAndRemove_whenSearchChanges_thenMatchesFollow() {
+        when(savedSearchRepository.findTextsAfter(0, PageRequest.of(0, 10_000))).thenReturn(List.of());
+        percolator.build();
+        Item tent = new Item(1, "Палатка двухместная", "Легкая", true, null, null);
+
+        percolator.add(7, "палатка легкая");
+        percolator.add(8, "палат");
+        percolator.add(9, " , ");
+        assertEquals(List.of(7, 8), percolator.match(tent));
+
+        percolator.remove(7);
+        percolator.add(8, "палатка тяжелая");
+        assertEquals(List.of(), percolator.match(tent));
+    }
+}
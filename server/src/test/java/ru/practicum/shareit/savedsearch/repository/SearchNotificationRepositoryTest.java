@@ -0,0 +1,63 @@
+package ru.practicum.shareit.savedsearch.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.savedsearch.model.SavedSearch;
+import ru.practicum.shareit.savedsearch.model.SearchNotification;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class SearchNotificationRepositoryTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SavedSearchRepository savedSearchRepository;
+
+    @Autowired
+    private SearchNotificationRepository notificationRepository;
+
+    @Test
+    void findUserNotifications_whenPagedByCursor_thenNewestNotificationsOfUserGoFirst() {
+        LocalDateTime created = LocalDateTime.of(2023, 1, 1, 10, 0);
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.ru"));
+        User renter = userRepository.save(new User(null, "renter", "renter@mail.ru"));
+        User other = userRepository.save(new User(null, "other", "other@mail.ru"));
+
+        SavedSearch drill = savedSearchRepository.save(new SavedSearch(null, renter, "дрель", created));
+        SavedSearch othersDrill = savedSearchRepository.save(new SavedSearch(null, other, "дрель", created));
+        Item item1 = itemRepository.save(new Item(null, "Дрель", "Ударная", true, owner, null));
+        Item item2 = itemRepository.save(new Item(null, "Дрель", "Аккумуляторная", true, owner, null));
+
+        SearchNotification first = notificationRepository.save(new SearchNotification(null, drill, renter, item1, created));
+        SearchNotification second = notificationRepository.save(new SearchNotification(null, drill, renter, item2, created.plusHours(1)));
+        notificationRepository.save(new SearchNotification(null, othersDrill, other, item1, created));
+
+        PageCursor cursor = PageCursor.FIRST;
+        List<SearchNotification> firstPage = notificationRepository.findUserNotifications(renter.getId(),
+                cursor.getTime(), cursor.getId(), PageRequest.of(0, 1));
+        assertEquals(List.of(second), firstPage);
+
+        List<SearchNotification> secondPage = notificationRepository.findUserNotifications(renter.getId(),
+                second.getCreated(), second.getId(), PageRequest.of(0, 1));
+        assertEquals(List.of(first), secondPage);
+
+        assertEquals(List.of(drill.getId()),
+                notificationRepository.findNotifiedSearchIds(item1.getId(), List.of(drill.getId(), 100)));
+    }
+}
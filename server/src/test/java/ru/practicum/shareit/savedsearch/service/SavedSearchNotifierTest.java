@@ -0,0 +1,57 @@
+package ru.practicum.shareit.savedsearch.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.savedsearch.percolator.SavedSearchPercolator;
+import ru.practicum.shareit.savedsearch.repository.SavedSearchRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SavedSearchNotifierTest {
+    private final SavedSearchRepository savedSearchRepository = mock(SavedSearchRepository.class);
+    private final SavedSearchService savedSearchService = mock(SavedSearchService.class);
+    private final SavedSearchPercolator percolator = new SavedSearchPercolator(savedSearchRepository);
+    private final SavedSearchNotifier notifier = new SavedSearchNotifier(savedSearchService, percolator, Runnable::run);
+    private final User owner = new User(1, "owner", "owner@mail.ru");
+
+    @Test
+    void onItemChanged_whenPercolatorIsBuilding_thenItemsWaitAndAreCheckedInOrderOnceItIsReady() {
+        Item tent = new Item(1, "Палатка", "Двухместная", true, owner, null);
+        Item hidden = new Item(2, "Дрель", "Ударная", false, owner, null);
+        Item saw = new Item(3, "Пила", "Цепная", true, owner, null);
+        when(savedSearchRepository.findTextsAfter(0, PageRequest.of(0, 10_000))).thenReturn(List.of());
+
+        notifier.onItemChanged(new ItemChangedEvent(null, tent));
+        notifier.onItemChanged(new ItemChangedEvent(null, hidden));
+        notifier.onItemChanged(new ItemChangedEvent(null, saw));
+        verifyNoInteractions(savedSearchService);
+
+        percolator.build();
+
+        InOrder order = inOrder(savedSearchService);
+        order.verify(savedSearchService).notifyMatches(tent);
+        order.verify(savedSearchService).notifyMatches(saw);
+        verify(savedSearchService, times(2)).notifyMatches(any());
+    }
+
+    @Test
+    void onItemChanged_whenPercolatorIsReady_thenItemIsCheckedAndFailuresDoNotStopTheQueue() {
+        Item tent = new Item(1, "Палатка", "Двухместная", true, owner, null);
+        Item saw = new Item(3, "Пила", "Цепная", true, owner, null);
+        when(savedSearchRepository.findTextsAfter(0, PageRequest.of(0, 10_000))).thenReturn(List.of());
+        percolator.build();
+        doThrow(new IllegalStateException("db is down")).when(savedSearchService).notifyMatches(tent);
+
+        notifier.onItemChanged(new ItemChangedEvent(null, tent));
+        notifier.onItemChanged(new ItemChangedEvent(null, saw));
+
+        verify(savedSearchService).notifyMatches(saw);
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.savedsearch.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.savedsearch.dto.SavedSearchRequestDto;
+import ru.practicum.shareit.savedsearch.dto.SavedSearchResponseDto;
+import ru.practicum.shareit.savedsearch.event.SavedSearchChangedEvent;
+import ru.practicum.shareit.savedsearch.model.SavedSearch;
+import ru.practicum.shareit.savedsearch.model.SearchNotification;
+import ru.practicum.shareit.savedsearch.percolator.SavedSearchPercolator;
+import ru.practicum.shareit.savedsearch.repository.SavedSearchRepository;
+import ru.practicum.shareit.savedsearch.repository.SearchNotificationRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserServiceImpl;
+
+import javax.validation.ValidationException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SavedSearchServiceImplTest {
+    @Mock
+    private SavedSearchRepository savedSearchRepository;
+
+    @Mock
+    private SearchNotificationRepository notificationRepository;
+
+    @Mock
+    private SavedSearchPercolator percolator;
+
+    @Mock
+    private UserServiceImpl userService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private SavedSearchServiceImpl service;
+
+    private final User owner = new User(1, "owner", "owner@mail.ru");
+    private final User renter = new User(2, "renter", "renter@mail.ru");
+    private final User other = new User(3, "other", "other@mail.ru");
+
+    @Test
+    void create_whenTextHasWords_thenSearchIsSavedAndIndexed() {
+        LocalDateTime created = LocalDateTime.of(2023, 1, 1, 10, 0);
+        when(userService.getUser(2)).thenReturn(renter);
+        when(savedSearchRepository.save(any())).thenReturn(new SavedSearch(5, renter, "дрель", created));
+
+        SavedSearchResponseDto actual = service.create(2, new SavedSearchRequestDto("дрель"));
+
+        assertEquals(new SavedSearchResponseDto(5, "дрель", created), actual);
+        verify(eventPublisher).publishEvent(argThat((SavedSearchChangedEvent event) ->
+                event.getSearchId().equals(5) && "дрель".equals(event.getText())));
+    }
+
+    @Test
+    void create_whenTextHasNoWords_thenValidationExceptionIsThrown() {
+        when(userService.getUser(2)).thenReturn(renter);
+
+        assertThrows(ValidationException.class, () -> service.create(2, new SavedSearchRequestDto(" ,. ")));
+        verify(savedSearchRepository, never()).save(any());
+    }
+
+    @Test
+    void delete_whenSearchBelongsToAnotherUser_thenNoSuchElementExceptionIsThrown() {
+        when(savedSearchRepository.findById(5)).thenReturn(Optional.of(new SavedSearch(5, renter, "дрель", null)));
+
+        assertThrows(NoSuchElementException.class, () -> service.delete(3, 5));
+        verify(savedSearchRepository, never()).delete(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void notifyMatches_whenItemMatches_thenOnlyNewSearchesOfOtherUsersAreNotified() {
+        Item item = new Item(10, "Дрель", "Ударная", true, owner, null);
+        SavedSearch ownSearch = new SavedSearch(4, owner, "дрель", null);
+        SavedSearch notifiedSearch = new SavedSearch(5, renter, "дрель", null);
+        SavedSearch newSearch = new SavedSearch(6, other, "дрель ударная", null);
+
+        when(percolator.match(item)).thenReturn(List.of(4, 5, 6));
+        when(notificationRepository.findNotifiedSearchIds(10, List.of(4, 5, 6))).thenReturn(List.of(5));
+        when(savedSearchRepository.findAllById(List.of(4, 5, 6))).thenReturn(List.of(ownSearch, notifiedSearch, newSearch));
+
+        service.notifyMatches(item);
+
+        verify(notificationRepository).saveAll(argThat((List<SearchNotification> saved) ->
+                saved.size() == 1 && saved.get(0).getSavedSearch() == newSearch && saved.get(0).getItem() == item));
+    }
+
+    @Test
+    void notifyMatches_whenItemIsUnavailable_thenNothingIsMatched() {
+        service.notifyMatches(new Item(10, "Дрель", "Ударная", false, owner, null));
+
+        verify(percolator, never()).match(any());
+        verify(notificationRepository, never()).saveAll(anyList());
+    }
+}
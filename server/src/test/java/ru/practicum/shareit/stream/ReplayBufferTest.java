@@ -0,0 +1,47 @@
+package ru.practicum.shareit.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayBufferTest {
+    private final ReplayBuffer buffer = new ReplayBuffer(3);
+
+    @Test
+    void after_whenEventsAreInWindow_thenMissedEventsOfRecipientAreReturned() {
+        buffer.add(event(11), 1);
+        buffer.add(event(12), 2);
+        buffer.add(event(13), 1);
+
+        assertEquals(List.of(13L), ids(buffer.after(11, 1)));
+        assertEquals(List.of(12L, 13L), ids(buffer.after(11, null)));
+        assertEquals(List.of(11L, 13L), ids(buffer.after(10, 1)));
+        assertEquals(List.of(), ids(buffer.after(13, 1)));
+    }
+
+    @Test
+    void after_whenMissedEventsLeftWindowOrPrecedeIt_thenReplayIsImpossible() {
+        assertTrue(buffer.after(5, 1).isEmpty());
+
+        for (long id = 11; id <= 15; id++) {
+            buffer.add(event(id), 1);
+        }
+
+        assertTrue(buffer.after(9, 1).isEmpty());
+        assertTrue(buffer.after(11, 1).isEmpty());
+        assertEquals(List.of(13L, 14L, 15L), ids(buffer.after(12, 1)));
+    }
+
+    private static SseBroadcaster.Event event(long id) {
+        return new SseBroadcaster.Event(id, "booking-status", "data");
+    }
+
+    private static List<Long> ids(Optional<List<SseBroadcaster.Event>> events) {
+        return events.orElseThrow().stream().map(SseBroadcaster.Event::getId).collect(Collectors.toList());
+    }
+}
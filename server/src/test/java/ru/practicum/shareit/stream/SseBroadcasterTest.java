@@ -0,0 +1,166 @@
+package ru.practicum.shareit.stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseBroadcasterTest {
+    private static final int SENDER_THREADS = 2;
+
+    private final SseBroadcaster broadcaster = new SseBroadcaster("test", 2, 60_000, SENDER_THREADS, 60_000);
+
+    @AfterEach
+    void close() {
+        broadcaster.close();
+    }
+
+    @Test
+    void publish_whenAudienceIsSet_thenOnlyMatchingSubscribersReceiveEvents() throws InterruptedException {
+        RecordingEmitter first = new RecordingEmitter(1, null);
+        RecordingEmitter second = new RecordingEmitter(1, null);
+        broadcaster.register(first, 1, List.of());
+        broadcaster.register(second, 2, List.of());
+
+        broadcaster.publish(new SseBroadcaster.Event(1, "request", "data"), userId -> !userId.equals(2));
+
+        assertTrue(first.received.await(5, TimeUnit.SECONDS));
+        assertEquals(1, first.events.size());
+        assertTrue(first.events.get(0).startsWith("id:1\nevent:request\n"));
+        assertEquals(List.of(), second.events);
+    }
+
+    @Test
+    void publish_whenSubscriberIsTooSlow_thenItIsDroppedAndOthersKeepReceiving() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(1, release);
+        RecordingEmitter fast = new RecordingEmitter(4, null);
+        broadcaster.register(slow, 1, List.of());
+        broadcaster.register(fast, 2, List.of());
+
+        broadcaster.publish(new SseBroadcaster.Event(1, "request", "data"), any -> true);
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+        for (int id = 2; id <= 4; id++) {
+            broadcaster.publish(new SseBroadcaster.Event(id, "request", "data"), any -> true);
+            assertTrue(waitUntilDelivered(fast, id));
+        }
+
+        assertEquals(1, broadcaster.subscriberCount());
+        assertTrue(fast.received.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void publish_whenQueueOfSubscriberBlockedInSendOverflows_thenPublishReturnsWithoutCompletingEmitter()
+            throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter blocked = new RecordingEmitter(1, release);
+        broadcaster.register(blocked, 1, List.of());
+        try {
+            broadcaster.publish(new SseBroadcaster.Event(1, "request", "data"), any -> true);
+            assertTrue(blocked.sending.await(5, TimeUnit.SECONDS));
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                for (int id = 2; id <= 4; id++) {
+                    broadcaster.publish(new SseBroadcaster.Event(id, "request", "data"), any -> true);
+                }
+            });
+
+            assertEquals(0, broadcaster.subscriberCount());
+            assertEquals(1, blocked.completed.getCount());
+            release.countDown();
+            assertTrue(blocked.completed.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void publish_whenEverySenderThreadIsStuckOnStalledClients_thenOthersStillReceiveEvents() throws InterruptedException {
+        SseBroadcaster deadlined = new SseBroadcaster("deadline", 16, 60_000, SENDER_THREADS, 200);
+        CountDownLatch release = new CountDownLatch(1);
+        List<RecordingEmitter> stalled = new ArrayList<>();
+        try {
+            for (int userId = 1; userId <= SENDER_THREADS; userId++) {
+                RecordingEmitter emitter = new RecordingEmitter(1, release);
+                stalled.add(emitter);
+                deadlined.register(emitter, userId, List.of());
+            }
+            deadlined.publish(new SseBroadcaster.Event(1, "request", "data"), any -> true);
+            for (RecordingEmitter emitter : stalled) {
+                assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+            }
+
+            RecordingEmitter healthy = new RecordingEmitter(2, null);
+            deadlined.register(healthy, 100, List.of());
+            deadlined.publish(new SseBroadcaster.Event(2, "request", "data"), any -> true);
+            deadlined.publish(new SseBroadcaster.Event(3, "request", "data"), any -> true);
+
+            assertTrue(healthy.received.await(5, TimeUnit.SECONDS));
+            for (int attempt = 0; attempt < 500 && deadlined.subscriberCount() > 1; attempt++) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, deadlined.subscriberCount());
+            release.countDown();
+            for (RecordingEmitter emitter : stalled) {
+                assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            release.countDown();
+            deadlined.close();
+        }
+    }
+
+    private static boolean waitUntilDelivered(RecordingEmitter emitter, int count) throws InterruptedException {
+        for (int attempt = 0; attempt < 500 && emitter.events.size() < count; attempt++) {
+            Thread.sleep(10);
+        }
+        return emitter.events.size() >= count;
+    }
+
+    /**send и complete синхронизированы, как у SseEmitter: complete ждет зависшую отправку.**/
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch received;
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        RecordingEmitter(int expected, CountDownLatch release) {
+            this.received = new CountDownLatch(expected);
+            this.release = release;
+        }
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            events.add(builder.build().iterator().next().getData().toString());
+            received.countDown();
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
+}